@@ -148,6 +148,14 @@ public class Main {
 				System.out.println(p + ": " + i.valueOf(p));
 				// }
 			}
+			System.out.println("DLL: " + i.dllName);
+			for (int j = 0; j < i.thunks.size(); j++) {
+				if (i.thunks.isOrdinal(j)) {
+					System.out.println("  #" + i.thunks.getOrdinal(j));
+				} else {
+					System.out.println("  " + i.thunks.getName(j) + " (" + i.thunks.getHint(j) + ")");
+				}
+			}
 		}
 		
 		System.out
@@ -218,9 +226,9 @@ public class Main {
 							.println("@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@");
 			}
 			
-			if (e.dir != null) {
+			if (e.getDir() != null) {
 				
-				traverseResDirTree(e.dir, true);
+				traverseResDirTree(e.getDir(), true);
 				
 			} else if (e.entry != null) {
 				
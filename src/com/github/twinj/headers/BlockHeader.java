@@ -18,8 +18,23 @@ public abstract class BlockHeader<B extends Enum<B>, P extends Enum<P>, D extend
 
 	@SuppressWarnings("unchecked")
 	public <R extends Number> R valueOf(B b, P p) {		
-		DatumAbstract<?> d = get(b).get(p);
-		return (R) (d.value == null ? d.valueOf() : d.value);
+		return (R) get(b).valueOf(p);
+	}
+	
+	public int getU8(B b, P p) {
+		return get(b).getU8(p);
+	}
+	
+	public int getU16(B b, P p) {
+		return get(b).getU16(p);
+	}
+	
+	public long getU32(B b, P p) {
+		return get(b).getU32(p);
+	}
+	
+	public long getU64(B b, P p) {
+		return get(b).getU64(p);
 	}
 	
 	@Override
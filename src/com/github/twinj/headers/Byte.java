@@ -14,11 +14,14 @@ public class Byte extends DatumAbstract<Short> {
 
 	@Override
 	public Short valueOf() {
-			short v =  (short) (bytes[0] & 0xFF);
-			// shifing to fit bit array into an int
-			for (int i = 1; i < bytes.length; i++) {
-				v = (short) (v | ( bytes[i] & 0xFF) << (i * BYTE_SIZE_IN_BITS));
-			}
-			return new Short(v);		
-	}	
+		if (value == null) {
+			value = bytes.length == 1 ? (short) getU8() : (short) SHORT.get(bytes, 0);
+		}
+		return value;
+	}
+	
+	@Override
+	public Byte newInstance() {
+		return new Byte();
+	}
 }
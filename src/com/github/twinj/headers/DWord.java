@@ -14,11 +14,14 @@ public class DWord extends DatumAbstract<Integer> {
 	
 	@Override
 	public Integer valueOf() {
-		int v = bytes[0] & 0xFF;
-		// shifing to fit bit array into an int
-		for (int i = 1; i < bytes.length; i++) {
-			v = v | (bytes[i] & 0xFF) << (i * BYTE_SIZE_IN_BITS);
+		if (value == null) {
+			value = (int) INT.get(bytes, 0);
 		}
-		return new Integer(v);
+		return value;
+	}
+	
+	@Override
+	public DWord newInstance() {
+		return new DWord();
 	}
 }
@@ -1,11 +1,22 @@
 package com.github.twinj.headers;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.lang.reflect.ParameterizedType;
+import java.nio.ByteOrder;
 
 public abstract class DatumAbstract<R extends Number> {
 	
 	protected static final int BYTE_SIZE_IN_BITS = 8;
 	
+	// Little endian views used by the primitive accessors
+	static final VarHandle SHORT = MethodHandles.byteArrayViewVarHandle(short[].class,
+				ByteOrder.LITTLE_ENDIAN);
+	static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class,
+				ByteOrder.LITTLE_ENDIAN);
+	static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class,
+				ByteOrder.LITTLE_ENDIAN);
+	
 	public byte[] bytes;
 	public long position;
 	R value = null;
@@ -42,6 +53,41 @@ public abstract class DatumAbstract<R extends Number> {
 	
 	public abstract R valueOf();
 	
+	/**
+	 * The first byte as an unsigned value.
+	 */
+	public final int getU8() {
+		return bytes[0] & 0xFF;
+	}
+	
+	/**
+	 * The first two bytes as an unsigned little endian value.
+	 */
+	public final int getU16() {
+		return (short) SHORT.get(bytes, 0) & 0xFFFF;
+	}
+	
+	/**
+	 * The first four bytes as an unsigned little endian value.
+	 */
+	public final long getU32() {
+		return (int) INT.get(bytes, 0) & 0xFFFFFFFFL;
+	}
+	
+	/**
+	 * The first eight bytes as a little endian value. Java has no unsigned
+	 * long so values above Long.MAX_VALUE are negative.
+	 */
+	public final long getU64() {
+		return (long) LONG.get(bytes, 0);
+	}
+	
+	/**
+	 * Creates an empty datum of the same type. Property enums keep one datum as
+	 * a prototype so headers can be populated without reflection.
+	 */
+	public abstract DatumAbstract<R> newInstance();
+	
 	@SuppressWarnings("unchecked")
 	public Class<R> get() throws Exception {
 		ParameterizedType superclass = (ParameterizedType) getClass().getGenericSuperclass();
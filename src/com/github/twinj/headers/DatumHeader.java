@@ -2,8 +2,20 @@ package com.github.twinj.headers;
 
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.github.twinj.pecoff4j.PropertyInterface;
 
 /**
+ * A header read with {@link #view(byte[], int)} keeps only its raw bytes. The
+ * getU8 to getU64 and toUtfString getters decode straight from them at the
+ * property offsets. Its fields are mapped into datums the first time it is
+ * used as a map or through the other methods. Copying it with the EnumMap
+ * constructor or putAll copies only fields already mapped.
  * 
  * @author Daniel Kemp
  * 
@@ -15,6 +27,11 @@ import java.nio.ByteBuffer;
 public abstract class DatumHeader<P extends Enum<P>> extends Header<P, DatumAbstract<?>> {
 	private static final long serialVersionUID = 7850398000071329260L;
 	
+	// Raw bytes of a header read as a view, null once its fields are mapped
+	private transient volatile byte[] raw;
+	private transient int rawOffset;
+	private transient boolean mapping;
+	
 	public DatumHeader(Class<P> clazz, int sizeOf, ByteBuffer bytes) {
 		super(clazz, sizeOf, bytes);
 	}
@@ -29,6 +46,37 @@ public abstract class DatumHeader<P extends Enum<P>> extends Header<P, DatumAbst
 		return (N) (h.value == null ? get(p).valueOf() : h.value);
 	}
 	
+	public int getU8(P p) {
+		byte[] b = raw;
+		if (b != null) return b[at(p)] & 0xFF;
+		return get(p).getU8();
+	}
+	
+	public int getU16(P p) {
+		byte[] b = raw;
+		if (b != null) return (short) DatumAbstract.SHORT.get(b, at(p)) & 0xFFFF;
+		return get(p).getU16();
+	}
+	
+	public long getU32(P p) {
+		byte[] b = raw;
+		if (b != null) return (int) DatumAbstract.INT.get(b, at(p)) & 0xFFFFFFFFL;
+		return get(p).getU32();
+	}
+	
+	public long getU64(P p) {
+		byte[] b = raw;
+		if (b != null) return (long) DatumAbstract.LONG.get(b, at(p));
+		return get(p).getU64();
+	}
+	
+	/**
+	 * Offset of the property in the raw bytes.
+	 */
+	private int at(P p) {
+		return rawOffset + ((PropertyInterface) p).getOffset();
+	}
+	
 	/**
 	 * Returns an asci string of the bytes.
 	 * 
@@ -36,6 +84,10 @@ public abstract class DatumHeader<P extends Enum<P>> extends Header<P, DatumAbst
 	 * @return
 	 */
 	public String toUtfString(P p) {
+		byte[] b = raw;
+		if (b != null) {
+			return new String(b, at(p), ((PropertyInterface) p).sizeOf(), StandardCharsets.UTF_8);
+		}
 		DatumAbstract<?> h = (DatumAbstract<?>) get(p);
 		try {
 			return new String(h.bytes, "UTF-8");
@@ -61,4 +113,136 @@ public abstract class DatumHeader<P extends Enum<P>> extends Header<P, DatumAbst
 		}
 		return ret.array();
 	}
+	
+	/**
+	 * Backs the header with sizeOf bytes of the array from the offset instead
+	 * of mapping its fields. The array must not change afterwards.
+	 */
+	@Override
+	public void view(byte[] bytes, int offset) {
+		if (!PropertyInterface.class.isAssignableFrom(clazz)) {
+			throw new IllegalArgumentException(clazz + " has no property layout");
+		}
+		Objects.checkFromIndexSize(offset, sizeOf * arraySize, bytes.length);
+		rawOffset = offset;
+		raw = bytes;
+	}
+	
+	/**
+	 * Returns true while the header is only backed by its raw bytes.
+	 */
+	public boolean isView() {
+		return raw != null;
+	}
+	
+	/**
+	 * Maps the fields of a header read as a view. Calls made by mapProperties
+	 * itself return at once.
+	 */
+	private void materialize() {
+		if (raw == null) return;
+		synchronized (this) {
+			byte[] b = raw;
+			if (b == null || mapping) return;
+			mapping = true;
+			try {
+				mapProperties(ByteBuffer.wrap(b, rawOffset, sizeOf * arraySize).slice());
+			} finally {
+				mapping = false;
+			}
+			raw = null;
+		}
+	}
+	
+	@Override
+	public int size() {
+		materialize();
+		return super.size();
+	}
+	
+	@Override
+	public boolean containsValue(Object value) {
+		materialize();
+		return super.containsValue(value);
+	}
+	
+	@Override
+	public boolean containsKey(Object key) {
+		materialize();
+		return super.containsKey(key);
+	}
+	
+	@Override
+	public DatumAbstract<?> get(Object key) {
+		materialize();
+		return super.get(key);
+	}
+	
+	@Override
+	public DatumAbstract<?> put(P key, DatumAbstract<?> value) {
+		materialize();
+		return super.put(key, value);
+	}
+	
+	@Override
+	public DatumAbstract<?> remove(Object key) {
+		materialize();
+		return super.remove(key);
+	}
+	
+	@Override
+	public void putAll(Map<? extends P, ? extends DatumAbstract<?>> m) {
+		materialize();
+		if (m instanceof DatumHeader) ((DatumHeader<?>) m).materialize();
+		super.putAll(m);
+	}
+	
+	@Override
+	public void clear() {
+		materialize();
+		super.clear();
+	}
+	
+	@Override
+	public Set<P> keySet() {
+		materialize();
+		return super.keySet();
+	}
+	
+	@Override
+	public Collection<DatumAbstract<?>> values() {
+		materialize();
+		return super.values();
+	}
+	
+	@Override
+	public Set<Map.Entry<P, DatumAbstract<?>>> entrySet() {
+		materialize();
+		return super.entrySet();
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		materialize();
+		if (o instanceof DatumHeader) ((DatumHeader<?>) o).materialize();
+		return super.equals(o);
+	}
+	
+	@Override
+	public int hashCode() {
+		materialize();
+		return super.hashCode();
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public DatumHeader<P> clone() {
+		materialize();
+		return (DatumHeader<P>) super.clone();
+	}
+	
+	protected Object writeReplace() {
+		materialize();
+		return this;
+	}
 }
@@ -1,13 +1,14 @@
 package com.github.twinj.headers;
 
 import java.io.IOException;
-import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
 
+import com.github.twinj.pecoff4j.Headers;
 import com.github.twinj.pecoff4j.PropertyInterface;
 import com.github.twinj.pecoff4j.io.IDataReader;
 import com.github.twinj.pecoff4j.io.IDataWriter;
@@ -35,10 +36,10 @@ public abstract class Header<P extends Enum<P>, M> extends EnumMap<P, M> {
 	//protected static final int DWORD = 4; // unsigned int
 	//protected static final int ULONGLONG = 8; // unsigned long
 	
-	protected static Byte BYTE = new Byte();
-	protected static Word WORD = new Word();
-	protected static DWord DWORD = new DWord();
-	protected static ULongLong ULONGLONG = new ULongLong();
+	protected static final Byte BYTE = new Byte();
+	protected static final Word WORD = new Word();
+	protected static final DWord DWORD = new DWord();
+	protected static final ULongLong ULONGLONG = new ULongLong();
 
 	protected Class<P> clazz;
 	
@@ -71,38 +72,78 @@ public abstract class Header<P extends Enum<P>, M> extends EnumMap<P, M> {
 		dw.writeBytes(this.array());
 	}
 	
-	@SuppressWarnings("rawtypes")
+	/**
+	 * Reads a header through its registered factory. Prefer
+	 * {@link #parse(HeaderFactory, IDataReader)} when the factory is known.
+	 * 
+	 * @return the header or null if the class has no factory
+	 */
+	@SuppressWarnings({"rawtypes", "unchecked"})
 	public static Header parse(Class<? extends Header> clazz, IDataReader dr)
 				throws IOException {
-		try {
-			return ((Header) clazz.newInstance()).create(dr);
-		} catch (InstantiationException | IllegalAccessException ignore) {}
-		return null;
+		HeaderFactory<?> factory = Headers.factoryOf((Class) clazz);
+		return factory == null ? null : parse(factory, dr);
+	}
+	
+	public static <H extends Header<?, ?>> H parse(HeaderFactory<H> factory, IDataReader dr)
+				throws IOException {
+		return parse(factory, dr, false);
+	}
+	
+	/**
+	 * Reads a header, as a view of its bytes when view is true.
+	 * 
+	 * @see #view(byte[], int)
+	 */
+	public static <H extends Header<?, ?>> H parse(HeaderFactory<H> factory, IDataReader dr,
+				boolean view) throws IOException {
+		H h = factory.newInstance();
+		h.create(dr, view);
+		return h;
 	}
 	
 	@SuppressWarnings("rawtypes")
 	protected Header create(IDataReader dr) throws IOException {
+		return create(dr, false);
+	}
+	
+	@SuppressWarnings("rawtypes")
+	protected Header create(IDataReader dr, boolean view) throws IOException {
 		byte[] bytes = new byte[sizeOf * arraySize];
 		dr.read(bytes);
-		mapProperties(ByteBuffer.wrap(bytes));
+		if (view) {
+			view(bytes, 0);
+		} else {
+			mapProperties(ByteBuffer.wrap(bytes));
+		}
 		return this;
 	}
 	
 	protected abstract void mapProperties(ByteBuffer bytes);
 	
+	/**
+	 * Reads the header from sizeOf * arraySize bytes of the array at the
+	 * offset. Subclasses may keep the array and decode fields on demand
+	 * instead of mapping them now.
+	 */
+	public void view(byte[] bytes, int offset) {
+		mapProperties(ByteBuffer.wrap(bytes, offset, sizeOf * arraySize).slice());
+	}
+	
 	protected void mapExtraProperties() {}
 	
 	protected abstract byte[] array();
 	
+	@SuppressWarnings("unchecked")
 	protected static <P extends Enum<P>> Collection<P> values(Class<P> enumClass) {
-		try {
-			Method valuesMethod = enumClass.getMethod("values", new Class[0]);
-			@SuppressWarnings("unchecked")
-			P[] values = (P[]) valuesMethod.invoke(null, new Object[0]);
-			return Arrays.asList(values);
-		} catch (Exception ex) {
-			throw new RuntimeException("Exceptions here should be impossible", ex);
-		}
+		return (Collection<P>) VALUES.get(enumClass);
 	}
+	
+	private static final ClassValue<Collection<?>> VALUES = new ClassValue<Collection<?>>() {
+		@Override
+		protected Collection<?> computeValue(Class<?> type) {
+			return Collections.unmodifiableList(Arrays.asList(type.getEnumConstants()));
+		}
+	};
 
 }
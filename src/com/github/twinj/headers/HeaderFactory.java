@@ -0,0 +1,14 @@
+package com.github.twinj.headers;
+
+/**
+ * Creates empty headers ready to be populated by {@link Header#create}. Each
+ * header class exposes one as its FACTORY constant so parsing does not need
+ * reflection.
+ * 
+ * @param <H>
+ *          Header type
+ */
+public interface HeaderFactory<H extends Header<?, ?>> {
+	
+	H newInstance();
+}
@@ -0,0 +1,146 @@
+package com.github.twinj.headers;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.github.twinj.pecoff4j.PropertyInterface;
+
+/**
+ * Flyweight alternative to {@link DatumHeader}. A view is only a reference to
+ * a shared buffer and the offset of the header within it; each getter decodes
+ * its field on demand with an absolute little endian read at the property's
+ * offset. Nothing is copied and the buffer position is never moved.
+ *
+ * Views are immutable and may be shared between threads as long as nothing
+ * writes to the underlying buffer.
+ *
+ * @param <P>
+ *          Property enum describing the layout
+ */
+public final class HeaderView<P extends Enum<P> & PropertyInterface> {
+
+	private static final ClassValue<Integer> SIZES = new ClassValue<Integer>() {
+		@Override
+		protected Integer computeValue(Class<?> type) {
+			int size = 0;
+			for (Object o : type.getEnumConstants()) {
+				PropertyInterface p = (PropertyInterface) o;
+				size = Math.max(size, p.getOffset() + p.sizeOf());
+			}
+			return size;
+		}
+	};
+
+	private final Class<P> clazz;
+	private final ByteBuffer buffer;
+	private final int offset;
+
+	/**
+	 * @param buffer
+	 *          shared buffer, duplicated only if it is not little endian
+	 * @param offset
+	 *          absolute offset of the header within the buffer
+	 */
+	public HeaderView(Class<P> clazz, ByteBuffer buffer, int offset) {
+		if (buffer.order() != Header.BYTE_ORDER) {
+			buffer = buffer.duplicate();
+			buffer.order(Header.BYTE_ORDER);
+		}
+		this.clazz = clazz;
+		this.buffer = buffer;
+		this.offset = offset;
+	}
+
+	/**
+	 * Size in bytes of a header laid out by the property enum.
+	 */
+	public static int sizeOf(Class<? extends PropertyInterface> clazz) {
+		return SIZES.get(clazz);
+	}
+
+	public int sizeOf() {
+		return SIZES.get(clazz);
+	}
+
+	public int getOffset() {
+		return offset;
+	}
+
+	public ByteBuffer getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * Returns a view of the same header type at another offset of the buffer.
+	 */
+	public HeaderView<P> at(int offset) {
+		return new HeaderView<P>(clazz, buffer, offset);
+	}
+
+	/**
+	 * Returns a view of the header that immediately follows this one, as found
+	 * in arrays of headers such as the section table.
+	 */
+	public HeaderView<P> next() {
+		return at(offset + sizeOf());
+	}
+
+	public int getU8(P p) {
+		return buffer.get(offset + p.getOffset()) & 0xff;
+	}
+
+	public int getU16(P p) {
+		return buffer.getShort(offset + p.getOffset()) & 0xffff;
+	}
+
+	public long getU32(P p) {
+		return buffer.getInt(offset + p.getOffset()) & 0xffffffffL;
+	}
+
+	public long getU64(P p) {
+		return buffer.getLong(offset + p.getOffset());
+	}
+
+	/**
+	 * Decodes the field as an unsigned number sized by the property.
+	 */
+	public long valueOf(P p) {
+		switch (p.sizeOf()) {
+			case 1 :
+				return getU8(p);
+			case 2 :
+				return getU16(p);
+			case 4 :
+				return getU32(p);
+			case 8 :
+				return getU64(p);
+			default :
+				throw new IllegalArgumentException(p + " is not a numeric field");
+		}
+	}
+
+	/**
+	 * Copies the raw bytes of the field.
+	 */
+	public byte[] getBytes(P p) {
+		byte[] b = new byte[p.sizeOf()];
+		int start = offset + p.getOffset();
+		for (int i = 0; i < b.length; i++) {
+			b[i] = buffer.get(start + i);
+		}
+		return b;
+	}
+
+	/**
+	 * Returns a string of the bytes, as {@link DatumHeader#toUtfString}.
+	 */
+	public String toUtfString(P p) {
+		return new String(getBytes(p), StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String toString() {
+		Class<?> owner = clazz.getEnclosingClass();
+		return (owner != null ? owner : clazz).getSimpleName() + "@" + offset;
+	}
+}
@@ -13,11 +13,14 @@ public class ULongLong extends DatumAbstract<Long> {
 	
 	@Override
 	public Long valueOf() {
-		int v = bytes[0] & 0xFF;
-		// shifing to fit bit array into an int
-		for (int i = 1; i < bytes.length; i++) {
-			v = v | (bytes[i] & 0xFF) << (i * BYTE_SIZE_IN_BITS);
+		if (value == null) {
+			value = (long) LONG.get(bytes, 0);
 		}
-		return new Long(v);
+		return value;
+	}
+	
+	@Override
+	public ULongLong newInstance() {
+		return new ULongLong();
 	}
 }
@@ -15,11 +15,14 @@ public class Word extends DatumAbstract<Short> {
 
 	@Override
 	public Short valueOf() {
-			short v =  (short) (bytes[0] & 0xFF);
-			// shifing to fit bit array into an int
-			for (int i = 1; i < bytes.length; i++) {
-				v = (short) (v | ( bytes[i] & 0xFF) << (i * BYTE_SIZE_IN_BITS));
-			}
-			return new Short(v);		
-	}	
+		if (value == null) {
+			value = (short) SHORT.get(bytes, 0);
+		}
+		return value;
+	}
+	
+	@Override
+	public Word newInstance() {
+		return new Word();
+	}
 }
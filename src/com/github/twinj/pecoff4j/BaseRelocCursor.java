@@ -0,0 +1,269 @@
+package com.github.twinj.pecoff4j;
+
+import static com.github.twinj.pecoff4j.constant.BaseRelocationType.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Streaming decoder of the base relocation table. The cursor walks the blocks
+ * and their entries with absolute reads of the table, so iterating a table
+ * allocates nothing and the buffer position is never moved.
+ *
+ * <pre>
+ * BaseRelocCursor c = new BaseRelocCursor(id.getBaseRelocations());
+ * while (c.next()) {
+ * 	count[c.getType()]++;
+ * }
+ * </pre>
+ *
+ * A block whose size is too small or runs past the end of the table ends the
+ * walk. The extra slot of a HIGHADJ entry is consumed with it and exposed by
+ * {@link #getParameter()}.
+ */
+public final class BaseRelocCursor {
+
+	private static final int SIZE_OF_BLOCK_HEADER = 8;
+
+	private final ByteBuffer table;
+	private final int start;
+	private final int limit;
+
+	private int block;
+	private int blockEnd;
+	private int pageRva;
+	private int entry;
+	private int value;
+	private int parameter;
+
+	public BaseRelocCursor(byte[] table) {
+		this(ByteBuffer.wrap(table));
+	}
+
+	/**
+	 * Walks the table between the position and the limit of the buffer.
+	 */
+	public BaseRelocCursor(ByteBuffer table) {
+		if (table.order() != ByteOrder.LITTLE_ENDIAN) {
+			table = table.duplicate();
+			table.order(ByteOrder.LITTLE_ENDIAN);
+		}
+		this.table = table;
+		this.start = table.position();
+		this.limit = table.limit();
+		reset();
+	}
+
+	/**
+	 * Moves back to before the first entry.
+	 */
+	public void reset() {
+		block = -1;
+		blockEnd = start;
+		entry = start;
+	}
+
+	/**
+	 * Moves to the start of the next block. Entries left in the current block
+	 * are skipped.
+	 *
+	 * @return false at the end of the table
+	 */
+	public boolean nextBlock() {
+		int next = blockEnd;
+		if (next > limit - SIZE_OF_BLOCK_HEADER) return false;
+		int size = table.getInt(next + 4);
+		if (size < SIZE_OF_BLOCK_HEADER || size > limit - next) return false;
+		block = next;
+		blockEnd = next + size;
+		pageRva = table.getInt(next);
+		entry = next + SIZE_OF_BLOCK_HEADER;
+		return true;
+	}
+
+	/**
+	 * Moves to the next entry, moving on to the following blocks as needed.
+	 *
+	 * @return false at the end of the table
+	 */
+	public boolean next() {
+		while (entry > blockEnd - 2) {
+			if (!nextBlock()) return false;
+		}
+		value = table.getShort(entry) & 0xffff;
+		entry += 2;
+		if (getType() == IMAGE_REL_BASED_HIGHADJ && entry <= blockEnd - 2) {
+			parameter = table.getShort(entry) & 0xffff;
+			entry += 2;
+		} else {
+			parameter = 0;
+		}
+		return true;
+	}
+
+	/**
+	 * Page RVA of the current block.
+	 */
+	public int getPageRva() {
+		return pageRva;
+	}
+
+	/**
+	 * Number of entry slots in the current block, including padding.
+	 */
+	public int getBlockEntries() {
+		return block < 0 ? 0 : (blockEnd - block - SIZE_OF_BLOCK_HEADER) / 2;
+	}
+
+	/**
+	 * Type of the current entry, one of the
+	 * {@link com.github.twinj.pecoff4j.constant.BaseRelocationType} constants.
+	 */
+	public int getType() {
+		return value >>> 12;
+	}
+
+	/**
+	 * Offset of the current entry from the page RVA.
+	 */
+	public int getOffset() {
+		return value & 0xfff;
+	}
+
+	/**
+	 * RVA of the field patched by the current entry.
+	 */
+	public int getRva() {
+		return pageRva + getOffset();
+	}
+
+	/**
+	 * Low 16 bits of the target of a HIGHADJ entry, 0 for other types.
+	 */
+	public int getParameter() {
+		return parameter;
+	}
+
+	/**
+	 * Number of bytes patched by an entry of the type, 0 for padding and
+	 * unsupported types.
+	 */
+	public static int sizeOf(int type) {
+		switch (type) {
+			case IMAGE_REL_BASED_HIGH :
+			case IMAGE_REL_BASED_LOW :
+			case IMAGE_REL_BASED_HIGHADJ :
+				return 2;
+			case IMAGE_REL_BASED_HIGHLOW :
+				return 4;
+			case IMAGE_REL_BASED_DIR64 :
+			case IMAGE_REL_BASED_ARM_MOV32 :
+			case IMAGE_REL_BASED_THUMB_MOV32 :
+				return 8;
+			default :
+				return 0;
+		}
+	}
+
+	/**
+	 * Applies the current entry to an image laid out by RVA, as the loader
+	 * does when the image is loaded delta bytes away from its preferred base.
+	 *
+	 * @param image
+	 *          writable buffer holding the image at its RVAs, such as one
+	 *          built from the sections
+	 * @return false if the type is not supported or the field is outside the
+	 *         buffer
+	 */
+	public boolean apply(ByteBuffer image, long delta) {
+		int type = getType();
+		int rva = getRva();
+		int size = sizeOf(type);
+		if (size == 0) return type == IMAGE_REL_BASED_ABSOLUTE;
+		if (rva < 0 || rva > image.limit() - size) return false;
+		if (image.order() != ByteOrder.LITTLE_ENDIAN) {
+			image = image.duplicate();
+			image.order(ByteOrder.LITTLE_ENDIAN);
+		}
+		int d = (int) delta;
+		switch (type) {
+			case IMAGE_REL_BASED_HIGH :
+				image.putShort(rva, (short) (image.getShort(rva) + (d >>> 16)));
+				break;
+			case IMAGE_REL_BASED_LOW :
+				image.putShort(rva, (short) (image.getShort(rva) + d));
+				break;
+			case IMAGE_REL_BASED_HIGHADJ :
+				int target = (image.getShort(rva) << 16) + (short) parameter + d + 0x8000;
+				image.putShort(rva, (short) (target >>> 16));
+				break;
+			case IMAGE_REL_BASED_HIGHLOW :
+				image.putInt(rva, image.getInt(rva) + d);
+				break;
+			case IMAGE_REL_BASED_DIR64 :
+				image.putLong(rva, image.getLong(rva) + delta);
+				break;
+			case IMAGE_REL_BASED_ARM_MOV32 : {
+				int movw = image.getInt(rva);
+				int movt = image.getInt(rva + 4);
+				int address = (armImm16(movt) << 16 | armImm16(movw)) + d;
+				image.putInt(rva, armImm16(movw, address & 0xffff));
+				image.putInt(rva + 4, armImm16(movt, address >>> 16));
+				break;
+			}
+			case IMAGE_REL_BASED_THUMB_MOV32 : {
+				int movw = thumbInstruction(image, rva);
+				int movt = thumbInstruction(image, rva + 4);
+				int address = (thumbImm16(movt) << 16 | thumbImm16(movw)) + d;
+				putThumbInstruction(image, rva, thumbImm16(movw, address & 0xffff));
+				putThumbInstruction(image, rva + 4, thumbImm16(movt, address >>> 16));
+				break;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Applies every entry of the table, starting from the beginning.
+	 *
+	 * @return number of entries which could not be applied
+	 */
+	public int applyAll(ByteBuffer image, long delta) {
+		reset();
+		int failed = 0;
+		while (next()) {
+			if (!apply(image, delta)) failed++;
+		}
+		return failed;
+	}
+
+	// ARM MOVW/MOVT: imm4 in bits 19-16, imm12 in bits 11-0
+	static int armImm16(int instruction) {
+		return (instruction >>> 4 & 0xf000) | (instruction & 0xfff);
+	}
+
+	static int armImm16(int instruction, int imm16) {
+		return (instruction & 0xfff0f000) | (imm16 & 0xf000) << 4 | (imm16 & 0xfff);
+	}
+
+	// Thumb-2 MOVW/MOVT, first halfword in the high half: imm4 in bits 19-16,
+	// i in bit 26, imm3 in bits 14-12 and imm8 in bits 7-0
+	static int thumbImm16(int instruction) {
+		return (instruction >>> 4 & 0xf000) | (instruction >>> 15 & 0x0800)
+					| (instruction >>> 4 & 0x0700) | (instruction & 0xff);
+	}
+
+	static int thumbImm16(int instruction, int imm16) {
+		return (instruction & 0xfbf08f00) | (imm16 & 0xf000) << 4 | (imm16 & 0x0800) << 15
+					| (imm16 & 0x0700) << 4 | (imm16 & 0xff);
+	}
+
+	private static int thumbInstruction(ByteBuffer image, int at) {
+		return (image.getShort(at) & 0xffff) << 16 | (image.getShort(at + 2) & 0xffff);
+	}
+
+	private static void putThumbInstruction(ByteBuffer image, int at, int instruction) {
+		image.putShort(at, (short) (instruction >>> 16));
+		image.putShort(at + 2, (short) instruction);
+	}
+}
@@ -13,13 +13,14 @@ import java.nio.ByteBuffer;
 
 import com.github.twinj.headers.DatumAbstract;
 import com.github.twinj.headers.DatumHeader;
+import com.github.twinj.headers.HeaderFactory;
 import com.github.twinj.pecoff4j.BoundImport.Property;
 
 public class BoundImport extends DatumHeader<Property> {
 
 	private static final long serialVersionUID = 7615482031907300483L;
 
-	public static enum Property {
+	public static enum Property implements PropertyInterface {
 		
 		TIME_DATE_STAMP(DWORD, "TimeDateStamp"),
 		OFFSET_MODULE_NAME(WORD, "OffsetModuleName"),
@@ -29,25 +30,69 @@ public class BoundImport extends DatumHeader<Property> {
 		int sizeOf;
 		String winName;
 		Class<? extends DatumAbstract<?>> clazz;
+		DatumAbstract<?> datum;
 		
 		@SuppressWarnings("unchecked")
 		Property(DatumAbstract<?> size, int arraySize, String winName) {
 			this.sizeOf = size.sizeOf * arraySize;
 			this.winName = winName;
 			this.clazz = (Class<? extends DatumAbstract<?>>) size.getClass();
+			this.datum = size;
+			offset = offset();
+			inc(sizeOf);
 		}
 		
 		Property(DatumAbstract<?> size, String winName) {
 			this(size, 1, winName);
 		}
+		
+		public int offset;
+		static int SIZE_OF = 0;
+		
+		static int offset() {
+			return SIZE_OF;
+		}
+		static void inc(int sizeOf) {
+			SIZE_OF += sizeOf;
+		}
+		
+		public Class<? extends DatumAbstract<?>> getDatumClass() {
+			return clazz;
+		}
+		
+		public int sizeOf() {
+			return sizeOf;
+		}
+		
+		public int getOffset() {
+			return offset;
+		}
 	}
-	static int SIZE_OF = 8;
+	static final int SIZE_OF = 8;
 	
+	private static final int[] NO_STAMPS = new int[0];
+	private static final String[] NO_NAMES = new String[0];
+	
+	/**
+	 * Name of the bound module, decoded from the directory.
+	 */
 	public String moduleName;
+	
+	// IMAGE_BOUND_FORWARDER_REF entries following the descriptor
+	private int[] forwarderStamps = NO_STAMPS;
+	private String[] forwarderNames = NO_NAMES;
+	
 	public BoundImport(ByteBuffer bytes) {
 		super(Property.class, SIZE_OF, bytes);
 	}
 	
+	public static final HeaderFactory<BoundImport> FACTORY = new HeaderFactory<BoundImport>() {
+		@Override
+		public BoundImport newInstance() {
+			return new BoundImport();
+		}
+	};
+	
 	public BoundImport() {
 		super(Property.class, SIZE_OF);
 	}
@@ -58,15 +103,43 @@ public class BoundImport extends DatumHeader<Property> {
 		for (Property p : Property.values()) {
 			barray = new byte[p.sizeOf];
 			bytes.get(barray);
-			DatumAbstract<?> d = null;
-			try {
-				d = p.clazz.newInstance();
-			} catch (InstantiationException | IllegalAccessException ignore) {}
+			DatumAbstract<?> d = p.datum.newInstance();
 			d.bytes = barray;
 			d.position = bytes.position();
 			put(p, (DatumAbstract<?>) d);
-			System.err.print(p + ": " + get(p).valueOf() + "\n");
 		}
 	}
 	
+	/**
+	 * True for the all zero descriptor which ends the directory.
+	 */
+	public boolean isNull() {
+		return getU32(Property.TIME_DATE_STAMP) == 0 && getU16(Property.OFFSET_MODULE_NAME) == 0
+					&& getU16(Property.NUMBER_OF_MODULE_FORWARDER_REFS) == 0;
+	}
+	
+	void setForwarders(int[] stamps, String[] names) {
+		this.forwarderStamps = stamps;
+		this.forwarderNames = names;
+	}
+	
+	/**
+	 * Number of forwarder references decoded, the modules that the bound
+	 * module forwards some of the bound functions to.
+	 */
+	public int getForwarderCount() {
+		return forwarderStamps.length;
+	}
+	
+	/**
+	 * Time stamp of the forwarded to module the image was bound against.
+	 */
+	public long getForwarderTimeDateStamp(int i) {
+		return forwarderStamps[i] & 0xFFFFFFFFL;
+	}
+	
+	public String getForwarderName(int i) {
+		return forwarderNames[i];
+	}
+	
 }
@@ -10,25 +10,61 @@
 package com.github.twinj.pecoff4j;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 
+import com.github.twinj.pecoff4j.util.IntMap;
+import com.github.twinj.pecoff4j.util.NameTable;
+
+/**
+ * Bound import descriptors up to, but not including, the null descriptor
+ * which ends the table. Each descriptor is followed by its forwarder
+ * references, which are decoded into the descriptor rather than listed.
+ * Module names are at offsets from the start of the directory; names shared
+ * by several entries are decoded once.
+ */
 public class BoundImportDir extends ArrayList<BoundImport> {
 
 	private static final long serialVersionUID = 281450863816447210L;
 
 	public BoundImportDir(ByteBuffer buffer) {
-		BoundImport bi = null;
-		byte[] barray = null;
-		while (true) {
-			barray = new byte[BoundImport.SIZE_OF];
-			buffer.get(barray);
-			bi = new BoundImport(ByteBuffer.wrap(barray));
-			add(bi);
-			if (bi.valueOf(BoundImport.Property.TIME_DATE_STAMP).intValue() == 0
-				&& bi.valueOf(BoundImport.Property.OFFSET_MODULE_NAME).intValue() == 0
-				&& bi.valueOf(BoundImport.Property.NUMBER_OF_MODULE_FORWARDER_REFS).intValue() == 0) {
-				break;
+		ByteBuffer b = buffer.duplicate();
+		b.order(ByteOrder.LITTLE_ENDIAN);
+		int start = b.position();
+		IntMap names = new IntMap();
+		NameTable table = new NameTable(16);
+		
+		while (b.remaining() >= BoundImport.SIZE_OF) {
+			BoundImport bi = new BoundImport(b);
+			if (bi.isNull()) break;
+			bi.moduleName = name(b, start, bi.getU16(BoundImport.Property.OFFSET_MODULE_NAME),
+						names, table);
+			
+			int refs = Math.min(bi.getU16(BoundImport.Property.NUMBER_OF_MODULE_FORWARDER_REFS),
+						b.remaining() / BoundImport.SIZE_OF);
+			int[] stamps = new int[refs];
+			String[] forwarders = new String[refs];
+			for (int i = 0; i < refs; i++) {
+				stamps[i] = b.getInt();
+				forwarders[i] = name(b, start, b.getShort() & 0xffff, names, table);
+				b.getShort(); // Reserved
 			}
+			bi.setForwarders(stamps, forwarders);
+			add(bi);
+		}
+	}
+	
+	/**
+	 * Returns the name at the offset from the start of the directory, or null
+	 * if it is outside it.
+	 */
+	private static String name(ByteBuffer b, int start, int offset, IntMap names,
+				NameTable table) {
+		String n = (String) names.get(offset);
+		if (n == null && offset < b.limit() - start) {
+			n = table.get(b, start + offset);
+			names.put(offset, n);
 		}
+		return n;
 	}
 }
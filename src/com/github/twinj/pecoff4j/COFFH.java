@@ -13,6 +13,7 @@ import java.nio.ByteBuffer;
 
 import com.github.twinj.headers.DatumAbstract;
 import com.github.twinj.headers.DatumHeader;
+import com.github.twinj.headers.HeaderFactory;
 
 /**
  * File header format. Common Object File Format (COFF)
@@ -24,7 +25,7 @@ public class COFFH extends DatumHeader<COFFH.Property> {
 	
 	private static final long serialVersionUID = -6269668502608322698L;
 	
-	public static enum Property {
+	public static enum Property implements PropertyInterface {
 		
 		/**
 		 * Number identifying type of target machine.
@@ -67,12 +68,14 @@ public class COFFH extends DatumHeader<COFFH.Property> {
 		int sizeOf;
 		String winName;
 		Class<? extends DatumAbstract<?>> clazz;
+		DatumAbstract<?> datum;
 		
 		@SuppressWarnings("unchecked")
 		Property(DatumAbstract<?> size, int arraySize, String winName) {
 			this.sizeOf = size.sizeOf * arraySize;
 			this.winName = winName;
 			this.clazz = (Class<? extends DatumAbstract<?>>) size.getClass();
+			this.datum = size;
 			offset = offset();
 			inc(sizeOf);
 		}
@@ -87,7 +90,19 @@ public class COFFH extends DatumHeader<COFFH.Property> {
 		}		
 		Property(DatumAbstract<?> size, String winName) {
 			this(size, 1, winName);
-		}		
+		}
+		
+		public Class<? extends DatumAbstract<?>> getDatumClass() {
+			return clazz;
+		}
+		
+		public int sizeOf() {
+			return sizeOf;
+		}
+		
+		public int getOffset() {
+			return offset;
+		}
 	}
 	public static final int SIZE_OF = 20;
 	
@@ -95,6 +110,13 @@ public class COFFH extends DatumHeader<COFFH.Property> {
 		super(Property.class, SIZE_OF, bytes);
 	}
 	
+	public static final HeaderFactory<COFFH> FACTORY = new HeaderFactory<COFFH>() {
+		@Override
+		public COFFH newInstance() {
+			return new COFFH();
+		}
+	};
+	
 	public COFFH() {
 		super(Property.class, SIZE_OF);
 	}
@@ -105,14 +127,10 @@ public class COFFH extends DatumHeader<COFFH.Property> {
 		for (Property p : Property.values()) {
 			barray = new byte[p.sizeOf];
 			bytes.get(barray);
-			DatumAbstract<?> d = null;
-			try {
-				d = p.clazz.newInstance();
-			} catch (InstantiationException | IllegalAccessException ignore) {}
+			DatumAbstract<?> d = p.datum.newInstance();
 			d.bytes = barray;
 			d.position = bytes.position();
 			put(p, (DatumAbstract<?>) d);
-			System.err.print(p + ": " + get(p).valueOf() + "\n");
 		}
 	}
 	
@@ -0,0 +1,141 @@
+package com.github.twinj.pecoff4j;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * CodeView debug record pointing at the PDB of an image: an RSDS record of
+ * PDB 7.0 files, identified by a GUID and an age, or an NB10 record of PDB
+ * 2.0 files, identified by a time stamp and an age. The GUID is kept as two
+ * longs, the first holding Data1, Data2 and Data3 and the second the eight
+ * bytes of Data4, which is the order symbol stores print them in.
+ */
+public final class CodeViewInfo {
+	
+	/**
+	 * 'RSDS' read as a little endian double word.
+	 */
+	public static final int SIGNATURE_RSDS = 0x53445352;
+	
+	/**
+	 * 'NB10' read as a little endian double word.
+	 */
+	public static final int SIGNATURE_NB10 = 0x3031424e;
+	
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
+	private final int signature;
+	private final long guidHigh;
+	private final long guidLow;
+	private final int age;
+	private final String path;
+	
+	private CodeViewInfo(int signature, long guidHigh, long guidLow, int age, String path) {
+		this.signature = signature;
+		this.guidHigh = guidHigh;
+		this.guidLow = guidLow;
+		this.age = age;
+		this.path = path;
+	}
+	
+	/**
+	 * Decodes the record between the position and the limit of the little
+	 * endian buffer.
+	 * 
+	 * @return null if it is neither an RSDS nor an NB10 record
+	 */
+	public static CodeViewInfo read(ByteBuffer b) {
+		int p = b.position();
+		int n = b.limit() - p;
+		if (n < 4) return null;
+		int signature = b.getInt(p);
+		if (signature == SIGNATURE_RSDS && n >= 24) {
+			long high = (b.getInt(p + 4) & 0xFFFFFFFFL) << 32 | (b.getShort(p + 8) & 0xffffL) << 16
+						| (b.getShort(p + 10) & 0xffff);
+			long low = 0;
+			for (int i = 12; i < 20; i++) {
+				low = low << 8 | (b.get(p + i) & 0xff);
+			}
+			return new CodeViewInfo(signature, high, low, b.getInt(p + 20), path(b, p + 24));
+		}
+		if (signature == SIGNATURE_NB10 && n >= 16) {
+			return new CodeViewInfo(signature, 0, b.getInt(p + 8) & 0xFFFFFFFFL, b.getInt(p + 12),
+						path(b, p + 16));
+		}
+		return null;
+	}
+	
+	private static String path(ByteBuffer b, int offset) {
+		int end = offset;
+		while (end < b.limit() && b.get(end) != 0) {
+			end++;
+		}
+		byte[] bytes = new byte[end - offset];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = b.get(offset + i);
+		}
+		return new String(bytes, UTF_8);
+	}
+	
+	public boolean isRsds() {
+		return signature == SIGNATURE_RSDS;
+	}
+	
+	public int getSignature() {
+		return signature;
+	}
+	
+	/**
+	 * Data1, Data2 and Data3 of the GUID of an RSDS record, 0 for NB10.
+	 */
+	public long getGuidHigh() {
+		return guidHigh;
+	}
+	
+	/**
+	 * Data4 of the GUID of an RSDS record, or the time stamp of an NB10 record.
+	 */
+	public long getGuidLow() {
+		return guidLow;
+	}
+	
+	public int getAge() {
+		return age;
+	}
+	
+	/**
+	 * Path of the PDB as recorded by the linker.
+	 */
+	public String getPath() {
+		return path;
+	}
+	
+	/**
+	 * File name of the PDB, the path without its directories.
+	 */
+	public String getPdbName() {
+		int i = Math.max(path.lastIndexOf('\\'), path.lastIndexOf('/'));
+		return path.substring(i + 1);
+	}
+	
+	/**
+	 * Returns the GUID in registry format, without braces, or null for NB10.
+	 */
+	public String getGuid() {
+		if (!isRsds()) return null;
+		return String.format("%08x-%04x-%04x-%04x-%012x", guidHigh >>> 32, guidHigh >>> 16 & 0xffff,
+					guidHigh & 0xffff, guidLow >>> 48, guidLow & 0xFFFFFFFFFFFFL);
+	}
+	
+	/**
+	 * Returns the identity of the PDB as it appears in symbol store paths,
+	 * <code>name/KEY/name</code>: the GUID followed by the age for RSDS, the time
+	 * stamp followed by the age for NB10.
+	 */
+	public String getSymbolStoreKey() {
+		if (isRsds()) {
+			return String.format("%016X%016X%X", guidHigh, guidLow, age);
+		}
+		return String.format("%08X%X", guidLow, age);
+	}
+}
@@ -13,6 +13,7 @@ import java.nio.ByteBuffer;
 
 import com.github.twinj.headers.DatumAbstract;
 import com.github.twinj.headers.DatumHeader;
+import com.github.twinj.headers.HeaderFactory;
 
 /**
  * DOS .EXE header
@@ -25,7 +26,7 @@ public class DOSH extends DatumHeader<DOSH.Property> {
 	
 	private static final long serialVersionUID = 4298603968505136706L;
 	
-	public static enum Property {
+	public static enum Property implements PropertyInterface {
 		
 		/**
 		 * Magic number: 'e_magic'
@@ -125,20 +126,46 @@ public class DOSH extends DatumHeader<DOSH.Property> {
 		int sizeOf;
 		String winName;
 		Class<? extends DatumAbstract<?>> clazz;
+		DatumAbstract<?> datum;
 		
 		@SuppressWarnings("unchecked")
 		Property(DatumAbstract<?> size, int arraySize, String winName) {
 			this.sizeOf = size.sizeOf * arraySize;
 			this.winName = winName;
 			this.clazz = (Class<? extends DatumAbstract<?>>) size.getClass();
+			this.datum = size;
+			offset = offset();
+			inc(sizeOf);
 		}
 		
 		Property(DatumAbstract<?> size, String winName) {
 			this(size, 1, winName);
 		}
+		
+		public int offset;
+		static int SIZE_OF = 0;
+		
+		static int offset() {
+			return SIZE_OF;
+		}
+		static void inc(int sizeOf) {
+			SIZE_OF += sizeOf;
+		}
+		
+		public Class<? extends DatumAbstract<?>> getDatumClass() {
+			return clazz;
+		}
+		
+		public int sizeOf() {
+			return sizeOf;
+		}
+		
+		public int getOffset() {
+			return offset;
+		}
 	}
 	
-	static int SIZE_OF = 64;
+	static final int SIZE_OF = 64;
 	
 	// DEBUG private byte[] original;
 	
@@ -155,6 +182,13 @@ public class DOSH extends DatumHeader<DOSH.Property> {
 		super(Property.class, SIZE_OF, bytes);
 	}
 	
+	public static final HeaderFactory<DOSH> FACTORY = new HeaderFactory<DOSH>() {
+		@Override
+		public DOSH newInstance() {
+			return new DOSH();
+		}
+	};
+	
 	public DOSH() {
 		super(Property.class, SIZE_OF);
 	}
@@ -199,14 +233,10 @@ public class DOSH extends DatumHeader<DOSH.Property> {
 		for (Property p : Property.values()) {
 			barray = new byte[p.sizeOf];
 			bytes.get(barray);
-			DatumAbstract<?> d = null;
-			try {
-				d = p.clazz.newInstance();
-			} catch (InstantiationException | IllegalAccessException ignore) {}
+			DatumAbstract<?> d = p.datum.newInstance();
 			d.bytes = barray;
 			d.position = bytes.position();
 			put(p, (DatumAbstract<?>) d);
-			System.err.print(p + ": " + get(p).valueOf() + "\n");
 		}
 	}
 	
@@ -13,7 +13,9 @@ import java.nio.ByteBuffer;
 
 import com.github.twinj.headers.DatumAbstract;
 import com.github.twinj.headers.DatumHeader;
+import com.github.twinj.headers.HeaderFactory;
 import com.github.twinj.pecoff4j.DebugDir.Property;
+import com.github.twinj.pecoff4j.constant.DebugType;
 ;
 /**
  * Encapsulates the Debug Directory (Image Only). Section 6.1.1 of the PE/COFF
@@ -23,7 +25,7 @@ public class DebugDir extends DatumHeader<Property> {
 	
 	private static final long serialVersionUID = 8434276451024941950L;
 	
-	public static enum Property {
+	public static enum Property implements PropertyInterface {
 		
 		/**
 		 * Unused and set to 0.
@@ -75,25 +77,60 @@ public class DebugDir extends DatumHeader<Property> {
 		int sizeOf;
 		String winName;
 		Class<? extends DatumAbstract<?>> clazz;
+		DatumAbstract<?> datum;
 		
 		@SuppressWarnings("unchecked")
 		Property(DatumAbstract<?> size, int arraySize, String winName) {
 			this.sizeOf = size.sizeOf * arraySize;
 			this.winName = winName;
 			this.clazz = (Class<? extends DatumAbstract<?>>) size.getClass();
+			this.datum = size;
+			offset = offset();
+			inc(sizeOf);
 		}
 		
 		Property(DatumAbstract<?> size, String winName) {
 			this(size, 1, winName);
 		}
-
+		
+		public int offset;
+		static int SIZE_OF = 0;
+		
+		static int offset() {
+			return SIZE_OF;
+		}
+		static void inc(int sizeOf) {
+			SIZE_OF += sizeOf;
+		}
+		
+		public Class<? extends DatumAbstract<?>> getDatumClass() {
+			return clazz;
+		}
+		
+		public int sizeOf() {
+			return sizeOf;
+		}
+		
+		public int getOffset() {
+			return offset;
+		}
 	}
-	static int SIZE_OF = 28;
+	static final int SIZE_OF = 28;
+	
+	// Decoded record of a known type
+	private Object record;
 	
 	public DebugDir(ByteBuffer bytes) {
 		super(Property.class, SIZE_OF, bytes);
 	}
 	
+	public static final HeaderFactory<DebugDir> FACTORY = new HeaderFactory<DebugDir>() {
+		@Override
+		public DebugDir newInstance() {
+			return new DebugDir();
+		}
+	};
+	
 	public DebugDir() {
 		super(Property.class, SIZE_OF);
 	}
@@ -104,14 +141,58 @@ public class DebugDir extends DatumHeader<Property> {
 		for (Property p : Property.values()) {
 			barray = new byte[p.sizeOf];
 			bytes.get(barray);
-			DatumAbstract<?> d = null;
-			try {
-				d = p.clazz.newInstance();
-			} catch (InstantiationException | IllegalAccessException ignore) {}
+			DatumAbstract<?> d = p.datum.newInstance();
 			d.bytes = barray;
 			d.position = bytes.position();
 			put(p, (DatumAbstract<?>) d);
-			System.err.print(p + ": " + get(p).valueOf() + "\n");
 		}
 	}
+	
+	public int getType() {
+		return (int) getU32(Property.TYPE);
+	}
+	
+	/**
+	 * Decodes the debug data of the entry, for the CodeView, POGO, VC_FEATURE
+	 * and REPRO types. The data of other types is left alone.
+	 * 
+	 * @param data
+	 *          little endian buffer holding the data between its position and
+	 *          its limit
+	 */
+	public void resolve(ByteBuffer data) {
+		switch (getType()) {
+			case DebugType.IMAGE_DEBUG_TYPE_CODEVIEW :
+				record = CodeViewInfo.read(data);
+				break;
+			case DebugType.IMAGE_DEBUG_TYPE_POGO :
+				record = PogoInfo.read(data);
+				break;
+			case DebugType.IMAGE_DEBUG_TYPE_VC_FEATURE :
+				record = VcFeatureInfo.read(data);
+				break;
+			case DebugType.IMAGE_DEBUG_TYPE_REPRO :
+				record = ReproInfo.read(data);
+				break;
+		}
+	}
+	
+	/**
+	 * Returns the decoded CodeView record, or null.
+	 */
+	public CodeViewInfo getCodeView() {
+		return record instanceof CodeViewInfo ? (CodeViewInfo) record : null;
+	}
+	
+	public PogoInfo getPogo() {
+		return record instanceof PogoInfo ? (PogoInfo) record : null;
+	}
+	
+	public VcFeatureInfo getVcFeature() {
+		return record instanceof VcFeatureInfo ? (VcFeatureInfo) record : null;
+	}
+	
+	public ReproInfo getRepro() {
+		return record instanceof ReproInfo ? (ReproInfo) record : null;
+	}
 }
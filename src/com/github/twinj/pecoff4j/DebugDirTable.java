@@ -0,0 +1,39 @@
+package com.github.twinj.pecoff4j;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * The entries of the debug directory. Unlike the import tables there is no
+ * null entry; the directory size gives the number of entries.
+ */
+public class DebugDirTable extends ArrayList<DebugDir> {
+	
+	private static final long serialVersionUID = -4632167703624117154L;
+	
+	public DebugDirTable() {
+		super();
+	}
+	
+	public DebugDirTable(ByteBuffer bytes) {
+		super();
+		byte[] barray;
+		
+		while (bytes.remaining() >= DebugDir.SIZE_OF) {
+			barray = new byte[DebugDir.SIZE_OF];
+			bytes.get(barray);
+			this.add(new DebugDir(ByteBuffer.wrap(barray)));
+		}
+	}
+	
+	/**
+	 * Returns the first CodeView record, which identifies the PDB of the
+	 * image, or null.
+	 */
+	public CodeViewInfo getCodeView() {
+		for (DebugDir d : this) {
+			if (d.getCodeView() != null) return d.getCodeView();
+		}
+		return null;
+	}
+}
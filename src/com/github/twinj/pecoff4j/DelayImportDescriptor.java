@@ -0,0 +1,165 @@
+package com.github.twinj.pecoff4j;
+
+import java.nio.ByteBuffer;
+
+import com.github.twinj.headers.DWord;
+import com.github.twinj.headers.DatumAbstract;
+import com.github.twinj.headers.HeaderView;
+
+/**
+ * Delay load import descriptor, ImgDelayDescr. Version 2 descriptors, marked
+ * by the RVA attribute, hold RVAs. The original version 1 descriptors hold
+ * virtual addresses, as do the name table entries they point to.
+ * 
+ * The descriptor is a {@link HeaderView} over the data of the directory
+ * entry, so its fields are not copied.
+ */
+public class DelayImportDescriptor {
+	
+	// Field type of the layout, as declared by Header
+	private static final DWord DWORD = new DWord();
+	
+	/**
+	 * Attribute set when the descriptor holds RVAs.
+	 */
+	public static final int DLATTR_RVA = 1;
+	
+	public static enum Property implements PropertyInterface {
+		
+		/**
+		 * Attributes, {@link DelayImportDescriptor#DLATTR_RVA} for version 2.
+		 */
+		ATTRIBUTES(DWORD, "grAttrs"),
+		
+		/**
+		 * Address of the name of the DLL.
+		 */
+		NAME(DWORD, "rvaDLLName"),
+		
+		/**
+		 * Address of the module handle, written when the DLL is loaded.
+		 */
+		MODULE_HANDLE(DWORD, "rvaHmod"),
+		
+		/**
+		 * Address of the import address table.
+		 */
+		IMPORT_ADDRESS_TABLE(DWORD, "rvaIAT"),
+		
+		/**
+		 * Address of the import name table, laid out as an import lookup table.
+		 */
+		IMPORT_NAME_TABLE(DWORD, "rvaINT"),
+		
+		/**
+		 * Address of the optional bound import address table.
+		 */
+		BOUND_IMPORT_ADDRESS_TABLE(DWORD, "rvaBoundIAT"),
+		
+		/**
+		 * Address of the optional copy of the original import address table.
+		 */
+		UNLOAD_INFORMATION_TABLE(DWORD, "rvaUnloadIAT"),
+		
+		/**
+		 * Time stamp of the DLL the image is bound to, or 0.
+		 */
+		TIME_DATE_STAMP(DWORD, "dwTimeStamp");
+		
+		int sizeOf;
+		String winName;
+		Class<? extends DatumAbstract<?>> clazz;
+		DatumAbstract<?> datum;
+		
+		@SuppressWarnings("unchecked")
+		Property(DatumAbstract<?> size, int arraySize, String winName) {
+			this.sizeOf = size.sizeOf * arraySize;
+			this.winName = winName;
+			this.clazz = (Class<? extends DatumAbstract<?>>) size.getClass();
+			this.datum = size;
+			offset = offset();
+			inc(sizeOf);
+		}
+		
+		Property(DatumAbstract<?> size, String winName) {
+			this(size, 1, winName);
+		}
+		
+		public int offset;
+		static int SIZE_OF = 0;
+		
+		static int offset() {
+			return SIZE_OF;
+		}
+		static void inc(int sizeOf) {
+			SIZE_OF += sizeOf;
+		}
+		
+		public Class<? extends DatumAbstract<?>> getDatumClass() {
+			return clazz;
+		}
+		
+		public int sizeOf() {
+			return sizeOf;
+		}
+		
+		public int getOffset() {
+			return offset;
+		}
+	}
+	static final int SIZE_OF = 32;
+	
+	private final HeaderView<Property> header;
+	
+	/**
+	 * Name of the DLL. Set once the sections holding it have been read.
+	 */
+	public String dllName;
+	
+	/**
+	 * Functions imported from the DLL, decoded from the import name table.
+	 */
+	public ImportThunks thunks = ImportThunks.EMPTY;
+	
+	/**
+	 * True for the all zero descriptor which ends the table.
+	 */
+	public boolean isNull() {
+		return getU32(Property.NAME) == 0 && getU32(Property.IMPORT_ADDRESS_TABLE) == 0;
+	}
+	
+	/**
+	 * True for version 2 descriptors, which hold RVAs.
+	 */
+	public boolean isRvaBased() {
+		return (getU32(Property.ATTRIBUTES) & DLATTR_RVA) != 0;
+	}
+	
+	/**
+	 * Returns the address of the property as an RVA.
+	 * 
+	 * @param imageBase
+	 *          the image base of the optional header, subtracted from the
+	 *          virtual addresses of version 1 descriptors
+	 */
+	public int getRva(Property p, long imageBase) {
+		long value = getU32(p);
+		return (int) (isRvaBased() || value == 0 ? value : value - imageBase);
+	}
+	
+	/**
+	 * @param offset
+	 *          absolute offset of the descriptor within the buffer
+	 */
+	public DelayImportDescriptor(ByteBuffer buffer, int offset) {
+		this.header = new HeaderView<Property>(Property.class, buffer, offset);
+	}
+	
+	public HeaderView<Property> getHeader() {
+		return header;
+	}
+	
+	public long getU32(Property p) {
+		return header.getU32(p);
+	}
+}
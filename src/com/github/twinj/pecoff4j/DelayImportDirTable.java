@@ -0,0 +1,26 @@
+package com.github.twinj.pecoff4j;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * Delay load import descriptors up to, but not including, the null
+ * descriptor which ends the table.
+ */
+public class DelayImportDirTable extends ArrayList<DelayImportDescriptor> {
+	
+	private static final long serialVersionUID = -2227412383493962283L;
+	
+	public DelayImportDirTable(ByteBuffer bytes) {
+		super();
+		
+		// Every descriptor views the same buffer, which is not moved
+		int at = bytes.position();
+		while (bytes.limit() - at >= DelayImportDescriptor.SIZE_OF) {
+			DelayImportDescriptor id = new DelayImportDescriptor(bytes, at);
+			if (id.isNull()) break;
+			this.add(id);
+			at += DelayImportDescriptor.SIZE_OF;
+		}
+	}
+}
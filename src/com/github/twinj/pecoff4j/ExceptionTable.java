@@ -9,7 +9,237 @@
  *******************************************************************************/
 package com.github.twinj.pecoff4j;
 
-public class ExceptionTable
-{
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
 
+import com.github.twinj.pecoff4j.constant.Machine;
+import com.github.twinj.pecoff4j.io.ImageView;
+
+/**
+ * The function table of the exception directory (.pdata), decoded into
+ * parallel arrays of function begin, end and unwind information. Entries are
+ * sorted by begin, so the function containing an RVA is found by a binary
+ * search that allocates nothing.
+ *
+ * x64 entries record the end of each function. ARM and ARM64 entries record
+ * it in packed unwind data, or in the header of the .xdata record, which is
+ * only read by {@link #resolve(ImageView)}; until then such functions have no
+ * known end.
+ *
+ * Only Windows on ARM (ARMNT) images use that ARM layout. The .pdata of
+ * Windows CE ARM and Thumb images holds virtual addresses and a different
+ * second word (prolog length, function length and flags), and is not decoded.
+ */
+public class ExceptionTable {
+
+	public static final ExceptionTable EMPTY = new ExceptionTable(new int[0], new int[0],
+				new int[0], 0);
+
+	private static final int NO_END = 0;
+
+	private final int[] begins;
+	private final int[] ends;
+	// Unwind info RVA, or the packed unwind data of ARM entries
+	private final int[] unwind;
+	private final int machine;
+
+	private ExceptionTable(int[] begins, int[] ends, int[] unwind, int machine) {
+		this.begins = begins;
+		this.ends = ends;
+		this.unwind = unwind;
+		this.machine = machine;
+	}
+
+	/**
+	 * Decodes the RUNTIME_FUNCTION entries of the directory. Machines without
+	 * a known entry layout, such as i386, decode to an empty table.
+	 *
+	 * @param machine
+	 *          the machine of the COFF header
+	 */
+	public static ExceptionTable read(ByteBuffer buffer, int machine) {
+		int width = entrySize(machine) / 4;
+		if (width == 0) return EMPTY;
+		ByteBuffer b = buffer.duplicate();
+		b.order(ByteOrder.LITTLE_ENDIAN);
+		IntBuffer words = b.asIntBuffer();
+		int n = words.remaining() / width;
+		int[] begins = new int[n];
+		int[] ends = new int[n];
+		int[] unwind = new int[n];
+		int count = 0;
+		for (int i = 0; i < n; i++) {
+			int begin = words.get(i * width);
+			if (begin == 0) continue;
+			if (width == 3) {
+				begins[count] = begin;
+				ends[count] = words.get(i * width + 1);
+				unwind[count] = words.get(i * width + 2);
+			} else {
+				int data = words.get(i * width + 1);
+				if (isThumb(machine)) begin &= ~1;
+				begins[count] = begin;
+				ends[count] = (data & 3) != 0 ? begin + packedLength(machine, data) : NO_END;
+				unwind[count] = data;
+			}
+			count++;
+		}
+		if (count < n) {
+			begins = Arrays.copyOf(begins, count);
+			ends = Arrays.copyOf(ends, count);
+			unwind = Arrays.copyOf(unwind, count);
+		}
+		ExceptionTable table = new ExceptionTable(begins, ends, unwind, machine);
+		table.sort();
+		return table;
+	}
+
+	/**
+	 * Size in bytes of a RUNTIME_FUNCTION entry of the machine, or 0 for
+	 * machines whose entries are not decoded.
+	 */
+	public static int entrySize(int machine) {
+		switch (machine) {
+			case Machine.IMAGE_FILE_MACHINE_AMD64 :
+			case Machine.IMAGE_FILE_MACHINE_IA64 :
+				return 12;
+			case Machine.IMAGE_FILE_MACHINE_ARMNT :
+			case Machine.IMAGE_FILE_MACHINE_ARM64 :
+				return 8;
+			default :
+				return 0;
+		}
+	}
+
+	private static boolean isThumb(int machine) {
+		return machine == Machine.IMAGE_FILE_MACHINE_ARMNT;
+	}
+
+	// FunctionLength is in 2 byte units on ARM and 4 byte units on ARM64
+	private static int scale(int machine) {
+		return machine == Machine.IMAGE_FILE_MACHINE_ARM64 ? 4 : 2;
+	}
+
+	private static int packedLength(int machine, int data) {
+		return (data >>> 2 & 0x7ff) * scale(machine);
+	}
+
+	/**
+	 * Reads the function length from the header of the .xdata record of ARM
+	 * and ARM64 entries without packed unwind data. Records outside the file
+	 * leave the end unknown.
+	 */
+	public void resolve(ImageView view) {
+		if (entrySize(machine) != 8) return;
+		for (int i = 0; i < begins.length; i++) {
+			if (ends[i] != NO_END || !view.contains(unwind[i], 4)) continue;
+			ends[i] = begins[i] + (view.getU32(unwind[i]) & 0x3ffff) * scale(machine);
+		}
+	}
+
+	/**
+	 * Sorts the entries by unsigned begin if the image did not.
+	 */
+	private void sort() {
+		int n = begins.length;
+		boolean sorted = true;
+		for (int i = 1; i < n && sorted; i++) {
+			sorted = (begins[i - 1] & 0xFFFFFFFFL) <= (begins[i] & 0xFFFFFFFFL);
+		}
+		if (sorted) return;
+		long[] order = new long[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = (begins[i] & 0xFFFFFFFFL) << 32 | i;
+		}
+		Arrays.sort(order);
+		int[] b = begins.clone();
+		int[] e = ends.clone();
+		int[] u = unwind.clone();
+		for (int j = 0; j < n; j++) {
+			int i = (int) order[j];
+			begins[j] = b[i];
+			ends[j] = e[i];
+			unwind[j] = u[i];
+		}
+	}
+
+	public int getMachine() {
+		return machine;
+	}
+
+	/**
+	 * Number of functions.
+	 */
+	public int size() {
+		return begins.length;
+	}
+
+	/**
+	 * Returns the RVA of the first instruction of the function, without the
+	 * Thumb bit.
+	 */
+	public int getBegin(int i) {
+		return begins[i];
+	}
+
+	/**
+	 * Returns the RVA just past the function, or 0 if it is not known.
+	 */
+	public int getEnd(int i) {
+		return ends[i];
+	}
+
+	/**
+	 * True if the unwind data of an ARM or ARM64 function is packed into its
+	 * entry rather than held in an .xdata record.
+	 */
+	public boolean isPacked(int i) {
+		return entrySize(machine) == 8 && (unwind[i] & 3) != 0;
+	}
+
+	/**
+	 * Returns the RVA of the unwind information, or 0 for packed unwind data.
+	 */
+	public int getUnwindInfo(int i) {
+		return isPacked(i) ? 0 : unwind[i];
+	}
+
+	/**
+	 * Returns the raw unwind word of the entry: the unwind information RVA, or
+	 * the packed unwind data.
+	 */
+	public int getUnwindData(int i) {
+		return unwind[i];
+	}
+
+	/**
+	 * Returns the position of the last function beginning at or before the
+	 * RVA, or -1.
+	 */
+	public int floor(int rva) {
+		long r = rva & 0xFFFFFFFFL;
+		int lo = 0, hi = begins.length - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if ((begins[mid] & 0xFFFFFFFFL) <= r) {
+				lo = mid + 1;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		return hi;
+	}
+
+	/**
+	 * Returns the position of the function containing the RVA, or -1. A
+	 * function without a known end extends to the next function.
+	 */
+	public int indexOf(int rva) {
+		int i = floor(rva);
+		if (i < 0) return -1;
+		if (ends[i] != NO_END && (rva & 0xFFFFFFFFL) >= (ends[i] & 0xFFFFFFFFL)) return -1;
+		return i;
+	}
 }
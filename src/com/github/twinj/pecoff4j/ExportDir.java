@@ -10,10 +10,14 @@
 package com.github.twinj.pecoff4j;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import com.github.twinj.headers.DatumAbstract;
 import com.github.twinj.headers.DatumHeader;
+import com.github.twinj.headers.HeaderFactory;
 import com.github.twinj.pecoff4j.ExportDir.Property;
+import com.github.twinj.pecoff4j.io.ImageView;
+import com.github.twinj.pecoff4j.util.NameTable;
 
 /**
  * The export directory table. See section 6.3.1 of the PE/COFF specification
@@ -23,7 +27,7 @@ public class ExportDir extends DatumHeader<Property> {
 	
 	private static final long serialVersionUID = 7272253676433135475L;
 	
-	public static enum Property {
+	public static enum Property implements PropertyInterface {
 		//
 		// Export Format
 		//
@@ -106,44 +110,293 @@ public class ExportDir extends DatumHeader<Property> {
 		int sizeOf;
 		String winName;
 		Class<? extends DatumAbstract<?>> clazz;
+		DatumAbstract<?> datum;
 		
 		@SuppressWarnings("unchecked")
 		Property(DatumAbstract<?> size, int arraySize, String winName) {
 			this.sizeOf = size.sizeOf * arraySize;
 			this.winName = winName;
 			this.clazz = (Class<? extends DatumAbstract<?>>) size.getClass();
-	
+			this.datum = size;
+			offset = offset();
+			inc(sizeOf);
 		}
 		
 		Property(DatumAbstract<?> size, String winName) {
 			this(size, 1, winName);
 		}
-
+		
+		public int offset;
+		static int SIZE_OF = 0;
+		
+		static int offset() {
+			return SIZE_OF;
+		}
+		static void inc(int sizeOf) {
+			SIZE_OF += sizeOf;
+		}
+		
+		public Class<? extends DatumAbstract<?>> getDatumClass() {
+			return clazz;
+		}
+		
+		public int sizeOf() {
+			return sizeOf;
+		}
+		
+		public int getOffset() {
+			return offset;
+		}
 	}
-	static int SIZE_OF = 40;
+	static final int SIZE_OF = 40;
 	
 	public ExportDir(ByteBuffer bytes) {
 		super(Property.class, SIZE_OF, bytes);
 	}
 	
+	public static final HeaderFactory<ExportDir> FACTORY = new HeaderFactory<ExportDir>() {
+		@Override
+		public ExportDir newInstance() {
+			return new ExportDir();
+		}
+	};
+	
 	public ExportDir() {
 		super(Property.class, SIZE_OF);
 	}
 	
+	/**
+	 * Name of the DLL. Set, like the tables below, once the sections holding
+	 * them have been read.
+	 */
+	public String dllName;
+	
+	// Export address table, indexed by ordinal - Base
+	private int[] functions = new int[0];
+	
+	// Name pointer table and the matching ordinal table
+	private int[] namePointers = new int[0];
+	private char[] nameOrdinals = new char[0];
+	
+	// The names are not copied: name i is the zero terminated string at
+	// nameOffsets[i] of the raw data of section nameSections[i], or empty if
+	// it is not in the file
+	private static final char NO_SECTION = 0xffff;
+	private ByteBuffer[] nameData = new ByteBuffer[0];
+	private char[] nameSections = new char[0];
+	private int[] nameOffsets = new int[0];
+	
+	// Forwarder strings by position in the export address table
+	private String[] forwarders;
+	
+	private int directoryRva;
+	private int directorySize;
+	
+	/**
+	 * Decodes the export address, name pointer and ordinal tables and the
+	 * exported names. Tables which are not in the file are left empty.
+	 * 
+	 * @param rva
+	 *          RVA of the export directory, used to spot forwarders
+	 * @param size
+	 *          size of the export directory
+	 */
+	public void resolve(ImageView view, int rva, int size) {
+		this.directoryRva = rva;
+		this.directorySize = size;
+		dllName = view.getName((int) getU32(Property.NAME));
+		
+		int[] eat = view.getU32Array((int) getU32(Property.ADDRESS_OF_FUNCTIONS),
+					(int) Math.min(getU32(Property.NUMBER_OF_FUNCTIONS), Integer.MAX_VALUE / 4));
+		if (eat != null) {
+			functions = eat;
+		}
+		for (int i = 0; i < functions.length; i++) {
+			if (isForwarderRva(functions[i])) {
+				if (forwarders == null) forwarders = new String[functions.length];
+				forwarders[i] = view.getName(functions[i]);
+			}
+		}
+		
+		int n = (int) Math.min(getU32(Property.NUMBER_OF_NAMES), Integer.MAX_VALUE / 4);
+		int[] pointers = view.getU32Array((int) getU32(Property.ADDRESS_OF_NAMES), n);
+		char[] ordinals = view.getU16Array((int) getU32(Property.ADDRESS_OF_NAME_ORDINALS), n);
+		if (pointers == null || ordinals == null) return;
+		
+		ByteBuffer[] data = new ByteBuffer[0];
+		char[] in = new char[n];
+		int[] offsets = new int[n];
+		for (int i = 0; i < n; i++) {
+			int k = view.sectionOf(pointers[i]);
+			if (k < 0 || k >= NO_SECTION) {
+				in[i] = NO_SECTION;
+				continue;
+			}
+			if (k >= data.length) data = Arrays.copyOf(data, k + 1);
+			if (data[k] == null) data[k] = view.getSectionData(pointers[i]);
+			in[i] = (char) k;
+			offsets[i] = view.offsetOf(pointers[i]);
+		}
+		namePointers = pointers;
+		nameOrdinals = ordinals;
+		nameData = data;
+		nameSections = in;
+		nameOffsets = offsets;
+	}
+	
+	private boolean isForwarderRva(int rva) {
+		return ((rva - directoryRva) & 0xFFFFFFFFL) < (directorySize & 0xFFFFFFFFL);
+	}
+	
+	public int getBase() {
+		return (int) getU32(Property.BASE);
+	}
+	
+	/**
+	 * Number of entries in the export address table.
+	 */
+	public int getNumberOfFunctions() {
+		return functions.length;
+	}
+	
+	/**
+	 * Number of exported names.
+	 */
+	public int getNumberOfNames() {
+		return namePointers.length;
+	}
+	
+	/**
+	 * Returns the RVA exported under the ordinal, 0 for unused ordinals or
+	 * ordinals out of range. For forwarders this is the RVA of the forwarder
+	 * string.
+	 */
+	public int getFunctionRva(int ordinal) {
+		long i = (ordinal - getBase()) & 0xFFFFFFFFL;
+		return i < functions.length ? functions[(int) i] : 0;
+	}
+	
+	/**
+	 * True if the ordinal is forwarded to another DLL.
+	 */
+	public boolean isForwarder(int ordinal) {
+		return getForwarder(ordinal) != null;
+	}
+	
+	/**
+	 * Returns the forwarder string, such as "NTDLL.RtlAllocateHeap", of a
+	 * forwarded ordinal, or null.
+	 */
+	public String getForwarder(int ordinal) {
+		long i = (ordinal - getBase()) & 0xFFFFFFFFL;
+		return forwarders != null && i < forwarders.length ? forwarders[(int) i] : null;
+	}
+	
+	/**
+	 * Returns the ordinal of the name at the position in the name pointer
+	 * table.
+	 */
+	public int getNameOrdinal(int i) {
+		return getBase() + nameOrdinals[i];
+	}
+	
+	/**
+	 * Returns the name at the position in the name pointer table. A new string
+	 * is created on each call.
+	 */
+	public String getName(int i) {
+		if (nameSections[i] == NO_SECTION) return "";
+		ByteBuffer b = nameData[nameSections[i]];
+		int from = nameOffsets[i];
+		int end = nameEnd(b, from);
+		char[] c = new char[end - from];
+		for (int k = 0; k < c.length; k++) {
+			c[k] = (char) (b.get(from + k) & 0xff);
+		}
+		return new String(c);
+	}
+	
+	/**
+	 * Returns the offset just past the name at the offset, which ends at the
+	 * zero, the end of the section data or after
+	 * {@link NameTable#MAX_LENGTH} bytes.
+	 */
+	private static int nameEnd(ByteBuffer b, int from) {
+		int end = from + Math.min(b.limit() - from, NameTable.MAX_LENGTH);
+		int i = from;
+		while (i < end && b.get(i) != 0) {
+			i++;
+		}
+		return i;
+	}
+	
+	/**
+	 * Returns the position of the name in the name pointer table, or -1. This
+	 * is a binary search, as done by the loader, so it relies on the table
+	 * being sorted. Nothing is allocated.
+	 */
+	public int indexOfName(CharSequence name) {
+		int lo = 0, hi = namePointers.length - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			int c = compareName(mid, name);
+			if (c < 0) {
+				lo = mid + 1;
+			} else if (c > 0) {
+				hi = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Returns the ordinal exported under the name, or -1.
+	 */
+	public int getOrdinal(CharSequence name) {
+		int i = indexOfName(name);
+		return i < 0 ? -1 : getNameOrdinal(i);
+	}
+	
+	/**
+	 * Returns the RVA exported under the name, or 0.
+	 */
+	public int getFunctionRva(CharSequence name) {
+		int i = indexOfName(name);
+		return i < 0 ? 0 : getFunctionRva(getNameOrdinal(i));
+	}
+	
+	/**
+	 * Compares the bytes of name i with the characters of the name, as the
+	 * unsigned byte comparison of strcmp. Only absolute reads of the shared
+	 * section data are used.
+	 */
+	private int compareName(int i, CharSequence name) {
+		int n = name.length();
+		if (nameSections[i] == NO_SECTION) return -n;
+		ByteBuffer b = nameData[nameSections[i]];
+		int from = nameOffsets[i];
+		int end = from + Math.min(b.limit() - from, NameTable.MAX_LENGTH);
+		for (int k = 0; k < n; k++) {
+			int c = from + k < end ? b.get(from + k) & 0xff : 0;
+			if (c == 0) return -1;
+			c -= name.charAt(k);
+			if (c != 0) return c;
+		}
+		return from + n < end && b.get(from + n) != 0 ? 1 : 0;
+	}
+	
 	@Override
 	public void mapProperties(ByteBuffer bytes) {
 		byte[] barray;
 		for (Property p : Property.values()) {
 			barray = new byte[p.sizeOf];
 			bytes.get(barray);
-			DatumAbstract<?> d = null;
-			try {
-				d = p.clazz.newInstance();
-			} catch (InstantiationException | IllegalAccessException ignore) {}
+			DatumAbstract<?> d = p.datum.newInstance();
 			d.bytes = barray;
 			d.position = bytes.position();
 			put(p, (DatumAbstract<?>) d);
-			System.err.print(p + ": " + get(p).valueOf() + "\n");
 		}
 	}
 }
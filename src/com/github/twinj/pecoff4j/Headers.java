@@ -0,0 +1,49 @@
+package com.github.twinj.pecoff4j;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.github.twinj.headers.Header;
+import com.github.twinj.headers.HeaderFactory;
+
+/**
+ * Registry of the factories of every header type, for callers which only
+ * have the header's class.
+ */
+public final class Headers {
+	
+	private static final Map<Class<?>, HeaderFactory<?>> FACTORIES = new IdentityHashMap<>();
+	
+	static {
+		register(DOSH.class, DOSH.FACTORY);
+		register(COFFH.class, COFFH.FACTORY);
+		register(OHS.class, OHS.FACTORY);
+		register(OHA32.class, OHA32.FACTORY);
+		register(OHA64.class, OHA64.FACTORY);
+		register(OHD.class, OHD.FACTORY);
+		register(OHDD.class, OHDD.FACTORY);
+		register(SH.class, SH.FACTORY);
+		register(ExportDir.class, ExportDir.FACTORY);
+		register(ImportDescriptor.class, ImportDescriptor.FACTORY);
+		register(BoundImport.class, BoundImport.FACTORY);
+		register(DebugDir.class, DebugDir.FACTORY);
+		register(LoadConfigDir.class, LoadConfigDir.FACTORY);
+		register(RCDH.class, RCDH.FACTORY);
+		register(RCDirEntry.class, RCDirEntry.FACTORY);
+		register(RCDataEntry.class, RCDataEntry.FACTORY);
+	}
+	
+	private Headers() {}
+	
+	private static <H extends Header<?, ?>> void register(Class<H> clazz, HeaderFactory<H> factory) {
+		FACTORIES.put(clazz, factory);
+	}
+	
+	/**
+	 * Returns the factory of the header class or null if it is not registered.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <H extends Header<?, ?>> HeaderFactory<H> factoryOf(Class<H> clazz) {
+		return (HeaderFactory<H>) FACTORIES.get(clazz);
+	}
+}
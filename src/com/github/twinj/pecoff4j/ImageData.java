@@ -9,6 +9,9 @@
  *******************************************************************************/
 package com.github.twinj.pecoff4j;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 import com.github.twinj.pecoff4j.util.IntMap;
 
 public class ImageData {
@@ -19,17 +22,20 @@ public class ImageData {
 	private ExportDir exportTable;
 	private ImportDirTable importTable;
 	private RCTree resourceTable;
-	private byte[] exceptionTable;
+	private ByteBuffer exceptionData;
+	private ExceptionTable functionTable;
 	private byte[] certificateTable;
-	private byte[] baseRelocationTable;
-	private DebugDir debug;
+	private ByteBuffer baseRelocations;
+	private DebugDirTable debug;
 	private byte[] architecture;
 	private byte[] globalPtr;
-	private byte[] tlsTable;
+	private ByteBuffer tlsData;
+	private TLSDir<?> tlsDirectory;
 	private LoadConfigDir loadConfigTable;
 	private BoundImportDir boundImports;
 	private byte[] iat;
-	private byte[] delayImportDescriptor;
+	private ByteBuffer delayImportData;
+	private DelayImportDirTable delayImportTable;
 	private byte[] clrRuntimeHeader;
 	private byte[] reserved;
 	
@@ -83,12 +89,44 @@ public class ImageData {
 		this.resourceTable = resDirList;
 	}
 	
+	/**
+	 * @deprecated copies the directory when it was parsed without copying,
+	 *             use {@link #getFunctionTable()} or
+	 *             {@link #getExceptionData()}
+	 */
+	@Deprecated
 	public byte[] getExceptionTable() {
-		return exceptionTable;
+		return toArray(exceptionData);
 	}
 	
+	/**
+	 * @deprecated use {@link #setExceptionData(ByteBuffer)}
+	 */
+	@Deprecated
 	public void setExceptionTable(byte[] exceptionTable) {
-		this.exceptionTable = exceptionTable;
+		this.exceptionData = exceptionTable == null ? null : ByteBuffer.wrap(exceptionTable);
+	}
+	
+	/**
+	 * Returns a little endian view of the raw exception directory.
+	 */
+	public ByteBuffer getExceptionData() {
+		return view(exceptionData);
+	}
+	
+	public void setExceptionData(ByteBuffer exceptionData) {
+		this.exceptionData = exceptionData;
+	}
+	
+	/**
+	 * Returns the decoded function table of the exception directory, or null.
+	 */
+	public ExceptionTable getFunctionTable() {
+		return functionTable;
+	}
+	
+	public void setFunctionTable(ExceptionTable functionTable) {
+		this.functionTable = functionTable;
 	}
 	
 	public byte[] getCertificateTable() {
@@ -99,19 +137,68 @@ public class ImageData {
 		this.certificateTable = certificateTable;
 	}
 	
+	/**
+	 * @deprecated copies the table when it was parsed without copying, use
+	 *             {@link #getBaseRelocations()}
+	 */
+	@Deprecated
 	public byte[] getBaseRelocationTable() {
-		return baseRelocationTable;
+		return toArray(baseRelocations);
 	}
 	
+	/**
+	 * @deprecated use {@link #setBaseRelocations(ByteBuffer)}
+	 */
+	@Deprecated
 	public void setBaseRelocationTable(byte[] baseRelocationTable) {
-		this.baseRelocationTable = baseRelocationTable;
+		this.baseRelocations = baseRelocationTable == null ? null
+					: ByteBuffer.wrap(baseRelocationTable);
 	}
 	
+	/**
+	 * Returns a little endian view of the raw base relocation table, for
+	 * {@link BaseRelocCursor}. When parsed without copying this is a slice of
+	 * the mapped file.
+	 */
+	public ByteBuffer getBaseRelocations() {
+		return view(baseRelocations);
+	}
+	
+	public void setBaseRelocations(ByteBuffer baseRelocations) {
+		this.baseRelocations = baseRelocations;
+	}
+	
+	/**
+	 * Returns the first debug directory entry, whose raw data is read with the
+	 * file, or null.
+	 */
 	public DebugDir getDebug() {
-		return debug;
+		return debug == null || debug.isEmpty() ? null : debug.get(0);
 	}
 	
+	/**
+	 * @deprecated replaces the debug directory with one holding only the
+	 *             entry, use {@link #setDebugTable(DebugDirTable)}
+	 */
+	@Deprecated
 	public void setDebug(DebugDir debug) {
+		if (debug == null) {
+			this.debug = null;
+		} else {
+			this.debug = new DebugDirTable();
+			this.debug.add(debug);
+		}
+	}
+	
+	/**
+	 * Returns every entry of the debug directory, with their decoded records,
+	 * or null.
+	 */
+	public DebugDirTable getDebugTable() {
+		return debug;
+	}
+	
+	public void setDebugTable(DebugDirTable debug) {
 		this.debug = debug;
 	}
 	
@@ -131,12 +218,44 @@ public class ImageData {
 		this.globalPtr = globalPtr;
 	}
 	
+	/**
+	 * @deprecated copies the directory when it was parsed without copying,
+	 *             use {@link #getTlsDirectory()} or {@link #getTlsData()}
+	 */
+	@Deprecated
 	public byte[] getTlsTable() {
-		return tlsTable;
+		return toArray(tlsData);
 	}
 	
+	/**
+	 * @deprecated use {@link #setTlsData(ByteBuffer)}
+	 */
+	@Deprecated
 	public void setTlsTable(byte[] tlsTable) {
-		this.tlsTable = tlsTable;
+		this.tlsData = tlsTable == null ? null : ByteBuffer.wrap(tlsTable);
+	}
+	
+	/**
+	 * Returns a little endian view of the raw TLS directory.
+	 */
+	public ByteBuffer getTlsData() {
+		return view(tlsData);
+	}
+	
+	public void setTlsData(ByteBuffer tlsData) {
+		this.tlsData = tlsData;
+	}
+	
+	/**
+	 * Returns the decoded TLS directory, or null if the directory is missing
+	 * or too short.
+	 */
+	public TLSDir<?> getTlsDirectory() {
+		return tlsDirectory;
+	}
+	
+	public void setTlsDirectory(TLSDir<?> tlsDirectory) {
+		this.tlsDirectory = tlsDirectory;
 	}
 	
 	public LoadConfigDir getLoadConfigTable() {
@@ -163,12 +282,45 @@ public class ImageData {
 		this.iat = iat;
 	}
 	
+	/**
+	 * @deprecated copies the directory when it was parsed without copying,
+	 *             use {@link #getDelayImportTable()} or
+	 *             {@link #getDelayImportData()}
+	 */
+	@Deprecated
 	public byte[] getDelayImportDescriptor() {
-		return delayImportDescriptor;
+		return toArray(delayImportData);
 	}
 	
+	/**
+	 * @deprecated use {@link #setDelayImportData(ByteBuffer)}
+	 */
+	@Deprecated
 	public void setDelayImportDescriptor(byte[] delayImportDescriptor) {
-		this.delayImportDescriptor = delayImportDescriptor;
+		this.delayImportData = delayImportDescriptor == null ? null
+					: ByteBuffer.wrap(delayImportDescriptor);
+	}
+	
+	/**
+	 * Returns a little endian view of the raw delay import directory.
+	 */
+	public ByteBuffer getDelayImportData() {
+		return view(delayImportData);
+	}
+	
+	public void setDelayImportData(ByteBuffer delayImportData) {
+		this.delayImportData = delayImportData;
+	}
+	
+	/**
+	 * Returns the decoded delay load descriptors, or null.
+	 */
+	public DelayImportDirTable getDelayImportTable() {
+		return delayImportTable;
+	}
+	
+	public void setDelayImportTable(DelayImportDirTable delayImportTable) {
+		this.delayImportTable = delayImportTable;
 	}
 	
 	public byte[] getClrRuntimeHeader() {
@@ -210,4 +362,34 @@ public class ImageData {
 	public void setDebugRawDataPreamble(byte[] debugRawDataPreamble) {
 		this.debugRawDataPreamble = debugRawDataPreamble;
 	}
+	
+	/**
+	 * Returns a little endian duplicate of the buffer from its start to its
+	 * limit, whatever its position, as the parser reads headers through the
+	 * same buffer.
+	 */
+	private static ByteBuffer view(ByteBuffer buffer) {
+		if (buffer == null) return null;
+		ByteBuffer b = buffer.duplicate();
+		b.rewind();
+		b.order(ByteOrder.LITTLE_ENDIAN);
+		return b;
+	}
+	
+	/**
+	 * Returns the backing array of a buffer that wraps exactly one, or a copy
+	 * of the bytes from the start of the buffer to its limit.
+	 */
+	private static byte[] toArray(ByteBuffer buffer) {
+		if (buffer == null) return null;
+		if (buffer.hasArray() && buffer.arrayOffset() == 0
+					&& buffer.array().length == buffer.limit()) {
+			return buffer.array();
+		}
+		byte[] b = new byte[buffer.limit()];
+		ByteBuffer view = buffer.duplicate();
+		view.position(0);
+		view.get(b);
+		return b;
+	}
 }
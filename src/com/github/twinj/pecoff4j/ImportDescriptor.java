@@ -13,12 +13,13 @@ import java.nio.ByteBuffer;
 
 import com.github.twinj.headers.DatumAbstract;
 import com.github.twinj.headers.DatumHeader;
+import com.github.twinj.headers.HeaderFactory;
 
 public class ImportDescriptor extends DatumHeader<ImportDescriptor.Property> {
 	
 	private static final long serialVersionUID = -5303463280352581901L;
 	
-	public static enum Property {
+	public static enum Property implements PropertyInterface {
 		
 		/**
 		 * 0 for terminating null import descriptor.
@@ -55,24 +56,83 @@ public class ImportDescriptor extends DatumHeader<ImportDescriptor.Property> {
 		int sizeOf;
 		String winName;
 		Class<? extends DatumAbstract<?>> clazz;
+		DatumAbstract<?> datum;
 		
 		@SuppressWarnings("unchecked")
 		Property(DatumAbstract<?> size, int arraySize, String winName) {
 			this.sizeOf = size.sizeOf * arraySize;
 			this.winName = winName;
 			this.clazz = (Class<? extends DatumAbstract<?>>) size.getClass();
+			this.datum = size;
+			offset = offset();
+			inc(sizeOf);
 		}
 		
 		Property(DatumAbstract<?> size, String winName) {
 			this(size, 1, winName);
 		}
+		
+		public int offset;
+		static int SIZE_OF = 0;
+		
+		static int offset() {
+			return SIZE_OF;
+		}
+		static void inc(int sizeOf) {
+			SIZE_OF += sizeOf;
+		}
+		
+		public Class<? extends DatumAbstract<?>> getDatumClass() {
+			return clazz;
+		}
+		
+		public int sizeOf() {
+			return sizeOf;
+		}
+		
+		public int getOffset() {
+			return offset;
+		}
+	}
+	static final int SIZE_OF = 20;
+	
+	/**
+	 * Name of the DLL. Set once the sections holding it have been read.
+	 */
+	public String dllName;
+	
+	/**
+	 * Functions imported from the DLL, decoded from the import lookup table.
+	 */
+	public ImportThunks thunks = ImportThunks.EMPTY;
+	
+	/**
+	 * True for the all zero descriptor which ends the table.
+	 */
+	public boolean isNull() {
+		return getU32(Property.NAME) == 0 && getU32(Property.FIRST_THUNK) == 0;
+	}
+	
+	/**
+	 * RVA of the import lookup table, or of the import address table for
+	 * images which have no separate lookup table.
+	 */
+	public int getLookupTable() {
+		long lookup = getU32(Property.CHARACTERISTICS);
+		return (int) (lookup != 0 ? lookup : getU32(Property.FIRST_THUNK));
 	}
-	static int SIZE_OF = 20;
 	
 	public ImportDescriptor(ByteBuffer bytes) {
 		super(Property.class, SIZE_OF, bytes);
 	}
 	
+	public static final HeaderFactory<ImportDescriptor> FACTORY = new HeaderFactory<ImportDescriptor>() {
+		@Override
+		public ImportDescriptor newInstance() {
+			return new ImportDescriptor();
+		}
+	};
+	
 	public ImportDescriptor() {
 		super(Property.class, SIZE_OF);
 	}
@@ -82,14 +142,10 @@ public class ImportDescriptor extends DatumHeader<ImportDescriptor.Property> {
 		for (Property p : Property.values()) {
 			barray = new byte[p.sizeOf];
 			bytes.get(barray);
-			DatumAbstract<?> d = null;
-			try {
-				d = p.clazz.newInstance();
-			} catch (InstantiationException | IllegalAccessException ignore) {}
+			DatumAbstract<?> d = p.datum.newInstance();
 			d.bytes = barray;
 			d.position = bytes.position();
 			put(p, (DatumAbstract<?>) d);
-			System.err.print(p + ": " + get(p).valueOf() + "\n");
 		}
 	}
 	
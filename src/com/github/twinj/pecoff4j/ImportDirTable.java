@@ -3,6 +3,11 @@ package com.github.twinj.pecoff4j;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
+/**
+ * Import descriptors up to, but not including, the null descriptor which ends
+ * the table. The directory size is often rounded up, so anything after it is
+ * ignored.
+ */
 public class ImportDirTable extends ArrayList<ImportDescriptor> {
 	
 	private static final long serialVersionUID = 5543365594109348661L;
@@ -11,10 +16,11 @@ public class ImportDirTable extends ArrayList<ImportDescriptor> {
 		super();
 		byte[] barray;
 		
-		while (bytes.hasRemaining()) {
+		while (bytes.remaining() >= ImportDescriptor.SIZE_OF) {
 			barray = new byte[ImportDescriptor.SIZE_OF];
 			bytes.get(barray);
 			ImportDescriptor id = new ImportDescriptor(ByteBuffer.wrap(barray));
+			if (id.isNull()) break;
 			this.add(id);
 		}
 	}
@@ -11,10 +11,36 @@ package com.github.twinj.pecoff4j;
 
 import java.util.ArrayList;
 
+/**
+ * @deprecated imports are decoded into an {@link ImportDirTable} of
+ *             {@link ImportDescriptor}s, each holding its functions as
+ *             {@link ImportThunks}. Use {@link #of(ImportThunks)} to adapt
+ *             them to this list.
+ */
+@Deprecated
 public class ImportDirectoryTable
 {
     private ArrayList imports = new ArrayList();
 
+    /**
+     * Copies the functions of a decoded thunk table into a new list of
+     * entries. The values of named imports are not known and are left 0.
+     */
+    public static ImportDirectoryTable of(ImportThunks thunks) {
+        ImportDirectoryTable idt = new ImportDirectoryTable();
+        for (int i = 0; i < thunks.size(); i++) {
+            ImportEntry ie = new ImportEntry();
+            if (thunks.isOrdinal(i)) {
+                ie.setOrdinal(thunks.getOrdinal(i));
+                ie.setVal(0x80000000 | thunks.getOrdinal(i));
+            } else {
+                ie.setName(thunks.getName(i));
+            }
+            idt.add(ie);
+        }
+        return idt;
+    }
+
     public void add(ImportEntry entry) {
         imports.add(entry);
     }
@@ -9,6 +9,10 @@
  *******************************************************************************/
 package com.github.twinj.pecoff4j;
 
+/**
+ * @deprecated see {@link ImportDirectoryTable}; use {@link ImportThunks}.
+ */
+@Deprecated
 public class ImportEntry
 {
     private int val;
@@ -0,0 +1,139 @@
+package com.github.twinj.pecoff4j;
+
+import com.github.twinj.pecoff4j.io.ImageView;
+
+/**
+ * Decoded import lookup table: one entry per imported function, imported
+ * either by ordinal or by hint and name. The table is read in bulk and kept
+ * as two parallel arrays.
+ */
+public final class ImportThunks {
+
+	public static final ImportThunks EMPTY = new ImportThunks(new int[0], new String[0]);
+
+	private static final int ORDINAL_FLAG_32 = 0x80000000;
+	private static final long ORDINAL_FLAG_64 = 0x8000000000000000L;
+
+	// Ordinal of ordinal imports, hint of named imports
+	private final int[] values;
+	private final String[] names;
+
+	private ImportThunks(int[] values, String[] names) {
+		this.values = values;
+		this.names = names;
+	}
+
+	/**
+	 * Reads the zero terminated thunk table at the RVA.
+	 *
+	 * @param pe32Plus
+	 *          true for the 64 bit thunks of PE32+ images
+	 */
+	public static ImportThunks read(ImageView view, int rva, boolean pe32Plus) {
+		return read(view, rva, pe32Plus, 0);
+	}
+	
+	/**
+	 * Reads the zero terminated thunk table at the RVA, whose hint/name entries
+	 * are addressed relative to the base.
+	 * 
+	 * @param base
+	 *          the image base for the virtual addresses of version 1 delay
+	 *          import name tables, 0 for RVAs
+	 */
+	public static ImportThunks read(ImageView view, int rva, boolean pe32Plus, long base) {
+		int[] values;
+		String[] names;
+		if (pe32Plus) {
+			long[] thunks = view.getU64Table(rva);
+			if (thunks == null) return EMPTY;
+			values = new int[thunks.length];
+			names = new String[thunks.length];
+			for (int i = 0; i < thunks.length; i++) {
+				if ((thunks[i] & ORDINAL_FLAG_64) != 0) {
+					values[i] = (int) thunks[i] & 0xffff;
+				} else {
+					decode(view, (int) (thunks[i] - base) & 0x7fffffff, values, names, i);
+				}
+			}
+		} else {
+			int[] thunks = view.getU32Table(rva);
+			if (thunks == null) return EMPTY;
+			values = thunks;
+			names = new String[thunks.length];
+			for (int i = 0; i < thunks.length; i++) {
+				if ((thunks[i] & ORDINAL_FLAG_32) != 0 && !isNameVa(view, thunks[i], base)) {
+					values[i] = thunks[i] & 0xffff;
+				} else {
+					decode(view, (int) (thunks[i] - base) & 0x7fffffff, values, names, i);
+				}
+			}
+		}
+		return new ImportThunks(values, names);
+	}
+
+	/**
+	 * True if the thunk of a version 1 table is the virtual address of a
+	 * hint/name entry in the file. Images based at or above 0x80000000 set the
+	 * ordinal flag in every such address.
+	 */
+	private static boolean isNameVa(ImageView view, int thunk, long base) {
+		return base != 0 && view.contains((int) (thunk - base), 2);
+	}
+
+	/**
+	 * Reads the hint/name entry. A missing entry, or one whose name is not in
+	 * the file, leaves a hint of -1 and no name.
+	 */
+	private static void decode(ImageView view, int hintName, int[] values, String[] names,
+				int i) {
+		values[i] = view.getU16(hintName);
+		if (values[i] >= 0) {
+			names[i] = view.getName(hintName + 2);
+			if (names[i] == null) values[i] = -1;
+		}
+	}
+
+	public int size() {
+		return values.length;
+	}
+
+	public boolean isOrdinal(int i) {
+		return names[i] == null && values[i] >= 0;
+	}
+
+	/**
+	 * Returns the ordinal of an ordinal import, or -1.
+	 */
+	public int getOrdinal(int i) {
+		return isOrdinal(i) ? values[i] : -1;
+	}
+
+	/**
+	 * Returns the hint of a named import, or -1.
+	 */
+	public int getHint(int i) {
+		return names[i] != null ? values[i] : -1;
+	}
+
+	/**
+	 * Returns the interned name of a named import, or null.
+	 */
+	public String getName(int i) {
+		return names[i];
+	}
+
+	/**
+	 * Returns the position of the named import, or -1. Names are interned so
+	 * the comparison is by identity first.
+	 */
+	public int indexOf(String name) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i] == name) return i;
+		}
+		for (int i = 0; i < names.length; i++) {
+			if (name.equals(names[i])) return i;
+		}
+		return -1;
+	}
+}
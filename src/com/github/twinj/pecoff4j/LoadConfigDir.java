@@ -13,12 +13,13 @@ import java.nio.ByteBuffer;
 
 import com.github.twinj.headers.DatumAbstract;
 import com.github.twinj.headers.DatumHeader;
+import com.github.twinj.headers.HeaderFactory;
 
 public class LoadConfigDir extends DatumHeader<LoadConfigDir.Property> {
 	
 	private static final long serialVersionUID = -5654823843653172223L;
 	
-	public static enum Property {
+	public static enum Property implements PropertyInterface {
 		SIZE(DWORD, "Size"),
 		TIME_DATE_STAMP(DWORD, "TimeDateStamp"),
 		MAJOR_VERSION(WORD, "MajorVersion"),
@@ -43,25 +44,57 @@ public class LoadConfigDir extends DatumHeader<LoadConfigDir.Property> {
 		int sizeOf;
 		String winName;
 		Class<? extends DatumAbstract<?>> clazz;
+		DatumAbstract<?> datum;
 		
 		@SuppressWarnings("unchecked")
 		Property(DatumAbstract<?> size, int arraySize, String winName) {
 			this.sizeOf = size.sizeOf * arraySize;
 			this.winName = winName;
 			this.clazz = (Class<? extends DatumAbstract<?>>) size.getClass();
+			this.datum = size;
+			offset = offset();
+			inc(sizeOf);
 		}
 		
 		Property(DatumAbstract<?> size, String winName) {
 			this(size, 1, winName);
 		}
-
+		
+		public int offset;
+		static int SIZE_OF = 0;
+		
+		static int offset() {
+			return SIZE_OF;
+		}
+		static void inc(int sizeOf) {
+			SIZE_OF += sizeOf;
+		}
+		
+		public Class<? extends DatumAbstract<?>> getDatumClass() {
+			return clazz;
+		}
+		
+		public int sizeOf() {
+			return sizeOf;
+		}
+		
+		public int getOffset() {
+			return offset;
+		}
 	}
-	static int SIZE_OF = 72;
+	static final int SIZE_OF = 72;
 	
 	public LoadConfigDir(ByteBuffer bytes) {
 		super(Property.class, SIZE_OF, bytes);
 	}
 	
+	public static final HeaderFactory<LoadConfigDir> FACTORY = new HeaderFactory<LoadConfigDir>() {
+		@Override
+		public LoadConfigDir newInstance() {
+			return new LoadConfigDir();
+		}
+	};
+	
 	public LoadConfigDir() {
 		super(Property.class, SIZE_OF);
 	}
@@ -74,14 +107,10 @@ public class LoadConfigDir extends DatumHeader<LoadConfigDir.Property> {
 			}
 			barray = new byte[p.sizeOf];
 			bytes.get(barray);
-			DatumAbstract<?> d = null;
-			try {
-				d = p.clazz.newInstance();
-			} catch (InstantiationException | IllegalAccessException ignore) {}
+			DatumAbstract<?> d = p.datum.newInstance();
 			d.bytes = barray;
 			d.position = bytes.position();
 			put(p, (DatumAbstract<?>) d);
-			System.err.print(p + ": " + get(p).valueOf() + "\n");
 		}
 	}
 	
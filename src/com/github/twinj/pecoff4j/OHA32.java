@@ -3,6 +3,7 @@ package com.github.twinj.pecoff4j;
 import java.nio.ByteBuffer;
 
 import com.github.twinj.headers.DatumAbstract;
+import com.github.twinj.headers.HeaderFactory;
 
 public class OHA32 extends OHA<OHA32.Property> {
 	
@@ -15,7 +16,7 @@ public class OHA32 extends OHA<OHA32.Property> {
 	 * @author Daniel Kemp
 	 * 
 	 */
-	public static enum Property {
+	public static enum Property implements PropertyInterface {
 		
 		//
 		// NT additional fields.
@@ -191,12 +192,14 @@ public class OHA32 extends OHA<OHA32.Property> {
 		int sizeOf;
 		String winName;
 		Class<? extends DatumAbstract<?>> clazz;
+		DatumAbstract<?> datum;
 		
 		@SuppressWarnings("unchecked")
 		Property(DatumAbstract<?> size, int arraySize, String winName) {
 			this.sizeOf = size.sizeOf * arraySize;
 			this.winName = winName;
 			this.clazz = (Class<? extends DatumAbstract<?>>) size.getClass();
+			this.datum = size;
 			offset = offset();
 			inc(sizeOf);
 		}
@@ -213,15 +216,34 @@ public class OHA32 extends OHA<OHA32.Property> {
 		Property(DatumAbstract<?> size, String winName) {
 			this(size, 1, winName);
 		}
+		
+		public Class<? extends DatumAbstract<?>> getDatumClass() {
+			return clazz;
+		}
+		
+		public int sizeOf() {
+			return sizeOf;
+		}
+		
+		public int getOffset() {
+			return offset;
+		}
 	}
 	// BASE_OF_DATA field is part of the standard header. Has been moved here as
 	// pe32plus does not use this.
-	static int SIZE_OF = 72;
+	static final int SIZE_OF = 72;
 	
 	public OHA32(ByteBuffer bytes) {
 		super(Property.class, SIZE_OF, bytes);
 	}
 	
+	public static final HeaderFactory<OHA32> FACTORY = new HeaderFactory<OHA32>() {
+		@Override
+		public OHA32 newInstance() {
+			return new OHA32();
+		}
+	};
+	
 	public OHA32() {
 		super(Property.class, SIZE_OF);
 	}
@@ -231,14 +253,10 @@ public class OHA32 extends OHA<OHA32.Property> {
 		for (Property p : Property.values()) {
 			barray = new byte[p.sizeOf];
 			bytes.get(barray);
-			DatumAbstract<?> d = null;
-			try {
-				d = p.clazz.newInstance();
-			} catch (InstantiationException | IllegalAccessException ignore) {}
+			DatumAbstract<?> d = p.datum.newInstance();
 			d.bytes = barray;
 			d.position = bytes.position();
 			put(p, (DatumAbstract<?>) d);
-			System.err.print(p + ": " + get(p).valueOf() + "\n");
 		}
 	}
 }
@@ -3,6 +3,7 @@ package com.github.twinj.pecoff4j;
 import java.nio.ByteBuffer;
 
 import com.github.twinj.headers.DatumAbstract;
+import com.github.twinj.headers.HeaderFactory;
 
 public class OHA64 extends OHA<OHA64.Property> {
 	
@@ -15,7 +16,7 @@ public class OHA64 extends OHA<OHA64.Property> {
 	 * @author Daniel Kemp
 	 * 
 	 */
-	public static enum Property {
+	public static enum Property implements PropertyInterface {
 		
 		//
 		// NT additional fields.
@@ -184,12 +185,14 @@ public class OHA64 extends OHA<OHA64.Property> {
 		int sizeOf;
 		String winName;
 		Class<? extends DatumAbstract<?>> clazz;
+		DatumAbstract<?> datum;
 		
 		@SuppressWarnings("unchecked")
 		Property(DatumAbstract<?> size, int arraySize, String winName) {
 			this.sizeOf = size.sizeOf * arraySize;
 			this.winName = winName;
 			this.clazz = (Class<? extends DatumAbstract<?>>) size.getClass();
+			this.datum = size;
 			offset = offset();
 			inc(sizeOf);
 		}
@@ -206,14 +209,32 @@ public class OHA64 extends OHA<OHA64.Property> {
 		Property(DatumAbstract<?> size, String winName) {
 			this(size, 1, winName);
 		}
-
+		
+		public Class<? extends DatumAbstract<?>> getDatumClass() {
+			return clazz;
+		}
+		
+		public int sizeOf() {
+			return sizeOf;
+		}
+		
+		public int getOffset() {
+			return offset;
+		}
 	}
-	static int SIZE_OF = 88;
+	static final int SIZE_OF = 88;
 	
 	public OHA64(ByteBuffer bytes) {
 		super(Property.class, SIZE_OF, bytes);
 	}
 	
+	public static final HeaderFactory<OHA64> FACTORY = new HeaderFactory<OHA64>() {
+		@Override
+		public OHA64 newInstance() {
+			return new OHA64();
+		}
+	};
+	
 	public OHA64() {
 		super(Property.class, SIZE_OF);
 	}
@@ -223,14 +244,10 @@ public class OHA64 extends OHA<OHA64.Property> {
 		for (Property p : Property.values()) {
 			barray = new byte[p.sizeOf];
 			bytes.get(barray);
-			DatumAbstract<?> d = null;
-			try {
-				d = p.clazz.newInstance();
-			} catch (InstantiationException | IllegalAccessException ignore) {}
+			DatumAbstract<?> d = p.datum.newInstance();
 			d.bytes = barray;
 			d.position = bytes.position();
 			put(p, (DatumAbstract<?>) d);
-			System.err.print(p + ": " + get(p).valueOf() + "\n");
 		}
 	}
 }
@@ -3,6 +3,7 @@ package com.github.twinj.pecoff4j;
 import java.nio.ByteBuffer;
 
 import com.github.twinj.headers.BlockHeader;
+import com.github.twinj.headers.HeaderFactory;
 import com.github.twinj.pecoff4j.OHD.Directory;
 import com.github.twinj.pecoff4j.OHDD;
 
@@ -163,6 +164,13 @@ public class OHD extends BlockHeader<Directory, OHDD.Property, OHDD> {
 		super(Directory.class, bytes, SIZE_OF, IMAGE_NUMBEROF_DIRECTORY_ENTRIES);
 	}
 	
+	public static final HeaderFactory<OHD> FACTORY = new HeaderFactory<OHD>() {
+		@Override
+		public OHD newInstance() {
+			return new OHD();
+		}
+	};
+	
 	public OHD() {
 		super(Directory.class, SIZE_OF, IMAGE_NUMBEROF_DIRECTORY_ENTRIES);
 	}
@@ -185,4 +193,19 @@ public class OHD extends BlockHeader<Directory, OHDD.Property, OHDD> {
 			this.put(d, dd);
 		}
 	}
+	
+	/**
+	 * Backs every directory entry with its bytes of the shared array.
+	 */
+	@Override
+	public void view(byte[] bytes, int offset) {
+		for (Directory d : Directory.values()) {
+			OHDD dd = new OHDD();
+			dd.view(bytes, offset + d.ordinal() * SIZE_OF);
+			dd.index = d.ordinal();
+			dd.dirClass = d.dirClazz;
+			dd.name = d.toString();
+			this.put(d, dd);
+		}
+	}
 }
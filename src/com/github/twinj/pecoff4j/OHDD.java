@@ -4,6 +4,7 @@ import java.nio.ByteBuffer;
 
 import com.github.twinj.headers.DatumAbstract;
 import com.github.twinj.headers.DatumHeader;
+import com.github.twinj.headers.HeaderFactory;
 
 public class OHDD extends DatumHeader<OHDD.Property> {
 	
@@ -16,19 +17,21 @@ public class OHDD extends DatumHeader<OHDD.Property> {
 	 * @author Daniel Kemp
 	 * 
 	 */
-	public static enum Property {
+	public static enum Property implements PropertyInterface {
 		VIRTUAL_ADDRESS(DWORD, "VirtualAddress"),
 		SIZE(DWORD, "Size");
 		
 		int sizeOf;
 		String winName;
 		Class<? extends DatumAbstract<?>> clazz;
+		DatumAbstract<?> datum;
 		
 		@SuppressWarnings("unchecked")
 		Property(DatumAbstract<?> size, int arraySize, String winName) {
 			this.sizeOf = size.sizeOf * arraySize;
 			this.winName = winName;
 			this.clazz = (Class<? extends DatumAbstract<?>>) size.getClass();
+			this.datum = size;
 			offset = offset();
 			inc(sizeOf);
 		}
@@ -45,9 +48,20 @@ public class OHDD extends DatumHeader<OHDD.Property> {
 		Property(DatumAbstract<?> size, String winName) {
 			this(size, 1, winName);
 		}
-
+		
+		public Class<? extends DatumAbstract<?>> getDatumClass() {
+			return clazz;
+		}
+		
+		public int sizeOf() {
+			return sizeOf;
+		}
+		
+		public int getOffset() {
+			return offset;
+		}
 	}
-	static int SIZE_OF =  8;
+	static final int SIZE_OF =  8;
 	
 	public int index;
 	public String name;
@@ -59,6 +73,13 @@ public class OHDD extends DatumHeader<OHDD.Property> {
 		super(Property.class, SIZE_OF, bytes);
 	}
 	
+	public static final HeaderFactory<OHDD> FACTORY = new HeaderFactory<OHDD>() {
+		@Override
+		public OHDD newInstance() {
+			return new OHDD();
+		}
+	};
+	
 	public OHDD() {
 		super(Property.class, SIZE_OF);
 	}
@@ -77,14 +98,10 @@ public class OHDD extends DatumHeader<OHDD.Property> {
 		for (Property p : Property.values()) {
 			barray = new byte[p.sizeOf];
 			bytes.get(barray);
-			DatumAbstract<?> d = null;
-			try {
-				d = p.clazz.newInstance();
-			} catch (InstantiationException | IllegalAccessException ignore) {}
+			DatumAbstract<?> d = p.datum.newInstance();
 			d.bytes = barray;
 			d.position = bytes.position();
 			put(p, (DatumAbstract<?>) d);
-			System.err.print(p + ": " + get(p).valueOf() + "\n");
 		}
 	}
 }
\ No newline at end of file
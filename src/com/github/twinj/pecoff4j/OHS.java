@@ -13,6 +13,7 @@ import java.nio.ByteBuffer;
 
 import com.github.twinj.headers.DatumAbstract;
 import com.github.twinj.headers.DatumHeader;
+import com.github.twinj.headers.HeaderFactory;
 
 /**
  * NT Optional Header standard COFF fields
@@ -31,7 +32,7 @@ public class OHS extends DatumHeader<OHS.Property> {
 	 * @author Daniel Kemp
 	 * 
 	 */
-	public static enum Property {
+	public static enum Property implements PropertyInterface {
 		
 		//
 		// Standard fields. The standard fields are those common to the Common
@@ -97,12 +98,15 @@ public class OHS extends DatumHeader<OHS.Property> {
 		int sizeOf;
 		String winName;
 		Class<? extends DatumAbstract<?>> clazz;
+		DatumAbstract<?> datum;
 		
 		@SuppressWarnings("unchecked")
 		Property(DatumAbstract<?> size, int arraySize, String winName) {
 			this.sizeOf = size.sizeOf * arraySize;
 			this.winName = winName;
-			this.clazz = (Class<? extends DatumAbstract<?>>) size.getClass();			
+			this.clazz = (Class<? extends DatumAbstract<?>>) size.getClass();
+			this.datum = size;
+			offset = offset();
 			inc(sizeOf);
 		}
 		static int SIZE_OF = 0;
@@ -118,8 +122,19 @@ public class OHS extends DatumHeader<OHS.Property> {
 			this(size, 1, winName);
 		}
 		
+		public Class<? extends DatumAbstract<?>> getDatumClass() {
+			return clazz;
+		}
+		
+		public int sizeOf() {
+			return sizeOf;
+		}
+		
+		public int getOffset() {
+			return offset;
+		}
 	}
-	static int SIZE_OF = 24;
+	static final int SIZE_OF = 24;
 	
 	public static final int MAGIC_PE32 = 0x0b01; // 2817 | 0x010b - 267
 	public static final int MAGIC_PE32plus = 0x0b02; // | 0x020b
@@ -128,6 +143,13 @@ public class OHS extends DatumHeader<OHS.Property> {
 		super(Property.class, SIZE_OF, bytes);
 	}
 	
+	public static final HeaderFactory<OHS> FACTORY = new HeaderFactory<OHS>() {
+		@Override
+		public OHS newInstance() {
+			return new OHS();
+		}
+	};
+	
 	public OHS() {
 		super(Property.class, SIZE_OF);
 	}
@@ -137,14 +159,10 @@ public class OHS extends DatumHeader<OHS.Property> {
 		for (Property p : Property.values()) {
 			barray = new byte[p.sizeOf];
 			bytes.get(barray);
-			DatumAbstract<?> d = null;
-			try {
-				d = p.clazz.newInstance();
-			} catch (InstantiationException | IllegalAccessException ignore) {}
+			DatumAbstract<?> d = p.datum.newInstance();
 			d.bytes = barray;
 			d.position = bytes.position();
 			put(p, (DatumAbstract<?>) d);
-			System.err.print(p + ": " + get(p).valueOf() + "\n");
 		}
 	}
 	
@@ -37,7 +37,6 @@ public class PESig {
 	
 	public PESig(ByteBuffer bytes, long position) {
 		this.signature = new Word(position, bytes.array());
-		System.err.print(signature.valueOf() + "\n");
 	}
 	
 	public boolean isValid() {
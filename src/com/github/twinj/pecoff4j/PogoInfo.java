@@ -0,0 +1,93 @@
+package com.github.twinj.pecoff4j;
+
+import java.nio.ByteBuffer;
+
+import com.github.twinj.pecoff4j.util.NameTable;
+
+/**
+ * POGO debug record, written by the linker for profile guided and link time
+ * code generation builds: the RVA, size and name of each contribution to the
+ * sections, such as <code>.text$mn</code>. Kept as parallel arrays.
+ */
+public final class PogoInfo {
+	
+	private final int signature;
+	private final int[] rvas;
+	private final int[] sizes;
+	private final String[] names;
+	
+	private PogoInfo(int signature, int[] rvas, int[] sizes, String[] names) {
+		this.signature = signature;
+		this.rvas = rvas;
+		this.sizes = sizes;
+		this.names = names;
+	}
+	
+	/**
+	 * Decodes the record between the position and the limit of the little
+	 * endian buffer, or returns null if it is too short.
+	 */
+	public static PogoInfo read(ByteBuffer b) {
+		int p = b.position();
+		int limit = b.limit();
+		if (limit - p < 4) return null;
+		int signature = b.getInt(p);
+		
+		// Each entry is at least 12 bytes with its padding
+		int max = (limit - p - 4) / 12;
+		int[] rvas = new int[max];
+		int[] sizes = new int[max];
+		String[] names = new String[max];
+		NameTable table = new NameTable(max);
+		int n = 0;
+		int at = p + 4;
+		while (n < max && at + 8 < limit) {
+			rvas[n] = b.getInt(at);
+			sizes[n] = b.getInt(at + 4);
+			int name = at + 8;
+			names[n++] = table.get(b, name);
+			int end = name;
+			while (end < limit && b.get(end) != 0) {
+				end++;
+			}
+			// The name and its terminator are padded to a double word
+			at = end + 4 & ~3;
+		}
+		if (n < max) {
+			int[] r = new int[n];
+			int[] s = new int[n];
+			String[] m = new String[n];
+			System.arraycopy(rvas, 0, r, 0, n);
+			System.arraycopy(sizes, 0, s, 0, n);
+			System.arraycopy(names, 0, m, 0, n);
+			rvas = r;
+			sizes = s;
+			names = m;
+		}
+		return new PogoInfo(signature, rvas, sizes, names);
+	}
+	
+	/**
+	 * Signature of the record, such as 'PGU\0' or 'LTCG' as a little endian
+	 * double word.
+	 */
+	public int getSignature() {
+		return signature;
+	}
+	
+	public int size() {
+		return rvas.length;
+	}
+	
+	public int getRva(int i) {
+		return rvas[i];
+	}
+	
+	public int getSize(int i) {
+		return sizes[i];
+	}
+	
+	public String getName(int i) {
+		return names[i];
+	}
+}
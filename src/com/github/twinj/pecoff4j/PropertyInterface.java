@@ -2,8 +2,20 @@ package com.github.twinj.pecoff4j;
 
 import com.github.twinj.headers.DatumAbstract;
 
+/**
+ * Layout of a single header field. Implemented by the Property enums so the
+ * field offsets can be used to decode headers without materialising them.
+ */
 public interface PropertyInterface {
 	Class<? extends DatumAbstract<?>> getDatumClass();
+	
+	/**
+	 * Size of the field in bytes.
+	 */
 	int sizeOf();
-	void upSize(int size);
+	
+	/**
+	 * Offset of the field from the start of its header.
+	 */
+	int getOffset();
 }
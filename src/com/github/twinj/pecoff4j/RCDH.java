@@ -13,12 +13,13 @@ import java.nio.ByteBuffer;
 
 import com.github.twinj.headers.DatumAbstract;
 import com.github.twinj.headers.DatumHeader;
+import com.github.twinj.headers.HeaderFactory;
 
 public class RCDH extends DatumHeader<RCDH.Property> {
 	
 	private static final long serialVersionUID = -5303463280352581901L;
 	
-	public static enum Property {
+	public static enum Property implements PropertyInterface {
 		
 		/**
 		 * 
@@ -57,12 +58,14 @@ public class RCDH extends DatumHeader<RCDH.Property> {
 		int sizeOf;
 		String winName;
 		Class<? extends DatumAbstract<?>> clazz;
+		DatumAbstract<?> datum;
 		
 		@SuppressWarnings("unchecked")
 		Property(DatumAbstract<?> size, int arraySize, String winName) {
 			this.sizeOf = size.sizeOf * arraySize;
 			this.winName = winName;
 			this.clazz = (Class<? extends DatumAbstract<?>>) size.getClass();
+			this.datum = size;
 			offset = offset();
 			inc(sizeOf);
 		}
@@ -79,15 +82,33 @@ public class RCDH extends DatumHeader<RCDH.Property> {
 		Property(DatumAbstract<?> size, String winName) {
 			this(size, 1, winName);
 		}
-
+		
+		public Class<? extends DatumAbstract<?>> getDatumClass() {
+			return clazz;
+		}
+		
+		public int sizeOf() {
+			return sizeOf;
+		}
+		
+		public int getOffset() {
+			return offset;
+		}
 	}
-	static final int SIZE_OF = 16;
+	public static final int SIZE_OF = 16;
 	public int numEntries;
 	
 	public RCDH(ByteBuffer bytes) {
 		super(Property.class, SIZE_OF, bytes);
 	}
 	
+	public static final HeaderFactory<RCDH> FACTORY = new HeaderFactory<RCDH>() {
+		@Override
+		public RCDH newInstance() {
+			return new RCDH();
+		}
+	};
+	
 	public RCDH() {
 		super(Property.class, SIZE_OF);
 	}
@@ -97,15 +118,12 @@ public class RCDH extends DatumHeader<RCDH.Property> {
 		for (Property p : Property.values()) {
 			barray = new byte[p.sizeOf];
 			bytes.get(barray);
-			DatumAbstract<?> d = null;
-			try {
-				d = p.clazz.newInstance();
-			} catch (InstantiationException | IllegalAccessException ignore) {}
+			DatumAbstract<?> d = p.datum.newInstance();
 			d.bytes = barray;
 			d.position = bytes.position();
 			put(p, (DatumAbstract<?>) d);
-			System.err.print(p + ": " + get(p).valueOf() + "\n");
 		}
-		this.numEntries = this.valueOf(Property.NUMBER_OF_ID_ENTRIES).intValue() + this.valueOf(Property.NUMBER_OF_NAMED_ENTRIES).intValue();
+		// Both counts are unsigned words
+		this.numEntries = getU16(Property.NUMBER_OF_ID_ENTRIES) + getU16(Property.NUMBER_OF_NAMED_ENTRIES);
 	}
 }
@@ -12,12 +12,14 @@ package com.github.twinj.pecoff4j;
 import java.nio.ByteBuffer;
 
 import com.github.twinj.headers.DatumAbstract;
+import com.github.twinj.headers.HeaderFactory;
+import com.github.twinj.pecoff4j.io.PE;
 
 public class RCDataEntry extends RCEntry<RCDataEntry.Property> {
 	
 	private static final long serialVersionUID = -5303463280352581901L;
 	
-	public static enum Property {
+	public static enum Property implements PropertyInterface {
 		
 		/**
 		 *
@@ -42,16 +44,42 @@ public class RCDataEntry extends RCEntry<RCDataEntry.Property> {
 		int sizeOf;
 		String winName;
 		Class<? extends DatumAbstract<?>> clazz;
+		DatumAbstract<?> datum;
 		
 		@SuppressWarnings("unchecked")
 		Property(DatumAbstract<?> size, int arraySize, String winName) {
 			this.sizeOf = size.sizeOf * arraySize;
 			this.winName = winName;
-			this.clazz = (Class<? extends DatumAbstract<?>>) size.getClass();		
+			this.clazz = (Class<? extends DatumAbstract<?>>) size.getClass();
+			this.datum = size;
+			offset = offset();
+			inc(sizeOf);
 		}		
 		Property(DatumAbstract<?> size, String winName) {
 			this(size, 1, winName);
-		}	
+		}
+		
+		public int offset;
+		static int SIZE_OF = 0;
+		
+		static int offset() {
+			return SIZE_OF;
+		}
+		static void inc(int sizeOf) {
+			SIZE_OF += sizeOf;
+		}
+		
+		public Class<? extends DatumAbstract<?>> getDatumClass() {
+			return clazz;
+		}
+		
+		public int sizeOf() {
+			return sizeOf;
+		}
+		
+		public int getOffset() {
+			return offset;
+		}
 	}
 	
 	static final int SIZE_OF = 16;
@@ -60,23 +88,36 @@ public class RCDataEntry extends RCEntry<RCDataEntry.Property> {
 		super(Property.class, SIZE_OF, bytes);
 	}	
 	
+	public static final HeaderFactory<RCDataEntry> FACTORY = new HeaderFactory<RCDataEntry>() {
+		@Override
+		public RCDataEntry newInstance() {
+			return new RCDataEntry();
+		}
+	};
+	
 	public RCDataEntry() {
 		super(Property.class, SIZE_OF);
 	}
 	
+	/**
+	 * Returns a read only view of the resource data in the image, without
+	 * copying it. See {@link PE#sliceRva(int, int)}.
+	 * 
+	 * @return the data, or null if it is not in the file
+	 */
+	public ByteBuffer getData(PE pe) {
+		return pe.sliceRva((int) getU32(Property.OFFSET_TO_DATA), (int) getU32(Property.SIZE));
+	}
+	
 	public void mapProperties(ByteBuffer bytes) {
 		byte[] barray;
 		for (Property p : Property.values()) {
 			barray = new byte[p.sizeOf];
 			bytes.get(barray);
-			DatumAbstract<?> d = null;
-			try {
-				d = p.clazz.newInstance();
-			} catch (InstantiationException | IllegalAccessException ignore) {}
+			DatumAbstract<?> d = p.datum.newInstance();
 			d.bytes = barray;
 			d.position = bytes.position();
 			put(p, (DatumAbstract<?>) d);
-			System.err.print(p + ": " + get(p).valueOf() + "\n");
 		}
 	}
 	
@@ -10,15 +10,15 @@
 package com.github.twinj.pecoff4j;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 
 import com.github.twinj.headers.DatumAbstract;
+import com.github.twinj.headers.HeaderFactory;
 
 public class RCDirEntry extends RCEntry<RCDirEntry.Property> {
 	
 	private static final long serialVersionUID = -5303463280352581901L;
 	
-	public static enum Property {
+	public static enum Property implements PropertyInterface {
 		
 		/**
 		 * The Name field is used to identify either a type of resource, a resource
@@ -35,12 +35,14 @@ public class RCDirEntry extends RCEntry<RCDirEntry.Property> {
 		int sizeOf;
 		String winName;
 		Class<? extends DatumAbstract<?>> clazz;
+		DatumAbstract<?> datum;
 		
 		@SuppressWarnings("unchecked")
 		Property(DatumAbstract<?> size, int arraySize, String winName) {
 			this.sizeOf = size.sizeOf * arraySize;
 			this.winName = winName;
 			this.clazz = (Class<? extends DatumAbstract<?>>) size.getClass();
+			this.datum = size;
 			offset = offset();
 			inc(sizeOf);
 		}
@@ -58,8 +60,19 @@ public class RCDirEntry extends RCEntry<RCDirEntry.Property> {
 			this(size, 1, winName);
 		}
 		
+		public Class<? extends DatumAbstract<?>> getDatumClass() {
+			return clazz;
+		}
+		
+		public int sizeOf() {
+			return sizeOf;
+		}
+		
+		public int getOffset() {
+			return offset;
+		}
 	}
-	private static final int SIZE_OF = 8;
+	static final int SIZE_OF = 8;
 	private static final int IMAGE_RESOURCE_NAME_IS_STRING = 0x80000000;
 	private static final int IMAGE_RESOURCE_DATA_IS_DIRECTORY = 0x80000000;
 	private static final int NOT_DIRECTORY = 0;
@@ -71,10 +84,15 @@ public class RCDirEntry extends RCEntry<RCDirEntry.Property> {
 	public RCTree dir = null;
 	public RCTree parent = null;
 	
+	// Resource buffer the subdirectory is decoded from, null once it has been
+	// tried
+	ByteBuffer source = null;
+	
 	public RCDirEntry(ByteBuffer bytes, boolean isNamed, RCTree parent) {
 		this(bytes);
 		this.parent = parent;
 		if (isNamed) setName(bytes);
+		if (isDirectory()) source = bytes;
 	}
 	
 	public RCDirEntry(ByteBuffer bytes) {
@@ -82,6 +100,13 @@ public class RCDirEntry extends RCEntry<RCDirEntry.Property> {
 		readResData(bytes);
 	}
 	
+	public static final HeaderFactory<RCDirEntry> FACTORY = new HeaderFactory<RCDirEntry>() {
+		@Override
+		public RCDirEntry newInstance() {
+			return new RCDirEntry();
+		}
+	};
+	
 	public RCDirEntry() {
 		super(RCDirEntry.Property.class, SIZE_OF);
 	}
@@ -91,47 +116,101 @@ public class RCDirEntry extends RCEntry<RCDirEntry.Property> {
 		for (RCDirEntry.Property p : RCDirEntry.Property.values()) {
 			barray = new byte[p.sizeOf];
 			bytes.get(barray);
-			DatumAbstract<?> d = null;
-			try {
-				d = p.clazz.newInstance();
-			} catch (InstantiationException | IllegalAccessException ignore) {}
+			DatumAbstract<?> d = p.datum.newInstance();
 			d.bytes = barray;
 			d.position = bytes.position();
 			put(p, (DatumAbstract<?>) d);
-			System.err.print(p + ": " + (get(p).valueOf().intValue() & 0x7fffffff) + "\n");
 		}
 	}
 	
+	/**
+	 * Reads the data entry this entry points to, if it is a leaf. The position
+	 * of the buffer is restored so sibling entries can be read after it.
+	 */
 	public void readResData(ByteBuffer buffer) {
-		int offset = valueOf(RCDirEntry.Property.OFFSET_TO_DATA);
-		if ((offset & IMAGE_RESOURCE_DATA_IS_DIRECTORY) != NOT_DIRECTORY) {			
-		
-		} else {
-			buffer.position(offset);
-			entry = new RCDataEntry(buffer);
-			
+		if (isDirectory()) return;
+		int offset = getOffsetToData();
+		if (offset > buffer.limit() - RCDataEntry.SIZE_OF) return;
+		int pos = buffer.position();
+		buffer.position(offset);
+		entry = new RCDataEntry(buffer);
+		buffer.position(pos);
+	}
+	
+	/**
+	 * Returns the subdirectory this entry points to, decoding it from the
+	 * resource buffer on first use. Null for leaves and for directories which
+	 * are out of bounds, too deep or already decoded for another entry of the
+	 * tree, which includes the ancestors of this entry.
+	 */
+	public synchronized RCTree getDir() {
+		if (dir == null && source != null) {
+			dir = readDir(source);
+			source = null;
 		}
+		return dir;
+	}
+	
+	private RCTree readDir(ByteBuffer buffer) {
+		int depth = parent == null ? 1 : parent.depth + 1;
+		if (depth >= RCTree.MAX_DEPTH) return null;
+		
+		int offset = getOffsetToData();
+		if (offset > buffer.limit() - RCDH.SIZE_OF) return null;
+		RCTree root = parent == null ? null : parent.root;
+		if (root != null && !root.claim(offset)) return null;
+		
+		// Own cursor so lazy reads never move the shared buffer
+		ByteBuffer b = buffer.duplicate();
+		b.position(offset);
+		RCDH header = new RCDH(b);
+		if (header.numEntries > b.remaining() / SIZE_OF) return null;
+		
+		RCTree tree = new RCTree(b, header);
+		tree.offset = offset;
+		tree.depth = depth;
+		tree.up = parent;
+		if (root != null) tree.root = root;
+		return tree;
+	}
+	
+	/**
+	 * True if OffsetToData points to another directory rather than to a data
+	 * entry.
+	 */
+	public boolean isDirectory() {
+		return (valueOf(RCDirEntry.Property.OFFSET_TO_DATA).intValue() & IMAGE_RESOURCE_DATA_IS_DIRECTORY) != NOT_DIRECTORY;
+	}
+	
+	/**
+	 * Offset of the directory or data entry from the start of the resource
+	 * section.
+	 */
+	public int getOffsetToData() {
+		return valueOf(RCDirEntry.Property.OFFSET_TO_DATA).intValue() & ~IMAGE_RESOURCE_DATA_IS_DIRECTORY;
 	}
 	
+	/**
+	 * Decodes the counted UTF-16 name with absolute reads, so neither the
+	 * position nor the byte order of the buffer changes. Names running past
+	 * the end of the buffer are truncated.
+	 */
 	private void setName(ByteBuffer buffer) {
 		int id = valueOf(RCDirEntry.Property.NAME);
-		buffer.mark();
 		if ((id & IMAGE_RESOURCE_NAME_IS_STRING) != NOT_STRING) { 
 			// this is a second name test as the
 			// dir table tells us if named
 			
-			buffer.position(id & 0x7fffffff);
+			int offset = id & 0x7fffffff;
+			if (offset > buffer.limit() - 2) return;
 			
-			StringBuilder sb = new StringBuilder();
-			buffer.order(ByteOrder.LITTLE_ENDIAN);
-			int length = buffer.getShort();
-			while ((length--) > 0) {
-				sb.append(buffer.getChar());
+			int length = (buffer.get(offset) & 0xff) | (buffer.get(offset + 1) & 0xff) << 8;
+			length = Math.min(length, (buffer.limit() - offset - 2) / 2);
+			char[] c = new char[length];
+			for (int i = 0, p = offset + 2; i < length; i++, p += 2) {
+				c[i] = (char) ((buffer.get(p) & 0xff) | (buffer.get(p + 1) & 0xff) << 8);
 			}
-			name = sb.toString();
-			System.err.println(name);
-			buffer.order(ByteOrder.BIG_ENDIAN);
-			buffer.reset();
+			name = new String(c);
 		}
 	}
 	
@@ -0,0 +1,328 @@
+package com.github.twinj.pecoff4j;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.github.twinj.pecoff4j.io.PE;
+
+/**
+ * Immutable flat index of the leaves of a resource tree, keyed by (type, name,
+ * language).
+ *
+ * Each level of the path is a 21 bit component: the id of an ID entry, or
+ * {@link #NAMED} plus the position of the name in the index's name table for a
+ * named entry. The three components are packed into one long, type first, so
+ * the sorted keys group all entries of a type, and of a type and name,
+ * together. Range scans are a binary search for the first key; exact lookups go
+ * through an open addressing hash of the keys.
+ *
+ * Only leaves at the language level are indexed, which is where the resource
+ * compiler puts them. The RVA and size are taken from the data entry; the RVA
+ * is relative to the image, not to the resource section.
+ */
+public final class RCIndex {
+
+	/**
+	 * Set in components which refer to a name rather than an id.
+	 */
+	public static final int NAMED = 1 << 20;
+
+	private static final int BITS = 21;
+	private static final long MASK = (1L << BITS) - 1;
+
+	private final long[] keys;
+	private final int[] rva;
+	private final int[] size;
+	private final int[] codePage;
+
+	private final String[] names;
+	private final Map<String, Integer> nameIds;
+
+	// Open addressing table of position + 1, 0 for empty slots
+	private final int[] slots;
+
+	private RCIndex(long[] keys, int[] rva, int[] size, int[] codePage, String[] names,
+				Map<String, Integer> nameIds) {
+		this.keys = keys;
+		this.rva = rva;
+		this.size = size;
+		this.codePage = codePage;
+		this.names = names;
+		this.nameIds = nameIds;
+		this.slots = new int[Integer.highestOneBit(Math.max(keys.length, 1) * 2) * 2];
+		for (int i = 0; i < keys.length; i++) {
+			slots[slot(keys[i])] = i + 1;
+		}
+	}
+
+	/**
+	 * Builds the index from the root of a resource tree. Every directory below
+	 * the root is decoded.
+	 */
+	public static RCIndex of(RCTree root) {
+		Builder b = new Builder();
+		for (RCDirEntry type : root.values()) {
+			RCTree names = type.getDir();
+			if (names == null) continue;
+			int t = b.component(type);
+			for (RCDirEntry name : names.values()) {
+				RCTree languages = name.getDir();
+				if (languages == null) continue;
+				int n = b.component(name);
+				for (RCDirEntry language : languages.values()) {
+					if (language.entry == null) continue;
+					b.add(key(t, n, b.component(language)), language.entry);
+				}
+			}
+		}
+		return b.build();
+	}
+
+	/**
+	 * Packs three components into a key.
+	 */
+	public static long key(int type, int name, int language) {
+		return (type & MASK) << (BITS * 2) | (name & MASK) << BITS | (language & MASK);
+	}
+
+	public static int typeOf(long key) {
+		return (int) (key >>> (BITS * 2) & MASK);
+	}
+
+	public static int nameOf(long key) {
+		return (int) (key >>> BITS & MASK);
+	}
+
+	public static int languageOf(long key) {
+		return (int) (key & MASK);
+	}
+
+	/**
+	 * Number of data entries indexed.
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * Returns the component for a resource name, or -1 if no entry of the tree
+	 * has that name.
+	 */
+	public int componentOf(String name) {
+		Integer id = nameIds.get(name);
+		return id == null ? -1 : NAMED | id;
+	}
+
+	/**
+	 * Returns the name of a named component, or the id as a string, as the
+	 * entries of an {@link RCTree} are keyed.
+	 */
+	public String toString(int component) {
+		if ((component & NAMED) != 0) {
+			return names[component & ~NAMED];
+		}
+		return Integer.toString(component);
+	}
+
+	/**
+	 * Returns the position of the entry with exactly this key, or -1.
+	 */
+	public int indexOf(long key) {
+		return slots[slot(key)] - 1;
+	}
+
+	public int find(int type, int name, int language) {
+		return indexOf(key(type, name, language));
+	}
+
+	/**
+	 * Returns the position of the first key not less than the given one, or
+	 * {@link #size()}.
+	 */
+	public int lowerBound(long key) {
+		int lo = 0, hi = keys.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (keys[mid] < key) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Position of the first entry of the type. The entries of the type are
+	 * those from here up to {@link #endOf(int)}.
+	 */
+	public int firstOf(int type) {
+		return lowerBound(key(type, 0, 0));
+	}
+
+	public int endOf(int type) {
+		return upperBound(key(type, (int) MASK, (int) MASK));
+	}
+
+	/**
+	 * Position of the first language of the named resource. The languages are
+	 * those from here up to {@link #endOf(int, int)}.
+	 */
+	public int firstOf(int type, int name) {
+		return lowerBound(key(type, name, 0));
+	}
+
+	public int endOf(int type, int name) {
+		return upperBound(key(type, name, (int) MASK));
+	}
+
+	private int upperBound(long key) {
+		return key == Long.MAX_VALUE ? keys.length : lowerBound(key + 1);
+	}
+
+	public long keyAt(int i) {
+		return keys[i];
+	}
+
+	public int typeAt(int i) {
+		return typeOf(keys[i]);
+	}
+
+	public int nameAt(int i) {
+		return nameOf(keys[i]);
+	}
+
+	public int languageAt(int i) {
+		return languageOf(keys[i]);
+	}
+
+	/**
+	 * RVA of the resource data.
+	 */
+	public int rvaAt(int i) {
+		return rva[i];
+	}
+
+	public int sizeAt(int i) {
+		return size[i];
+	}
+
+	public int codePageAt(int i) {
+		return codePage[i];
+	}
+
+	/**
+	 * Returns a read only view of the data of the entry at the position, without
+	 * copying it, or null if the data is not in the file.
+	 */
+	public ByteBuffer getData(PE pe, int i) {
+		return pe.sliceRva(rva[i], size[i]);
+	}
+
+	/**
+	 * Receives the data of each entry visited by
+	 * {@link RCIndex#forEach(PE, int, Visitor)}.
+	 */
+	public interface Visitor {
+		
+		/**
+		 * @param i
+		 *          position of the entry in the index
+		 * @param data
+		 *          read only view of the data, or null if it is not in the file
+		 */
+		void visit(int i, ByteBuffer data);
+	}
+
+	/**
+	 * Passes the data of every entry of the type to the visitor, in key order.
+	 */
+	public void forEach(PE pe, int type, Visitor visitor) {
+		for (int i = firstOf(type), end = endOf(type); i < end; i++) {
+			visitor.visit(i, getData(pe, i));
+		}
+	}
+
+	/**
+	 * Returns the slot holding the key, or the empty slot where it would go.
+	 */
+	private int slot(long key) {
+		int m = slots.length - 1;
+		int s = (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & m;
+		while (slots[s] != 0 && keys[slots[s] - 1] != key) {
+			s = (s + 1) & m;
+		}
+		return s;
+	}
+
+	/**
+	 * Collects the leaves in tree order, then sorts them by key. The first of
+	 * any duplicate keys is kept.
+	 */
+	private static final class Builder {
+
+		long[] keys = new long[16];
+		RCDataEntry[] entries = new RCDataEntry[16];
+		int count;
+
+		final Map<String, Integer> nameIds = new HashMap<>();
+		String[] names = new String[0];
+
+		int component(RCDirEntry e) {
+			int id = e.valueOf(RCDirEntry.Property.NAME);
+			if ((id & 0x80000000) == 0) {
+				return id & 0xFFFF;
+			}
+			String name = e.getName() == null ? "" : e.getName();
+			Integer n = nameIds.get(name);
+			if (n == null) {
+				n = nameIds.size();
+				if (n >= NAMED) throw new IllegalStateException("Too many resource names");
+				nameIds.put(name, n);
+				if (n == names.length) {
+					names = Arrays.copyOf(names, Math.max(n * 2, 16));
+				}
+				names[n] = name;
+			}
+			return NAMED | n;
+		}
+
+		void add(long key, RCDataEntry entry) {
+			if (count == keys.length) {
+				keys = Arrays.copyOf(keys, count * 2);
+				entries = Arrays.copyOf(entries, count * 2);
+			}
+			keys[count] = key;
+			entries[count] = entry;
+			count++;
+		}
+
+		RCIndex build() {
+			// Position of each distinct key in tree order
+			Map<Long, Integer> first = new HashMap<>(count * 2);
+			for (int i = 0; i < count; i++) {
+				if (!first.containsKey(keys[i])) first.put(keys[i], i);
+			}
+			long[] sorted = new long[first.size()];
+			int k = 0;
+			for (Long key : first.keySet()) {
+				sorted[k++] = key;
+			}
+			Arrays.sort(sorted);
+
+			int[] rva = new int[sorted.length];
+			int[] size = new int[sorted.length];
+			int[] codePage = new int[sorted.length];
+			for (int i = 0; i < sorted.length; i++) {
+				RCDataEntry e = entries[first.get(sorted[i])];
+				rva[i] = (int) e.getU32(RCDataEntry.Property.OFFSET_TO_DATA);
+				size[i] = (int) e.getU32(RCDataEntry.Property.SIZE);
+				codePage[i] = (int) e.getU32(RCDataEntry.Property.CODE_PAGE);
+			}
+			return new RCIndex(sorted, rva, size, codePage,
+						Arrays.copyOf(names, nameIds.size()), nameIds);
+		}
+	}
+}
@@ -154,6 +154,8 @@ public class RCRoot extends RCTree {
 	
 	public EnumMap<RCRoot.RT, RCDirEntry> map;
 	
+	private RCIndex index;
+	
 	public RCRoot(ByteBuffer buffer, RCDH header)  {
 		super(buffer, header);			
 	}
@@ -163,18 +165,39 @@ public class RCRoot extends RCTree {
 			map = new EnumMap<RT, RCDirEntry>(RT.class);
 		}
 		Integer id = e.valueOf(RCDirEntry.Property.NAME);
-		map.put(RCRoot.RT.values()[id.intValue()], e);		
+		
+		// Application defined types have ids beyond the predefined ones
+		if (id.intValue() >= 0 && id.intValue() < RT.values().length) {
+			map.put(RCRoot.RT.values()[id.intValue()], e);
+		}
 	}
 	
+	/**
+	 * Only the directories on the path to the type are decoded.
+	 */
 	public RCTree findResourceTree(RCRoot.RT type) {
-		return map.get(type).dir;
+		RCDirEntry e = map == null ? null : map.get(type);
+		return e == null ? null : e.getDir();
 	}
 	
 	public RCTree findResourceTree(RCRoot.RT type, String name) {
-		return findResourceTree(type).findResourceTree(name);
+		RCTree tree = findResourceTree(type);
+		return tree == null ? null : tree.findResourceTree(name);
 	}
 
 	public RCDataEntry findResource(RT type, String name, String language) {
-		return map.get(type).dir.findResource(name, language);
+		RCTree tree = findResourceTree(type);
+		return tree == null ? null : tree.findResource(name, language);
+	}
+	
+	/**
+	 * Returns the flat index of the tree, building it on first use. This decodes
+	 * the whole tree.
+	 */
+	public synchronized RCIndex getIndex() {
+		if (index == null) {
+			index = RCIndex.of(this);
+		}
+		return index;
 	}
 }
\ No newline at end of file
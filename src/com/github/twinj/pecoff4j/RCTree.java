@@ -10,32 +10,62 @@
 package com.github.twinj.pecoff4j;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 
+/**
+ * One directory of the resource tree. The entries of a directory are decoded
+ * when it is constructed; their subdirectories are decoded from the resource
+ * buffer the first time {@link RCDirEntry#getDir()} is called, or all at once
+ * by {@link #readAll()}.
+ */
 public class RCTree extends LinkedHashMap<String, RCDirEntry> {
 	
 	private static final long serialVersionUID = 855142791164906461L;
 	
+	/**
+	 * Resource trees are three levels deep (type, name, language) in practice.
+	 * Anything much deeper is malformed.
+	 */
+	public static final int MAX_DEPTH = 16;
+	
 	public RCDH header;
 	public int numIDEntries;
 	public List<RCDataEntry> dataEntries = new LinkedList<>();
 	
+	// Position in the tree, used to reject runaway depth
+	int offset;
+	int depth;
+	RCTree up;
+	// Top of the tree, which records the offset of every directory decoded
+	RCTree root = this;
+	private BitSet decoded;
+	
+	/**
+	 * Decodes the entries following the header. Entries the header counts but
+	 * the buffer does not hold are dropped.
+	 */
 	public RCTree(ByteBuffer buffer, RCDH dirHeader) {
-		super(dirHeader.numEntries);
+		super(Math.min(dirHeader.numEntries, buffer.remaining() / RCDirEntry.SIZE_OF));
 		this.header = dirHeader;
-		numIDEntries = header.valueOf(RCDH.Property.NUMBER_OF_ID_ENTRIES).intValue();
+		numIDEntries = header.getU16(RCDH.Property.NUMBER_OF_ID_ENTRIES);
 		
+		int fit = buffer.remaining() / RCDirEntry.SIZE_OF;
+		int named = Math.min(header.numEntries - numIDEntries, fit);
+		int ids = Math.min(numIDEntries, fit - named);
 		RCDirEntry e = null;
 		
 		// Named entries
-		for (int i = 0; i < header.numEntries - numIDEntries; i++) {
+		for (int i = 0; i < named; i++) {
 			e = new RCDirEntry(buffer, true, this);
 			put(e.getName(), e);
 		}
 		// ID entries
-		for (int i = 0; i < numIDEntries; i++) {
+		for (int i = 0; i < ids; i++) {
 			e = new RCDirEntry(buffer, false, this);
 			put(e.valueOf(RCDirEntry.Property.NAME).toString(), e);
 			doExtra(e);
@@ -44,32 +74,69 @@ public class RCTree extends LinkedHashMap<String, RCDirEntry> {
 	
 	protected void doExtra(RCDirEntry e) {};
 	
+	/**
+	 * Marks the directory at the offset as decoded. Called on the root only.
+	 * 
+	 * @return false if a directory at the offset was already decoded, through
+	 *         this or any other reference
+	 */
+	synchronized boolean claim(int offset) {
+		if (decoded == null) {
+			decoded = new BitSet();
+			decoded.set(this.offset);
+		}
+		if (decoded.get(offset)) return false;
+		decoded.set(offset);
+		return true;
+	}
+	
+	/**
+	 * Decodes every directory below this one, breadth first. Whether read here
+	 * or lazily, each directory offset is decoded at most once per tree, so
+	 * trees which share a subdirectory cannot blow up; the repeated reference,
+	 * like a reference to an ancestor, is left without a dir.
+	 */
+	public void readAll() {
+		List<RCTree> level = Collections.singletonList(this);
+		while (!level.isEmpty()) {
+			List<RCTree> next = new ArrayList<>();
+			for (RCTree tree : level) {
+				for (RCDirEntry e : tree.values()) {
+					RCTree dir = e.getDir();
+					if (dir != null) next.add(dir);
+				}
+			}
+			level = next;
+		}
+	}
+	
+	/**
+	 * Collects the data entries of every leaf below this directory.
+	 */
 	public List<RCDataEntry> getDataEntries() {
-		
+		dataEntries.clear();
 		for (RCDirEntry e : this.values()) {
-			if (!e.dir.dataEntries.isEmpty()) {
-				if (e.dir != null) {
-				
-					dataEntries.addAll(e.dir.dataEntries);
-				} else if (e.entry != null) {
-					e.parent.dataEntries.add(e.entry);
-				}
-			} else {
-				e.dir.getDataEntries();
+			if (e.entry != null) {
+				dataEntries.add(e.entry);
+			} else if (e.getDir() != null) {
+				dataEntries.addAll(e.getDir().getDataEntries());
 			}
 		}
 		return dataEntries;
 	}
 	
 	public RCDataEntry findResource(String name, String language) {
-		return get(name).dir.findResource(language);
+		RCTree tree = findResourceTree(name);
+		return tree == null ? null : tree.findResource(language);
 	}
 	
 	public RCDataEntry findResource(String res) {
-		return this.get(res).entry;		
+		RCDirEntry e = get(res);
+		return e == null ? null : e.entry;
 	}
 	
 	public RCTree findResourceTree(String name) {
-		return this.get(name).dir;
+		RCDirEntry e = get(name);
+		return e == null ? null : e.getDir();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.github.twinj.pecoff4j;
+
+import java.nio.ByteBuffer;
+
+/**
+ * REPRO debug record of deterministic builds. The linker replaces the time
+ * stamps of the image with parts of a hash of its contents, and may record
+ * the hash itself in the record.
+ */
+public final class ReproInfo {
+	
+	private final byte[] hash;
+	
+	private ReproInfo(byte[] hash) {
+		this.hash = hash;
+	}
+	
+	/**
+	 * Decodes the record between the position and the limit of the little
+	 * endian buffer. An empty record has an empty hash.
+	 */
+	public static ReproInfo read(ByteBuffer b) {
+		int p = b.position();
+		int n = b.limit() - p;
+		int length = n < 4 ? 0 : (int) Math.min(b.getInt(p) & 0xFFFFFFFFL, n - 4);
+		byte[] hash = new byte[length];
+		for (int i = 0; i < length; i++) {
+			hash[i] = b.get(p + 4 + i);
+		}
+		return new ReproInfo(hash);
+	}
+	
+	/**
+	 * Returns the hash of the image, usually 32 bytes, or an empty array.
+	 */
+	public byte[] getHash() {
+		return hash.clone();
+	}
+	
+	public int getHashLength() {
+		return hash.length;
+	}
+}
@@ -4,6 +4,7 @@ import java.nio.ByteBuffer;
 
 import com.github.twinj.headers.DatumAbstract;
 import com.github.twinj.headers.DatumHeader;
+import com.github.twinj.headers.HeaderFactory;
 import com.github.twinj.pecoff4j.io.PE.SectData;
 
 public class SH extends DatumHeader<SH.Property> {
@@ -12,7 +13,7 @@ public class SH extends DatumHeader<SH.Property> {
 	
 	public static final int IMAGE_SIZEOF_SHORT_NAME = 8;
 	
-	public enum Property {
+	public enum Property implements PropertyInterface {
 		
 		/**
 		 * The ASCII name of the section. A section name is not guaranteed to be
@@ -99,12 +100,14 @@ public class SH extends DatumHeader<SH.Property> {
 		int sizeOf;
 		String winName;
 		Class<? extends DatumAbstract<?>> clazz;
+		DatumAbstract<?> datum;
 		
 		@SuppressWarnings("unchecked")
 		Property(DatumAbstract<?> size, int arraySize, String winName) {
 			this.sizeOf = size.sizeOf * arraySize;
 			this.winName = winName;
 			this.clazz = (Class<? extends DatumAbstract<?>>) size.getClass();
+			this.datum = size;
 			offset = offset();
 			inc(sizeOf);
 		}
@@ -122,10 +125,20 @@ public class SH extends DatumHeader<SH.Property> {
 			this(size, 1, winName);
 		}
 		
-
+		public Class<? extends DatumAbstract<?>> getDatumClass() {
+			return clazz;
+		}
+		
+		public int sizeOf() {
+			return sizeOf;
+		}
+		
+		public int getOffset() {
+			return offset;
+		}
 	}
 	
-	static int SIZE_OF =  40;
+	static final int SIZE_OF =  40;
 	
 	public int index;
 	public OHD.Directory dir;
@@ -135,6 +148,13 @@ public class SH extends DatumHeader<SH.Property> {
 		super(Property.class, SIZE_OF, bytes);
 	}
 	
+	public static final HeaderFactory<SH> FACTORY = new HeaderFactory<SH>() {
+		@Override
+		public SH newInstance() {
+			return new SH();
+		}
+	};
+	
 	public SH() {
 		super(Property.class, SIZE_OF);
 	}
@@ -144,14 +164,10 @@ public class SH extends DatumHeader<SH.Property> {
 		for (Property p : Property.values()) {
 			barray = new byte[p.sizeOf];
 			bytes.get(barray);
-			DatumAbstract<?> d = null;
-			try {
-				d = p.clazz.newInstance();
-			} catch (InstantiationException | IllegalAccessException ignore) {}
+			DatumAbstract<?> d = p.datum.newInstance();
 			d.bytes = barray;
 			d.position = bytes.position();
 			put(p, (DatumAbstract<?>) d);
-			System.err.print(p + ": " + get(p).valueOf() + "\n");
 		}
 	}
 }
\ No newline at end of file
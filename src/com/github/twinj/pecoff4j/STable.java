@@ -150,15 +150,24 @@ public class STable extends LinkedHashMap<String, SH> {
 	}
 	
 	public STable(int arraySize, IDataReader dr) throws IOException {
+		this(arraySize, dr, false);
+	}
+	
+	/**
+	 * Reads the section headers, as views of their bytes when views is true.
+	 */
+	public STable(int arraySize, IDataReader dr, boolean views) throws IOException {
 		super(arraySize);
 		this.numberOfSections = arraySize;
 		
 		for (int i = 0; i < arraySize; i++) {
 			
-			SH sh = (SH) Header.parse(SH.class, dr);
+			SH sh = Header.parse(SH.FACTORY, dr, views);
 			sh.index = i;
 			put(sh.toUtfString(SH.Property.NAME), sh);
 		}
+		this.index = SectionIndex.of(this);
+		this.headers = values().toArray(new SH[size()]);
 	}
 	
 	public STable(int arraySize, ByteBuffer buffer) throws IOException {
@@ -177,23 +186,31 @@ public class STable extends LinkedHashMap<String, SH> {
 	public int[] virtualAddress;
 	public int[] pointerToRawData;
 	
+	private SectionIndex index;
+	private SH[] headers;
+	
+	/**
+	 * Returns the address index of the sections read from the image.
+	 */
+	public SectionIndex getIndex() {
+		return index;
+	}
+	
+	/**
+	 * Returns the header of the section at a position reported by
+	 * {@link #getIndex()}.
+	 */
+	public SH getHeader(int position) {
+		return headers[position];
+	}
+	
+	/**
+	 * Converts an RVA to a file offset. RVAs which are not backed by the raw
+	 * data of a section, such as those inside the headers, are returned as is.
+	 */
 	public int convertVirtualAddressToRawDataPointer(int virtualAddress) {
-		for (int i = 0; i < this.virtualAddress.length; i++) {
-			if (virtualAddress < this.virtualAddress[i]) {
-				if (i > 0) {
-					int prd = pointerToRawData[i - 1];
-					int vad = this.virtualAddress[i - 1];
-					return prd + virtualAddress - vad;
-				} else {
-					return virtualAddress;
-				}
-			}
-		}
-		
-		// Hit the last item
-		int prd = this.pointerToRawData[this.virtualAddress.length - 1];
-		int vad = this.virtualAddress[this.virtualAddress.length - 1];
-		return prd + virtualAddress - vad;
+		int offset = index.toOffset(virtualAddress);
+		return offset < 0 ? virtualAddress : offset;
 	}
 	
 }
@@ -0,0 +1,255 @@
+package com.github.twinj.pecoff4j;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable index translating RVAs to file offsets and back, built once per
+ * image from the section table.
+ * 
+ * A section covers the RVAs from VirtualAddress up to the larger of
+ * VirtualSize and SizeOfRawData, and the file offsets from PointerToRawData up
+ * to SizeOfRawData. The sections do not need to be sorted. Where sections
+ * overlap, the one that comes first in the section table wins. Sections may
+ * legitimately share raw data, but the loader refuses images whose sections
+ * overlap in memory, so for RVAs the rule only decides how a corrupt image is
+ * read. The covered ranges are split into disjoint intervals sorted by start,
+ * so a lookup is a binary search.
+ * 
+ * All addresses are unsigned 32 bit values passed as int. Lookups return -1
+ * for addresses which are not covered, or for RVAs in the zero filled part of
+ * a section beyond its raw data.
+ */
+public final class SectionIndex {
+	
+	private final int[] virtualAddress;
+	private final int[] sizeOfRawData;
+	private final int[] pointerToRawData;
+	
+	private final Intervals byRva;
+	private final Intervals byOffset;
+	
+	/**
+	 * @param virtualAddress
+	 *          VirtualAddress of each section, in section table order
+	 * @param virtualSize
+	 *          VirtualSize of each section
+	 * @param sizeOfRawData
+	 *          SizeOfRawData of each section
+	 * @param pointerToRawData
+	 *          PointerToRawData of each section
+	 */
+	public SectionIndex(int[] virtualAddress, int[] virtualSize, int[] sizeOfRawData,
+				int[] pointerToRawData) {
+		int n = virtualAddress.length;
+		this.virtualAddress = virtualAddress.clone();
+		this.sizeOfRawData = sizeOfRawData.clone();
+		this.pointerToRawData = pointerToRawData.clone();
+		
+		long[] rvaStart = new long[n];
+		long[] rvaEnd = new long[n];
+		long[] fileStart = new long[n];
+		long[] fileEnd = new long[n];
+		for (int i = 0; i < n; i++) {
+			long raw = sizeOfRawData[i] & 0xFFFFFFFFL;
+			rvaStart[i] = virtualAddress[i] & 0xFFFFFFFFL;
+			rvaEnd[i] = rvaStart[i] + Math.max(virtualSize[i] & 0xFFFFFFFFL, raw);
+			fileStart[i] = pointerToRawData[i] & 0xFFFFFFFFL;
+			fileEnd[i] = pointerToRawData[i] == 0 ? fileStart[i] : fileStart[i] + raw;
+		}
+		this.byRva = new Intervals(rvaStart, rvaEnd);
+		this.byOffset = new Intervals(fileStart, fileEnd);
+	}
+	
+	/**
+	 * Builds the index from the headers of a section table.
+	 */
+	public static SectionIndex of(STable table) {
+		int n = table.size();
+		int[] va = new int[n];
+		int[] vs = new int[n];
+		int[] srd = new int[n];
+		int[] prd = new int[n];
+		int i = 0;
+		for (SH sh : table.values()) {
+			va[i] = (int) sh.getU32(SH.Property.VIRTUAL_ADDRESS);
+			vs[i] = (int) sh.getU32(SH.Property.VIRTUAL_SIZE);
+			srd[i] = (int) sh.getU32(SH.Property.SIZE_OF_RAW_DATA);
+			prd[i] = (int) sh.getU32(SH.Property.POINTER_TO_RAW_DATA);
+			i++;
+		}
+		return new SectionIndex(va, vs, srd, prd);
+	}
+	
+	/**
+	 * Number of sections indexed.
+	 */
+	public int size() {
+		return virtualAddress.length;
+	}
+	
+	/**
+	 * Returns the zero based section table index of the section containing the
+	 * RVA, or -1.
+	 */
+	public int sectionOf(int rva) {
+		return byRva.find(rva & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * Returns the file offset of the RVA, or -1 if it is not backed by file
+	 * data.
+	 */
+	public int toOffset(int rva) {
+		return toOffset(rva, sectionOf(rva));
+	}
+	
+	/**
+	 * Returns the RVA of the file offset, or -1 if it is not inside the raw
+	 * data of a section.
+	 */
+	public int toRva(int offset) {
+		int s = byOffset.find(offset & 0xFFFFFFFFL);
+		if (s < 0) return -1;
+		return virtualAddress[s] + (offset - pointerToRawData[s]);
+	}
+	
+	/**
+	 * Translates an array of RVAs into file offsets, storing -1 for RVAs which
+	 * are not backed by file data. Consecutive RVAs in the same section, the
+	 * usual case for thunk and relocation tables, skip the search.
+	 * 
+	 * @param rvas
+	 *          RVAs to translate
+	 * @param offsets
+	 *          receives the file offsets, may be the same array as rvas
+	 */
+	public void toOffsets(int[] rvas, int[] offsets) {
+		int last = -1;
+		long lastStart = 0, lastEnd = 0;
+		for (int i = 0; i < rvas.length; i++) {
+			long rva = rvas[i] & 0xFFFFFFFFL;
+			if (rva < lastStart || rva >= lastEnd) {
+				int k = byRva.interval(rva);
+				if (k < 0) {
+					offsets[i] = -1;
+					continue;
+				}
+				last = byRva.owner[k];
+				lastStart = byRva.start[k];
+				lastEnd = byRva.end[k];
+			}
+			offsets[i] = toOffset(rvas[i], last);
+		}
+	}
+	
+	/**
+	 * Returns a new array with the file offsets of the RVAs.
+	 */
+	public int[] toOffsets(int[] rvas) {
+		int[] offsets = new int[rvas.length];
+		toOffsets(rvas, offsets);
+		return offsets;
+	}
+	
+	private int toOffset(int rva, int s) {
+		if (s < 0) return -1;
+		int delta = rva - virtualAddress[s];
+		if ((delta & 0xFFFFFFFFL) >= (sizeOfRawData[s] & 0xFFFFFFFFL)) return -1;
+		return pointerToRawData[s] + delta;
+	}
+	
+	/**
+	 * Disjoint sorted intervals, each owned by the first range in table order
+	 * that covers it.
+	 */
+	private static final class Intervals {
+		
+		// Bounds are at most 33 bits, which leaves 24 bits for the event
+		private static final int INDEX_BITS = 24;
+		private static final long OPEN = 1L << INDEX_BITS - 1;
+		private static final int INDEX_MASK = (1 << INDEX_BITS - 1) - 1;
+		
+		final long[] start;
+		final long[] end;
+		final int[] owner;
+		
+		/**
+		 * Sweeps the sorted bounds once, keeping the ranges open at each bound in
+		 * a heap keyed by table index, so building is O(n log n).
+		 */
+		Intervals(long[] from, long[] to) {
+			int n = from.length;
+			if (n > INDEX_MASK) throw new IllegalArgumentException("Too many ranges: " + n);
+			
+			// Bound value, then close before open, then table index
+			long[] events = new long[n * 2];
+			int m = 0;
+			for (int i = 0; i < n; i++) {
+				if (from[i] >= to[i]) continue;
+				events[m++] = from[i] << INDEX_BITS | OPEN | i;
+				events[m++] = to[i] << INDEX_BITS | i;
+			}
+			Arrays.sort(events, 0, m);
+			
+			PriorityQueue<Integer> open = new PriorityQueue<>();
+			boolean[] closed = new boolean[n];
+			long[] s = new long[m];
+			long[] e = new long[m];
+			int[] o = new int[m];
+			int count = 0;
+			for (int k = 0; k < m;) {
+				long lo = events[k] >>> INDEX_BITS;
+				for (; k < m && events[k] >>> INDEX_BITS == lo; k++) {
+					int i = (int) events[k] & INDEX_MASK;
+					if ((events[k] & OPEN) != 0) {
+						open.add(i);
+					} else {
+						closed[i] = true;
+					}
+				}
+				while (!open.isEmpty() && closed[open.peek()]) {
+					open.poll();
+				}
+				if (open.isEmpty() || k == m) continue;
+				long hi = events[k] >>> INDEX_BITS;
+				int first = open.peek();
+				if (count > 0 && o[count - 1] == first && e[count - 1] == lo) {
+					e[count - 1] = hi;
+				} else {
+					s[count] = lo;
+					e[count] = hi;
+					o[count] = first;
+					count++;
+				}
+			}
+			this.start = Arrays.copyOf(s, count);
+			this.end = Arrays.copyOf(e, count);
+			this.owner = Arrays.copyOf(o, count);
+		}
+		
+		/**
+		 * Returns the index of the interval containing the value, or -1.
+		 */
+		int interval(long value) {
+			int lo = 0, hi = start.length - 1;
+			while (lo <= hi) {
+				int mid = (lo + hi) >>> 1;
+				if (start[mid] <= value) {
+					lo = mid + 1;
+				} else {
+					hi = mid - 1;
+				}
+			}
+			return hi >= 0 && value < end[hi] ? hi : -1;
+		}
+		
+		/**
+		 * Returns the owner of the interval containing the value, or -1.
+		 */
+		int find(long value) {
+			int k = interval(value);
+			return k < 0 ? -1 : owner[k];
+		}
+	}
+}
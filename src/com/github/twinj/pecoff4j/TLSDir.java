@@ -0,0 +1,93 @@
+package com.github.twinj.pecoff4j;
+
+import java.nio.ByteBuffer;
+
+import com.github.twinj.headers.DWord;
+import com.github.twinj.headers.HeaderView;
+import com.github.twinj.headers.ULongLong;
+import com.github.twinj.pecoff4j.io.ImageView;
+
+/**
+ * The TLS directory, IMAGE_TLS_DIRECTORY32 or IMAGE_TLS_DIRECTORY64. Its
+ * addresses are virtual addresses, not RVAs; subtract the image base of the
+ * optional header to get RVAs.
+ * 
+ * The directory is a {@link HeaderView} over the data of the directory entry,
+ * so its fields are not copied.
+ */
+public abstract class TLSDir<P extends Enum<P> & PropertyInterface> {
+	
+	// Field types of the layouts, as declared by Header
+	static final DWord DWORD = new DWord();
+	static final ULongLong ULONGLONG = new ULongLong();
+	
+	private static final long[] NO_CALLBACKS = new long[0];
+	
+	private final HeaderView<P> header;
+	
+	private long[] callbacks = NO_CALLBACKS;
+	
+	/**
+	 * @param offset
+	 *          absolute offset of the directory within the buffer
+	 */
+	public TLSDir(Class<P> clazz, ByteBuffer buffer, int offset) {
+		this.header = new HeaderView<P>(clazz, buffer, offset);
+	}
+	
+	public HeaderView<P> getHeader() {
+		return header;
+	}
+	
+	public long getU32(P p) {
+		return header.getU32(p);
+	}
+	
+	public long getU64(P p) {
+		return header.getU64(p);
+	}
+	
+	public abstract long getStartAddressOfRawData();
+	
+	public abstract long getEndAddressOfRawData();
+	
+	public abstract long getAddressOfIndex();
+	
+	/**
+	 * Virtual address of the zero terminated array of callback addresses.
+	 */
+	public abstract long getAddressOfCallBacks();
+	
+	public abstract long getSizeOfZeroFill();
+	
+	public abstract long getCharacteristics();
+	
+	/**
+	 * Reads the callback array through the view.
+	 * 
+	 * @param imageBase
+	 *          the image base of the optional header, which the callback array
+	 *          address is relative to
+	 */
+	public void resolve(ImageView view, long imageBase) {
+		long va = getAddressOfCallBacks();
+		long rva = va - imageBase;
+		callbacks = NO_CALLBACKS;
+		if (va == 0 || rva < 0 || rva > 0xFFFFFFFFL) return;
+		long[] c = read(view, (int) rva);
+		if (c != null) callbacks = c;
+	}
+	
+	/**
+	 * Reads the zero terminated array of addresses at the RVA, or returns null.
+	 */
+	protected abstract long[] read(ImageView view, int rva);
+	
+	/**
+	 * Returns the virtual addresses of the TLS callbacks, which run before the
+	 * entry point. Empty if there are none or the array is not in the file.
+	 */
+	public long[] getCallbacks() {
+		return callbacks;
+	}
+}
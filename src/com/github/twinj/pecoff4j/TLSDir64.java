@@ -0,0 +1,136 @@
+package com.github.twinj.pecoff4j;
+
+import java.nio.ByteBuffer;
+
+import com.github.twinj.headers.DatumAbstract;
+import com.github.twinj.pecoff4j.io.ImageView;
+
+/**
+ * IMAGE_TLS_DIRECTORY64, the TLS directory of PE32+ images.
+ */
+public class TLSDir64 extends TLSDir<TLSDir64.Property> {
+	
+	public static enum Property implements PropertyInterface {
+		
+		/**
+		 * The starting address of the TLS template, which is copied to each new
+		 * thread's TLS data.
+		 */
+		START_ADDRESS_OF_RAW_DATA(ULONGLONG, "StartAddressOfRawData"),
+		
+		/**
+		 * The address of the last byte of the TLS template, except for the zero
+		 * fill.
+		 */
+		END_ADDRESS_OF_RAW_DATA(ULONGLONG, "EndAddressOfRawData"),
+		
+		/**
+		 * The location that receives the TLS index assigned by the loader.
+		 */
+		ADDRESS_OF_INDEX(ULONGLONG, "AddressOfIndex"),
+		
+		/**
+		 * The address of the zero terminated array of TLS callbacks.
+		 */
+		ADDRESS_OF_CALL_BACKS(ULONGLONG, "AddressOfCallBacks"),
+		
+		/**
+		 * The size in bytes of the zero fill following the template.
+		 */
+		SIZE_OF_ZERO_FILL(DWORD, "SizeOfZeroFill"),
+		
+		/**
+		 * Alignment of the TLS data, in bits 20-23.
+		 */
+		CHARACTERISTICS(DWORD, "Characteristics");
+		
+		int sizeOf;
+		String winName;
+		Class<? extends DatumAbstract<?>> clazz;
+		DatumAbstract<?> datum;
+		
+		@SuppressWarnings("unchecked")
+		Property(DatumAbstract<?> size, int arraySize, String winName) {
+			this.sizeOf = size.sizeOf * arraySize;
+			this.winName = winName;
+			this.clazz = (Class<? extends DatumAbstract<?>>) size.getClass();
+			this.datum = size;
+			offset = offset();
+			inc(sizeOf);
+		}
+		
+		Property(DatumAbstract<?> size, String winName) {
+			this(size, 1, winName);
+		}
+		
+		public int offset;
+		static int SIZE_OF = 0;
+		
+		static int offset() {
+			return SIZE_OF;
+		}
+		static void inc(int sizeOf) {
+			SIZE_OF += sizeOf;
+		}
+		
+		public Class<? extends DatumAbstract<?>> getDatumClass() {
+			return clazz;
+		}
+		
+		public int sizeOf() {
+			return sizeOf;
+		}
+		
+		public int getOffset() {
+			return offset;
+		}
+	}
+	
+	public static final int SIZE_OF = 40;
+	
+	/**
+	 * Views the directory at the position of the buffer.
+	 */
+	public TLSDir64(ByteBuffer buffer) {
+		this(buffer, buffer.position());
+	}
+	
+	public TLSDir64(ByteBuffer buffer, int offset) {
+		super(Property.class, buffer, offset);
+	}
+	
+	@Override
+	public long getStartAddressOfRawData() {
+		return getU64(Property.START_ADDRESS_OF_RAW_DATA);
+	}
+	
+	@Override
+	public long getEndAddressOfRawData() {
+		return getU64(Property.END_ADDRESS_OF_RAW_DATA);
+	}
+	
+	@Override
+	public long getAddressOfIndex() {
+		return getU64(Property.ADDRESS_OF_INDEX);
+	}
+	
+	@Override
+	public long getAddressOfCallBacks() {
+		return getU64(Property.ADDRESS_OF_CALL_BACKS);
+	}
+	
+	@Override
+	public long getSizeOfZeroFill() {
+		return getU32(Property.SIZE_OF_ZERO_FILL);
+	}
+	
+	@Override
+	public long getCharacteristics() {
+		return getU32(Property.CHARACTERISTICS);
+	}
+	
+	@Override
+	protected long[] read(ImageView view, int rva) {
+		return view.getU64Table(rva);
+	}
+}
@@ -0,0 +1,270 @@
+package com.github.twinj.pecoff4j;
+
+import com.github.twinj.pecoff4j.io.ImageView;
+
+/**
+ * Decoded x64 UNWIND_INFO of a function. The unwind codes are kept as one long
+ * per operation rather than as objects, with the operand already scaled, so a
+ * decoded function costs two small arrays and can be cached for the life of
+ * the image.
+ *
+ * <pre>
+ * bits  0-7   offset in the prolog of the end of the instruction
+ * bits  8-11  operation, one of the UWOP constants
+ * bits 12-15  operation info, usually a register number
+ * bits 32-63  operand: allocation size, or offset of a saved register
+ * </pre>
+ *
+ * Operations are in the order of the image, which is the order they are
+ * undone when unwinding: last prolog instruction first.
+ *
+ * Instances are immutable.
+ */
+public final class UnwindInfo {
+
+	public static final int UWOP_PUSH_NONVOL = 0;
+	public static final int UWOP_ALLOC_LARGE = 1;
+	public static final int UWOP_ALLOC_SMALL = 2;
+	public static final int UWOP_SET_FPREG = 3;
+	public static final int UWOP_SAVE_NONVOL = 4;
+	public static final int UWOP_SAVE_NONVOL_FAR = 5;
+	public static final int UWOP_EPILOG = 6;
+	public static final int UWOP_SPARE_CODE = 7;
+	public static final int UWOP_SAVE_XMM128 = 8;
+	public static final int UWOP_SAVE_XMM128_FAR = 9;
+	public static final int UWOP_PUSH_MACHFRAME = 10;
+
+	public static final int UNW_FLAG_EHANDLER = 1;
+	public static final int UNW_FLAG_UHANDLER = 2;
+	public static final int UNW_FLAG_CHAININFO = 4;
+
+	/**
+	 * Longest chain of unwind info followed, which stops cycles in corrupt
+	 * images.
+	 */
+	public static final int MAX_CHAIN = 32;
+
+	private static final int SIZE_OF_HEADER = 4;
+
+	private final int header;
+	private final long[] codes;
+	private final int stackSize;
+	private final int handler;
+	private final int chainedBegin;
+	private final int chainedEnd;
+	private final UnwindInfo chained;
+
+	private UnwindInfo(int header, long[] codes, int stackSize, int handler,
+				int chainedBegin, int chainedEnd, UnwindInfo chained) {
+		this.header = header;
+		this.codes = codes;
+		this.stackSize = stackSize;
+		this.handler = handler;
+		this.chainedBegin = chainedBegin;
+		this.chainedEnd = chainedEnd;
+		this.chained = chained;
+	}
+
+	/**
+	 * Decodes the unwind info at the RVA and the chain behind it.
+	 *
+	 * @return null if the unwind info is not in the file, has an unknown
+	 *         version, or its chain is longer than {@link #MAX_CHAIN}
+	 */
+	public static UnwindInfo read(ImageView view, int rva) {
+		return read(view, rva, 0);
+	}
+
+	private static UnwindInfo read(ImageView view, int rva, int depth) {
+		if (depth > MAX_CHAIN || !view.contains(rva, SIZE_OF_HEADER)) return null;
+		int header = view.getU32(rva);
+		int version = header & 7;
+		if (version != 1 && version != 2) return null;
+		int slots = header >>> 16 & 0xff;
+		char[] s = view.getU16Array(rva + SIZE_OF_HEADER, slots);
+		if (s == null) return null;
+
+		long[] codes = new long[slots];
+		int count = 0;
+		int stackSize = 0;
+		for (int i = 0; i < slots;) {
+			int offset = s[i] & 0xff;
+			int op = s[i] >>> 8 & 0xf;
+			int info = s[i] >>> 12;
+			int used = slotsOf(op, info);
+			if (i + used > slots) return null;
+			long operand;
+			switch (op) {
+				case UWOP_PUSH_NONVOL :
+					operand = 0;
+					stackSize += 8;
+					break;
+				case UWOP_ALLOC_LARGE :
+					operand = info == 0 ? s[i + 1] * 8L : s[i + 1] | (long) s[i + 2] << 16;
+					stackSize += (int) operand;
+					break;
+				case UWOP_ALLOC_SMALL :
+					operand = info * 8 + 8;
+					stackSize += (int) operand;
+					break;
+				case UWOP_SAVE_NONVOL :
+					operand = s[i + 1] * 8L;
+					break;
+				case UWOP_SAVE_XMM128 :
+					operand = s[i + 1] * 16L;
+					break;
+				case UWOP_SAVE_NONVOL_FAR :
+				case UWOP_SAVE_XMM128_FAR :
+					operand = s[i + 1] | (long) s[i + 2] << 16;
+					break;
+				case UWOP_PUSH_MACHFRAME :
+					// Five or six quad words, with the error code
+					operand = info == 0 ? 40 : 48;
+					stackSize += (int) operand;
+					break;
+				default :
+					operand = used > 1 ? s[i + 1] : 0;
+					break;
+			}
+			codes[count++] = operand << 32 | (long) info << 12 | op << 8 | offset;
+			i += used;
+		}
+		if (count < slots) {
+			long[] c = new long[count];
+			System.arraycopy(codes, 0, c, 0, count);
+			codes = c;
+		}
+
+		// The array of codes is padded to a double word
+		int tail = rva + SIZE_OF_HEADER + (slots + 1 & ~1) * 2;
+		int flags = header >>> 3 & 0x1f;
+		int handler = 0;
+		int chainedBegin = 0;
+		int chainedEnd = 0;
+		UnwindInfo chained = null;
+		if ((flags & UNW_FLAG_CHAININFO) != 0) {
+			if (!view.contains(tail, 12)) return null;
+			chainedBegin = view.getU32(tail);
+			chainedEnd = view.getU32(tail + 4);
+			chained = read(view, view.getU32(tail + 8), depth + 1);
+			if (chained == null) return null;
+		} else if ((flags & (UNW_FLAG_EHANDLER | UNW_FLAG_UHANDLER)) != 0) {
+			handler = view.getU32(tail);
+		}
+		return new UnwindInfo(header, codes, stackSize, handler, chainedBegin, chainedEnd,
+					chained);
+	}
+
+	/**
+	 * Number of slots taken by an operation, as laid out by the linker.
+	 */
+	private static int slotsOf(int op, int info) {
+		switch (op) {
+			case UWOP_ALLOC_LARGE :
+				return info == 0 ? 2 : 3;
+			case UWOP_SAVE_NONVOL :
+			case UWOP_SAVE_XMM128 :
+			case UWOP_EPILOG :
+				return 2;
+			case UWOP_SAVE_NONVOL_FAR :
+			case UWOP_SAVE_XMM128_FAR :
+			case UWOP_SPARE_CODE :
+				return 3;
+			default :
+				return 1;
+		}
+	}
+
+	public int getVersion() {
+		return header & 7;
+	}
+
+	/**
+	 * UNW_FLAG bits of the unwind info.
+	 */
+	public int getFlags() {
+		return header >>> 3 & 0x1f;
+	}
+
+	public int getSizeOfProlog() {
+		return header >>> 8 & 0xff;
+	}
+
+	/**
+	 * Number of the frame pointer register, or 0 if the function has none.
+	 */
+	public int getFrameRegister() {
+		return header >>> 24 & 0xf;
+	}
+
+	/**
+	 * Offset from RSP of the frame pointer when it is set, in bytes.
+	 */
+	public int getFrameOffset() {
+		return (header >>> 28) * 16;
+	}
+
+	/**
+	 * Number of decoded operations, not slots.
+	 */
+	public int getCodeCount() {
+		return codes.length;
+	}
+
+	/**
+	 * Returns the encoded operation, see the class comment.
+	 */
+	public long getCode(int k) {
+		return codes[k];
+	}
+
+	public int getCodeOffset(int k) {
+		return (int) codes[k] & 0xff;
+	}
+
+	public int getOp(int k) {
+		return (int) codes[k] >>> 8 & 0xf;
+	}
+
+	public int getOpInfo(int k) {
+		return (int) codes[k] >>> 12 & 0xf;
+	}
+
+	public int getOperand(int k) {
+		return (int) (codes[k] >>> 32);
+	}
+
+	/**
+	 * Bytes pushed and allocated by the whole prolog of this unwind info, not
+	 * counting the chain. Adding the stack sizes along the chain gives the
+	 * distance from RSP to the return address once the prolog has run.
+	 */
+	public int getStackSize() {
+		return stackSize;
+	}
+
+	/**
+	 * RVA of the exception or termination handler, or 0.
+	 */
+	public int getHandler() {
+		return handler;
+	}
+
+	/**
+	 * Begin of the function whose unwind info is chained, or 0.
+	 */
+	public int getChainedBegin() {
+		return chainedBegin;
+	}
+
+	public int getChainedEnd() {
+		return chainedEnd;
+	}
+
+	/**
+	 * Returns the chained unwind info, or null.
+	 */
+	public UnwindInfo getChained() {
+		return chained;
+	}
+}
@@ -0,0 +1,63 @@
+package com.github.twinj.pecoff4j;
+
+import java.nio.ByteBuffer;
+
+/**
+ * VC_FEATURE debug record: the number of object files built with each group
+ * of compiler features. Counts missing from a short record are 0.
+ */
+public final class VcFeatureInfo {
+	
+	private final int[] counts = new int[5];
+	
+	private VcFeatureInfo() {
+	}
+	
+	/**
+	 * Decodes the record between the position and the limit of the little
+	 * endian buffer.
+	 */
+	public static VcFeatureInfo read(ByteBuffer b) {
+		VcFeatureInfo info = new VcFeatureInfo();
+		int p = b.position();
+		for (int i = 0; i < info.counts.length && p + i * 4 + 4 <= b.limit(); i++) {
+			info.counts[i] = b.getInt(p + i * 4);
+		}
+		return info;
+	}
+	
+	/**
+	 * Objects built by compilers older than Visual C++ 11.
+	 */
+	public int getPreVc11() {
+		return counts[0];
+	}
+	
+	/**
+	 * Objects built by the C/C++ compiler.
+	 */
+	public int getCCpp() {
+		return counts[1];
+	}
+	
+	/**
+	 * Objects built with /GS.
+	 */
+	public int getGs() {
+		return counts[2];
+	}
+	
+	/**
+	 * Objects built with /sdl.
+	 */
+	public int getSdl() {
+		return counts[3];
+	}
+	
+	/**
+	 * Objects built with /guardN.
+	 */
+	public int getGuardN() {
+		return counts[4];
+	}
+}
@@ -0,0 +1,49 @@
+package com.github.twinj.pecoff4j.constant;
+
+/**
+ * The types of base relocation entries. ARM64 images have no types of their
+ * own and use {@link #IMAGE_REL_BASED_DIR64}.
+ */
+public final class BaseRelocationType {
+	
+	/**
+	 * Skipped; used to pad a block to a 32 bit boundary.
+	 */
+	public static final int IMAGE_REL_BASED_ABSOLUTE = 0;
+	
+	/**
+	 * High 16 bits of the difference added to the 16 bit field.
+	 */
+	public static final int IMAGE_REL_BASED_HIGH = 1;
+	
+	/**
+	 * Low 16 bits of the difference added to the 16 bit field.
+	 */
+	public static final int IMAGE_REL_BASED_LOW = 2;
+	
+	/**
+	 * The difference added to the 32 bit field.
+	 */
+	public static final int IMAGE_REL_BASED_HIGHLOW = 3;
+	
+	/**
+	 * High 16 bits of the difference added to the 16 bit field, adjusted by
+	 * the low 16 bits held in the next entry.
+	 */
+	public static final int IMAGE_REL_BASED_HIGHADJ = 4;
+	
+	/**
+	 * MOVW/MOVT pair of ARM instructions loading a 32 bit address.
+	 */
+	public static final int IMAGE_REL_BASED_ARM_MOV32 = 5;
+	
+	/**
+	 * MOVW/MOVT pair of Thumb-2 instructions loading a 32 bit address.
+	 */
+	public static final int IMAGE_REL_BASED_THUMB_MOV32 = 7;
+	
+	/**
+	 * The difference added to the 64 bit field.
+	 */
+	public static final int IMAGE_REL_BASED_DIR64 = 10;
+}
@@ -26,4 +26,13 @@ public interface DebugType
     public static final int IMAGE_DEBUG_TYPE_BORLAND = 9;
     public static final int IMAGE_DEBUG_TYPE_RESERVED10 = 10;
     public static final int IMAGE_DEBUG_TYPE_CLSID = 11;
+    public static final int IMAGE_DEBUG_TYPE_VC_FEATURE = 12;
+    public static final int IMAGE_DEBUG_TYPE_POGO = 13;
+    public static final int IMAGE_DEBUG_TYPE_ILTCG = 14;
+    public static final int IMAGE_DEBUG_TYPE_MPX = 15;
+    public static final int IMAGE_DEBUG_TYPE_REPRO = 16;
+    public static final int IMAGE_DEBUG_TYPE_EMBEDDED_PORTABLE_PDB = 17;
+    public static final int IMAGE_DEBUG_TYPE_SPGO = 18;
+    public static final int IMAGE_DEBUG_TYPE_PDBCHECKSUM = 19;
+    public static final int IMAGE_DEBUG_TYPE_EX_DLLCHARACTERISTICS = 20;
 }
@@ -22,6 +22,15 @@ public final class Machine {
 	
 	public static final int IMAGE_FILE_MACHINE_ARM = 0x1c0;
 	
+	/**
+	 * ARM64 little endian
+	 */
+	public static final int IMAGE_FILE_MACHINE_ARM64 = 0xaa64;
+	
+	/**
+	 * ARM Thumb-2 little endian
+	 */
+	public static final int IMAGE_FILE_MACHINE_ARMNT = 0x1c4;
 	
 	public static final int IMAGE_FILE_MACHINE_EBC = 0xebc;
 	
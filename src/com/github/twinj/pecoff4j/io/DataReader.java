@@ -65,8 +65,15 @@ public class DataReader implements IDataReader {
 	
 	public void skipBytes(int numBytes) throws IOException {
 		position += numBytes;
-		for (int i = 0; i < numBytes; i++) {
-			dis.read();
+		long remaining = numBytes;
+		while (remaining > 0) {
+			long skipped = dis.skip(remaining);
+			if (skipped <= 0) {
+				// skip may give up early, fall back to a read to detect the end
+				if (dis.read() == -1) break;
+				skipped = 1;
+			}
+			remaining -= skipped;
 		}
 	}
 	
@@ -55,9 +55,6 @@ public class DataWriter implements IDataWriter
     }
 
     public void writeWord(int w) throws IOException {
-    	System.err.print(w + ":");
-    	System.err.print((w & 0xff) + ":");
-    	System.err.print((w >> 8 & 0xff) + "\n");
         out.write(w & 0xff);
         out.write(w >> 8 & 0xff);
         position += 2;
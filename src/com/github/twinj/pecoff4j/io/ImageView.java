@@ -0,0 +1,237 @@
+package com.github.twinj.pecoff4j.io;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.github.twinj.pecoff4j.SH;
+import com.github.twinj.pecoff4j.STable;
+import com.github.twinj.pecoff4j.SectionIndex;
+import com.github.twinj.pecoff4j.util.NameTable;
+
+/**
+ * RVA addressed reads over the section data of a parsed image. Reads are
+ * absolute reads of the section buffers, nothing is copied except the arrays
+ * that are returned. The last section used is remembered, so runs of reads in
+ * one section, the usual case for import and export tables, skip the search.
+ *
+ * Only the raw data of the sections is visible; RVAs in the headers or in the
+ * zero filled tail of a section read as missing.
+ *
+ * Not thread safe; a view is cheap to create, use one per thread.
+ */
+public final class ImageView {
+
+	private final STable table;
+	private final SectionIndex index;
+	private final ByteBuffer[] buffers;
+	private final NameTable names;
+
+	// Section found by the last seek
+	private int section;
+	private ByteBuffer current;
+	private long start;
+	private long end;
+	private int position;
+
+	public ImageView(PE pe) {
+		this(pe, new NameTable());
+	}
+
+	/**
+	 * @param names
+	 *          table interning the names read through the view
+	 */
+	public ImageView(PE pe, NameTable names) {
+		this.table = pe.getSectionTable();
+		this.index = table == null ? null : table.getIndex();
+		this.buffers = new ByteBuffer[index == null ? 0 : index.size()];
+		this.names = names;
+	}
+
+	public NameTable getNames() {
+		return names;
+	}
+
+	/**
+	 * True if size bytes at the RVA are in the raw data of one section.
+	 */
+	public boolean contains(int rva, int size) {
+		return seek(rva, size);
+	}
+
+	/**
+	 * Returns the unsigned word at the RVA, or -1 if it is not in the file.
+	 */
+	public int getU16(int rva) {
+		if (!seek(rva, 2)) return -1;
+		return current.getShort(position) & 0xffff;
+	}
+
+	/**
+	 * Returns the double word at the RVA. Check {@link #contains(int, int)}
+	 * first, as 0 is returned for RVAs that are not in the file.
+	 */
+	public int getU32(int rva) {
+		if (!seek(rva, 4)) return 0;
+		return current.getInt(position);
+	}
+
+	public long getU64(int rva) {
+		if (!seek(rva, 8)) return 0;
+		return current.getLong(position);
+	}
+
+	/**
+	 * Returns the interned zero terminated ASCII string at the RVA, or null if
+	 * it is not in the file.
+	 */
+	public String getName(int rva) {
+		if (!seek(rva, 1)) return null;
+		return names.get(current, position);
+	}
+
+	/**
+	 * Returns the length of the zero terminated string at the RVA, which ends
+	 * at the end of the section's data or after {@link NameTable#MAX_LENGTH}
+	 * bytes at the latest, or -1 if it is not in the file.
+	 */
+	public int getNameLength(int rva) {
+		if (!seek(rva, 1)) return -1;
+		int end = position + Math.min(current.limit() - position, NameTable.MAX_LENGTH);
+		int i = position;
+		while (i < end && current.get(i) != 0) {
+			i++;
+		}
+		return i - position;
+	}
+
+	/**
+	 * Returns the position in the section table of the section whose raw data
+	 * holds the RVA, or -1 if it is not in the file.
+	 */
+	public int sectionOf(int rva) {
+		return seek(rva, 1) ? section : -1;
+	}
+
+	/**
+	 * Returns the raw data of the section holding the RVA, or null if it is not
+	 * in the file. The buffer is shared, use absolute reads only; the position
+	 * of the RVA within it is given by {@link #offsetOf(int)}.
+	 */
+	public ByteBuffer getSectionData(int rva) {
+		return seek(rva, 1) ? current : null;
+	}
+
+	/**
+	 * Returns the offset of the RVA within the raw data of its section, or -1
+	 * if it is not in the file.
+	 */
+	public int offsetOf(int rva) {
+		return seek(rva, 1) ? position : -1;
+	}
+
+	/**
+	 * Copies length bytes at the RVA into the array. Returns false, copying
+	 * nothing, if they are not all in the file.
+	 */
+	public boolean getBytes(int rva, byte[] dst, int offset, int length) {
+		if (length < 0 || !seek(rva, length)) return false;
+		for (int i = 0; i < length; i++) {
+			dst[offset + i] = current.get(position + i);
+		}
+		return true;
+	}
+
+	/**
+	 * Reads count double words at the RVA in bulk, or returns null if they are
+	 * not all in the file.
+	 */
+	public int[] getU32Array(int rva, int count) {
+		if (count < 0 || !seek(rva, count * 4L)) return null;
+		int[] values = new int[count];
+		at(position).asIntBuffer().get(values);
+		return values;
+	}
+
+	/**
+	 * Reads count unsigned words at the RVA in bulk, or returns null if they
+	 * are not all in the file.
+	 */
+	public char[] getU16Array(int rva, int count) {
+		if (count < 0 || !seek(rva, count * 2L)) return null;
+		char[] values = new char[count];
+		at(position).asCharBuffer().get(values);
+		return values;
+	}
+
+	/**
+	 * Reads the zero terminated array of double words at the RVA, such as a
+	 * PE32 thunk table. The array ends at the zero or at the end of the
+	 * section's data. Returns null if the RVA is not in the file.
+	 */
+	public int[] getU32Table(int rva) {
+		if (!seek(rva, 0)) return null;
+		int n = 0;
+		int max = (current.limit() - position) / 4;
+		while (n < max && current.getInt(position + n * 4) != 0) {
+			n++;
+		}
+		int[] values = new int[n];
+		at(position).asIntBuffer().get(values);
+		return values;
+	}
+
+	/**
+	 * Reads the zero terminated array of quad words at the RVA, such as a PE32+
+	 * thunk table.
+	 *
+	 * @see #getU32Table(int)
+	 */
+	public long[] getU64Table(int rva) {
+		if (!seek(rva, 0)) return null;
+		int n = 0;
+		int max = (current.limit() - position) / 8;
+		while (n < max && current.getLong(position + n * 8) != 0) {
+			n++;
+		}
+		long[] values = new long[n];
+		at(position).asLongBuffer().get(values);
+		return values;
+	}
+
+	/**
+	 * Little endian duplicate of the current section positioned at the offset.
+	 */
+	private ByteBuffer at(int offset) {
+		ByteBuffer b = current.duplicate();
+		b.order(ByteOrder.LITTLE_ENDIAN);
+		b.position(offset);
+		return b;
+	}
+
+	/**
+	 * Makes the section holding size bytes at the RVA current and sets position
+	 * to the offset of the RVA within its buffer.
+	 */
+	private boolean seek(int rva, long size) {
+		long r = rva & 0xFFFFFFFFL;
+		if (current == null || r < start || r + size > end) {
+			int s = index == null ? -1 : index.sectionOf(rva);
+			if (s < 0) return false;
+			ByteBuffer b = buffers[s];
+			if (b == null) {
+				SH sh = table.getHeader(s);
+				b = sh.sd == null ? null : sh.sd.getBuffer();
+				if (b == null) return false;
+				buffers[s] = b;
+			}
+			section = s;
+			current = b;
+			start = table.getHeader(s).getU32(SH.Property.VIRTUAL_ADDRESS);
+			end = start + b.limit();
+			if (r < start || r + size > end) return false;
+		}
+		position = (int) (r - start);
+		return true;
+	}
+}
@@ -0,0 +1,167 @@
+package com.github.twinj.pecoff4j.io;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Random access reader over a read only memory mapped file. Unlike
+ * {@link DataReader} it can jump backwards, reads are bulk copies out of the
+ * mapping and skips only move the position.
+ *
+ * The channel is closed once the file is mapped; the mapping stays valid until
+ * the reader is garbage collected.
+ */
+public class MappedDataReader implements IDataReader {
+
+	private final ByteBuffer buffer;
+
+	public MappedDataReader(File file) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+					FileChannel ch = raf.getChannel()) {
+			this.buffer = map(ch);
+		}
+	}
+
+	public MappedDataReader(FileChannel ch) throws IOException {
+		this.buffer = map(ch);
+	}
+
+	public MappedDataReader(ByteBuffer buffer) {
+		this.buffer = buffer.duplicate();
+		this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private static ByteBuffer map(FileChannel ch) throws IOException {
+		long size = ch.size();
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("File is too large to be mapped (" + size + ")");
+		}
+		ByteBuffer mapped = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		mapped.order(ByteOrder.LITTLE_ENDIAN);
+		return mapped;
+	}
+
+	/**
+	 * Number of bytes between the current position and the end of the file.
+	 */
+	public int remaining() {
+		return buffer.remaining();
+	}
+
+	/**
+	 * Total size of the mapped file.
+	 */
+	public int size() {
+		return buffer.limit();
+	}
+
+	/**
+	 * Returns a read only little endian view of part of the file without
+	 * copying it. The position of this reader is not changed.
+	 */
+	public ByteBuffer slice(int offset, int length) throws IOException {
+		if (offset < 0 || length < 0 || offset > buffer.limit() - length) {
+			throw new EOFException("Slice is outside of the file (" + offset + ", " + length
+						+ ")");
+		}
+		ByteBuffer view = buffer.duplicate();
+		view.limit(offset + length);
+		view.position(offset);
+		ByteBuffer slice = view.slice().asReadOnlyBuffer();
+		slice.order(ByteOrder.LITTLE_ENDIAN);
+		return slice;
+	}
+	
+	public int readByte() throws IOException {
+		if (!buffer.hasRemaining()) return -1;
+		return buffer.get() & 0xff;
+	}
+
+	public int readWord() throws IOException {
+		ensure(2);
+		return buffer.getShort() & 0xffff;
+	}
+
+	public int readDoubleWord() throws IOException {
+		ensure(4);
+		return buffer.getInt();
+	}
+
+	public long readLong() throws IOException {
+		ensure(8);
+		return buffer.getLong();
+	}
+
+	public int getPosition() {
+		return buffer.position();
+	}
+
+	public void jumpTo(int location) throws IOException {
+		if (location < 0 || location > buffer.limit()) {
+			throw new EOFException("Location is outside of the file (" + location + ")");
+		}
+		buffer.position(location);
+	}
+
+	public void skipBytes(int numBytes) throws IOException {
+		jumpTo(buffer.position() + numBytes);
+	}
+
+	public void close() throws IOException {}
+
+	public void read(byte[] b) throws IOException {
+		ensure(b.length);
+		buffer.get(b);
+	}
+
+	public String readUtf(int size) throws IOException {
+		byte[] b = new byte[size];
+		read(b);
+		int i = 0;
+		for (; i < b.length; i++) {
+			if (b[i] == 0) break;
+		}
+		return new String(b, 0, i);
+	}
+
+	public String readUtf() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		int c = 0;
+		while ((c = readByte()) != 0) {
+			if (c == -1) throw new EOFException("Unexpected end of file");
+			sb.append((char) c);
+		}
+		return sb.toString();
+	}
+
+	public String readUnicode() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		char c = 0;
+		while ((c = (char) readWord()) != 0) {
+			sb.append(c);
+		}
+		if (sb.length() == 0) {
+			return null;
+		}
+		return sb.toString();
+	}
+
+	public String readUnicode(int size) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < size; i++) {
+			sb.append((char) readWord());
+		}
+		return sb.toString();
+	}
+
+	private void ensure(int size) throws EOFException {
+		if (buffer.remaining() < size) {
+			throw new EOFException("Unexpected end of file at " + buffer.position());
+		}
+	}
+}
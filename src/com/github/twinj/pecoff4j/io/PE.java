@@ -9,14 +9,28 @@
  *******************************************************************************/
 package com.github.twinj.pecoff4j.io;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 import com.github.twinj.pecoff4j.COFFH;
 import com.github.twinj.pecoff4j.DOSStub;
 import com.github.twinj.pecoff4j.DOSH;
 import com.github.twinj.pecoff4j.ImageData;
 import com.github.twinj.pecoff4j.OH;
 import com.github.twinj.pecoff4j.PESig;
+import com.github.twinj.pecoff4j.SH;
 import com.github.twinj.pecoff4j.STable;
 
+/**
+ * Model of a parsed image, built by {@link PEParser}.
+ * 
+ * A PE is not thread safe. Once the parse has returned it is never modified
+ * by the library, so it may be read by several threads if it is safely
+ * published to them (e.g. through a concurrent collection or a final field)
+ * and none of them call its setters or mutate the headers. In zero copy mode
+ * the section buffers are read only views of the mapped file, and
+ * {@link SectData#getBuffer()} returns an independent duplicate each call.
+ */
 public class PE {
 
 	DOSH dosHeader;
@@ -27,6 +41,7 @@ public class PE {
 	STable sectionTable;
 
 	ImageData imageData;
+	RegionSchedule schedule;
 	
 	long lfanew;
 	int sizeOfSignature;
@@ -57,7 +72,7 @@ public class PE {
 	
 	public void setDosHeader(DOSH dosHeader) {
 		this.dosHeader = dosHeader;
-		this.lfanew = dosHeader.valueOf(DOSH.Property.PE_HEADER_OFFSET_BD).longValue();
+		this.lfanew = (int) dosHeader.getU32(DOSH.Property.PE_HEADER_OFFSET_BD);
 	}
 	
 	public void setStub(DOSStub stub) {
@@ -84,6 +99,18 @@ public class PE {
 		this.imageData = imageData;
 	}
 
+	/**
+	 * Returns the regions read by the parser in file order, or null if the PE
+	 * was not parsed.
+	 */
+	public RegionSchedule getSchedule() {
+		return schedule;
+	}
+	
+	public void setSchedule(RegionSchedule schedule) {
+		this.schedule = schedule;
+	}
+
 	public OH getOptionalHeader() {
 		return optionalHeader;
 	}
@@ -92,8 +119,59 @@ public class PE {
 		this.optionalHeader = optionalHeader;
 	}
 	
+	/**
+	 * Returns a read only little endian view of size bytes of the image at the
+	 * RVA, taken from the raw data of the section containing it. Nothing is
+	 * copied; in zero copy mode the view is a slice of the mapped file.
+	 * 
+	 * @return the view, or null if the range is not entirely backed by the raw
+	 *         data of one section
+	 */
+	public ByteBuffer sliceRva(int rva, int size) {
+		if (sectionTable == null || sectionTable.getIndex() == null || size < 0) {
+			return null;
+		}
+		int s = sectionTable.getIndex().sectionOf(rva);
+		if (s < 0) return null;
+		SH sh = sectionTable.getHeader(s);
+		ByteBuffer data = sh.sd == null ? null : sh.sd.getBuffer();
+		if (data == null) return null;
+		
+		long start = (rva - (int) sh.getU32(SH.Property.VIRTUAL_ADDRESS)) & 0xFFFFFFFFL;
+		if (start + size > data.limit()) return null;
+		data.limit((int) start + size);
+		data.position((int) start);
+		ByteBuffer slice = data.slice();
+		slice.order(ByteOrder.LITTLE_ENDIAN);
+		return slice;
+	}
+	
 	public class SectData {
 		public byte[] data;
 		public byte[] preamble;	
+		
+		/**
+		 * Read only slice of the mapped file holding the raw data. Only set when
+		 * parsed with {@link ParseOptions#setZeroCopy(boolean)}, in which case
+		 * data is null.
+		 */
+		public ByteBuffer buffer;
+		
+		/**
+		 * Returns a little endian view of the raw data whichever way the section
+		 * was read. Each call returns a new view with its own position.
+		 */
+		public ByteBuffer getBuffer() {
+			ByteBuffer view;
+			if (buffer != null) {
+				view = buffer.duplicate();
+			} else if (data != null) {
+				view = ByteBuffer.wrap(data).asReadOnlyBuffer();
+			} else {
+				return null;
+			}
+			view.order(ByteOrder.LITTLE_ENDIAN);
+			return view;
+		}
 	}
 }
@@ -14,6 +14,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import com.github.twinj.pecoff4j.BoundImportDir;
 import com.github.twinj.pecoff4j.COFFH;
@@ -21,6 +22,8 @@ import com.github.twinj.pecoff4j.DOSStub;
 import com.github.twinj.pecoff4j.DOSH;
 import com.github.twinj.pecoff4j.OHS;
 import com.github.twinj.pecoff4j.PESig;
+import com.github.twinj.pecoff4j.SH;
+import com.github.twinj.pecoff4j.io.PE.SectData;
 
 public class PEAssembler {
 	public static byte[] toBytes(PE pe) throws IOException {
@@ -51,17 +54,25 @@ public class PEAssembler {
 		//write(pe.getOptionalHeader(), dw);
 		writeSectionHeaders(pe, dw);
 		
-		// Now write out the rest
-		DataEntry entry = null;
-//		while ((entry = PEParser.findNextEntry(pe, dw.getPosition())) != null) {
-//			if (entry.isSection) {
-//				writeSection(pe, entry, dw);
-//			} else if (entry.isDebugRawData) {
-//				writeDebugRawData(pe, entry, dw);
-//			} else {
-//				writeImageData(pe, entry, dw);
-//			}
-//		}
+		// Now write out the rest in the order it was read
+		RegionSchedule schedule = pe.getSchedule();
+		if (schedule != null) {
+			for (RegionSchedule.Region r : schedule) {
+				switch (r.kind) {
+					case SECTION :
+						writeSection(pe, r.toEntry(), dw);
+						break;
+					case DEBUG_RAW_DATA :
+						writeDebugRawData(pe, r.toEntry(), dw);
+						break;
+					case DIRECTORY :
+						writeImageData(pe, r.toEntry(), dw);
+						break;
+					default :
+						break;
+				}
+			}
+		}
 		
 		// Dump out any trailing data - TODO find out what this is
 		byte[] tb = pe.getImageData().getTrailingData();
@@ -268,21 +279,25 @@ public class PEAssembler {
 	
 	private static void writeSection(PE pe, DataEntry entry, IDataWriter dw)
 				throws IOException {
-//		SectionTable st = pe.getSectionTable();
-//		SectionHeader sh = st.getHeader(entry.index);
-//		SectionData sd = st.getSection(entry.index);
-//		int prd = sh.getPointerToRawData();
-//		if (prd > dw.getPosition()) {
-//			byte[] pa = sd.getPreamble();
-//			if (pa != null) {
-//				dw.writeBytes(pa);
-//			} else {
-//				dw.writeByte(0, prd - dw.getPosition());
-//			}
-//		}
-//		
-//		byte[] b = sd.getData();
-//		dw.writeBytes(b);
+		SH sh = pe.getSectionTable().get(entry.name);
+		SectData sd = sh.sd;
+		if (entry.pointer > dw.getPosition()) {
+			byte[] pa = sd.preamble;
+			if (pa != null) {
+				dw.writeBytes(pa);
+			} else {
+				dw.writeByte(0, entry.pointer - dw.getPosition());
+			}
+		}
+		
+		if (sd.data != null) {
+			dw.writeBytes(sd.data);
+		} else {
+			ByteBuffer b = sd.getBuffer();
+			byte[] data = new byte[b.remaining()];
+			b.get(data);
+			dw.writeBytes(data);
+		}
 	}
 	
 	private static void write(PE pe, BoundImportDir bidt, IDataWriter dw)
@@ -10,6 +10,7 @@ import java.nio.file.Path;
 
 import com.github.twinj.pecoff4j.OHD;
 import com.github.twinj.pecoff4j.SH;
+import com.github.twinj.pecoff4j.SectionIndex;
 
 public class PEParse {
 	
@@ -94,6 +95,7 @@ public class PEParse {
 		
 		private static final int OPT_HDR_DIRECTORES_PE32 = 96;
 		private static final int OPT_HDR_DIRECTORES_PE32PLUS = 112;
+		private static final int SH_VSIZE_OFFSET = 8;
 		private static final int SH_VA_OFFSET = 12;
 		private static final int SH_SIZEOFRAWD_OFFSET = 16;
 		private static final int SH_RAWD_OFFSET = 20;
@@ -123,6 +125,11 @@ public class PEParse {
 		 */
 		private Integer signatureOffset = null;
 		
+		/**
+		 * Address index of the sections.
+		 */
+		private SectionIndex sectionIndex = null;
+		
 		/**
 		 * True if file is in PE format.
 		 */
@@ -314,6 +321,39 @@ public class PEParse {
 			return getSectionHeaderOffset() + (SIZEOF_SECTION_HEADER * (section - 1));
 		}
 		
+		/**
+		 * Gets the address index of the sections, built from the section headers
+		 * the first time it is needed.
+		 */
+		public SectionIndex getSectionIndex() {
+			if (sectionIndex == null) {
+				int n = getNumSections();
+				int[] va = new int[n];
+				int[] vs = new int[n];
+				int[] srd = new int[n];
+				int[] prd = new int[n];
+				for (int i = 0; i < n; i++) {
+					int psh = getSectionHeaderOffset(i + 1);
+					va[i] = readDWord(psh + SH_VA_OFFSET);
+					vs[i] = readDWord(psh + SH_VSIZE_OFFSET);
+					srd[i] = readDWord(psh + SH_SIZEOFRAWD_OFFSET);
+					prd[i] = readDWord(psh + SH_RAWD_OFFSET);
+				}
+				sectionIndex = new SectionIndex(va, vs, srd, prd);
+			}
+			return sectionIndex;
+		}
+		
+		/**
+		 * Returns the compact header summary decoded from the page already read,
+		 * without creating any header objects.
+		 */
+		public PETriage triage() throws IOException {
+			ByteBuffer head = buffer.duplicate();
+			head.clear();
+			return PETriage.decode(head, ch);
+		}
+		
 		/***********************************************************************************************
 		 * UNCACHED READERS. These methods return values are not cached but may use
 		 * cached values to derive their return values.
@@ -399,15 +439,8 @@ public class PEParse {
 		 * Gets the raw offset address of the RVA inside unknown section.
 		 */
 		public Integer convertRVAToOffset(Integer rva) {
-			for (int i = 1; i <= getNumSections(); i++) {
-				Integer psh = getSectionHeaderOffset(i);
-				Integer pshVirtualAddress = readDWord(psh + SH_VA_OFFSET);
-				
-				if (rvaIsInSection(rva, pshVirtualAddress, readDWord(psh + SH_SIZEOFRAWD_OFFSET))) {
-					return rvaToOffset(rva, pshVirtualAddress, readDWord(psh + SH_RAWD_OFFSET));
-				}
-			}
-			return null;
+			int offset = getSectionIndex().toOffset(rva);
+			return offset < 0 ? null : offset;
 		}
 		
 		/**
@@ -11,28 +11,34 @@ package com.github.twinj.pecoff4j.io;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.LinkedList;
+import java.nio.ByteOrder;
+import java.util.Map;
 
+import com.github.twinj.headers.DatumAbstract;
+import com.github.twinj.headers.DatumHeader;
 import com.github.twinj.headers.Header;
-import com.github.twinj.pecoff4j.BoundImport;
 import com.github.twinj.pecoff4j.BoundImportDir;
 import com.github.twinj.pecoff4j.COFFH;
 import com.github.twinj.pecoff4j.DOSH;
 import com.github.twinj.pecoff4j.DOSStub;
 import com.github.twinj.pecoff4j.DebugDir;
+import com.github.twinj.pecoff4j.DebugDirTable;
+import com.github.twinj.pecoff4j.DelayImportDescriptor;
+import com.github.twinj.pecoff4j.DelayImportDirTable;
+import com.github.twinj.pecoff4j.ExceptionTable;
 import com.github.twinj.pecoff4j.ExportDir;
 import com.github.twinj.pecoff4j.ImageData;
+import com.github.twinj.pecoff4j.ImportDescriptor;
 import com.github.twinj.pecoff4j.ImportDirTable;
 import com.github.twinj.pecoff4j.ImportDirectoryTable;
 import com.github.twinj.pecoff4j.ImportEntry;
+import com.github.twinj.pecoff4j.ImportThunks;
 import com.github.twinj.pecoff4j.LoadConfigDir;
 import com.github.twinj.pecoff4j.OH;
+import com.github.twinj.pecoff4j.OHA;
 import com.github.twinj.pecoff4j.OHA32;
 import com.github.twinj.pecoff4j.OHA64;
 import com.github.twinj.pecoff4j.OHD;
@@ -40,26 +46,28 @@ import com.github.twinj.pecoff4j.OHDD;
 import com.github.twinj.pecoff4j.OHS;
 import com.github.twinj.pecoff4j.PESig;
 import com.github.twinj.pecoff4j.RCDH;
-import com.github.twinj.pecoff4j.RCDirEntry;
 import com.github.twinj.pecoff4j.RCRoot;
 import com.github.twinj.pecoff4j.RCTree;
 import com.github.twinj.pecoff4j.SH;
 import com.github.twinj.pecoff4j.STable;
+import com.github.twinj.pecoff4j.SectionIndex;
+import com.github.twinj.pecoff4j.TLSDir32;
+import com.github.twinj.pecoff4j.TLSDir64;
 import com.github.twinj.pecoff4j.io.PE.SectData;
-import com.github.twinj.pecoff4j.util.IntMap;
 
 /**
  * TODO Parsing is not dynamic enough. Change.
  * 
+ * The parser is stateless: everything belonging to a parse lives in a
+ * {@link ParseContext} created by {@link #read(IDataReader, ParseOptions)},
+ * so any number of threads may parse different files at the same time. A
+ * single {@link IDataReader} must not be shared between concurrent parses.
+ * 
  * @author Daniel Kemp
  * 
  */
 public class PEParser {
 	
-	
-	
-	static PE current = null;
-	
 	public static PE parse(InputStream is) throws IOException {
 		return read(new DataReader(is));
 	}
@@ -69,14 +77,24 @@ public class PEParser {
 	}
 	
 	public static PE parse(File file) throws IOException {
-		return read(new DataReader(new FileInputStream(file)));
+		return read(new MappedDataReader(file));
+	}
+	
+	public static PE parse(File file, ParseOptions options) throws IOException {
+		return read(new MappedDataReader(file), options);
 	}
 	
 	public static PE read(IDataReader dr) throws IOException {
-		PE pe = new PE();
-		current = pe;
+		return read(dr, new ParseOptions());
+	}
 	
-		pe.setDosHeader((DOSH) Header.parse(DOSH.class, dr));
+	public static PE read(IDataReader dr, ParseOptions options) throws IOException {
+		PE pe = new PE();
+		ParseContext ctx = new ParseContext(pe, dr, options);
+		boolean views = options.isHeaderViews();
+		
+		pe.setDosHeader(Header.parse(DOSH.FACTORY, dr, views));
+		fields(ctx, pe.getDosHeader());
 		
 		// Check if we have an old file type
 		if (pe.lfanew == 0 || pe.lfanew > 8192) {
@@ -90,52 +108,121 @@ public class PEParser {
 		if (!pe.getSignature().isValid()) {
 			return pe;
 		}
-		pe.setCoffHeader((COFFH) Header.parse(COFFH.class, dr));
+		pe.setCoffHeader(Header.parse(COFFH.FACTORY, dr, views));
+		fields(ctx, pe.getCoffHeader());
 		
 		OH o = new OH();
 		
-		o.setStandard((OHS) Header.parse(OHS.class, dr));
+		o.setStandard(Header.parse(OHS.FACTORY, dr, views));
+		pe.is64 = o.getStandard().getU16(OHS.Property.MAGIC) == PETriage.MAGIC_PE32PLUS;
 		
 		if (pe.is64) {
-			o.setAdditional((OHA64) Header.parse(OHA64.class, dr));
+			o.setAdditional(Header.parse(OHA64.FACTORY, dr, views));
 		} else {
-			o.setAdditional((OHA32) Header.parse(OHA32.class, dr));
+			o.setAdditional(Header.parse(OHA32.FACTORY, dr, views));
 		}
-		o.setDirectories((OHD) Header.parse(OHD.class, dr));
+		o.setDirectories(Header.parse(OHD.FACTORY, dr, views));
+		
+		fields(ctx, o.getStandard());
+		fields(ctx, o.getAdditional());
+		fields(ctx, o.getDirectories());
 		
 		pe.setOptionalHeader(o);
-		pe.setSectionTable(readSectionHeaders(pe.getCoffHeader(), dr));
+		pe.setSectionTable(readSectionHeaders(pe.getCoffHeader(), dr, views));
+		fields(ctx, pe.getSectionTable().values());
 		
 		// Now read the rest of the file
-		DataEntry entry = null;
-		while ((entry = findNextEntry(pe, dr.getPosition())) != null) {
-			if (entry.isSection) {
-				readSection(pe, entry, dr);
-			} else if (entry.isDebugRawData) {
-				readDebugRawData(pe, entry, dr);
-			} else {
-				readImageData(pe, entry, dr);
+		RegionSchedule read = new RegionSchedule();
+		read.add(new RegionSchedule.Region(RegionSchedule.Kind.HEADERS, 0, dr.getPosition(), -1,
+					null));
+		readRegions(ctx, RegionSchedule.plan(pe), read);
+		resolveImports(ctx);
+		resolveDelayImports(ctx);
+		resolveExports(ctx);
+		resolveExceptions(ctx);
+		resolveTls(ctx);
+		
+		// Read any trailing data
+		int pos = dr.getPosition();
+		byte[] tb = readTrailingData(dr);
+		resolveDebug(ctx, pos, tb);
+		if (tb.length > 0) {
+			pe.getImageData().setTrailingData(tb);
+			read.add(new RegionSchedule.Region(RegionSchedule.Kind.OVERLAY, pos, tb.length, -1,
+						null));
+			if (ctx.listener != null) {
+				ctx.listener.regionRead("trailing data", pos, tb.length);
 			}
 		}
+		pe.setSchedule(read);
 		
-		// Read any trailing data
+		return pe;
+	}
+	
+	/**
+	 * Reads the planned regions in file order. Regions starting before the
+	 * current position, such as directories inside a section that has already
+	 * been read, are skipped. The debug raw data region becomes known once the
+	 * debug directory is decoded and is read when the cursor reaches it.
+	 */
+	private static void readRegions(ParseContext ctx, RegionSchedule plan, RegionSchedule read)
+				throws IOException {
+		IDataReader dr = ctx.dr;
+		RegionSchedule.Region debug = null;
+		boolean debugPending = true;
+		int next = 0;
+		
+		while (true) {
+			int pos = dr.getPosition();
+			while (next < plan.size() && plan.get(next).pointer < pos) {
+				next++;
+			}
+			RegionSchedule.Region r = next < plan.size() ? plan.get(next) : null;
+			
+			if (debugPending && (debug = RegionSchedule.debugRawData(ctx.pe)) != null) {
+				if (debug.pointer < pos || debug.pointer <= 0) {
+					debugPending = false;
+				} else if (r == null || debug.pointer < r.pointer) {
+					debugPending = false;
+					r = debug;
+				}
+			}
+			if (r == null || r.pointer <= 0) break;
+			if (r != debug) next++;
+			
+			DataEntry entry = r.toEntry();
+			switch (r.kind) {
+				case SECTION :
+					readSection(ctx, entry);
+					break;
+				case DEBUG_RAW_DATA :
+					readDebugRawData(ctx, entry);
+					break;
+				default :
+					readImageData(ctx, entry, dr);
+			}
+			read.add(r);
+		}
+	}
+	
+	private static byte[] readTrailingData(IDataReader dr) throws IOException {
+		if (dr instanceof MappedDataReader) {
+			byte[] tb = new byte[((MappedDataReader) dr).remaining()];
+			dr.read(tb);
+			return tb;
+		}
 		ByteArrayOutputStream bos = new ByteArrayOutputStream();
 		int read = -1;
 		while ((read = dr.readByte()) != -1) {
 			bos.write(read);
 		}
-		byte[] tb = bos.toByteArray();
-		if (tb.length > 0) {
-			pe.getImageData().setTrailingData(tb);
-		}
-		
-		return pe;
+		return bos.toByteArray();
 	}
 	
 	public static DOSStub readStub(DOSH header, IDataReader dr) throws IOException {
 		DOSStub ds = new DOSStub();
 		int pos = dr.getPosition();
-		int add = header.valueOf(DOSH.Property.PE_HEADER_OFFSET_BD).intValue();
+		int add = (int) header.getU32(DOSH.Property.PE_HEADER_OFFSET_BD);
 		byte[] stub = new byte[add - pos];
 		dr.read(stub);
 		ds.setStub(stub);
@@ -150,17 +237,26 @@ public class PEParser {
 	}
 	
 	public static STable readSectionHeaders(COFFH ch, IDataReader dr) throws IOException {
-		int ns = ch.valueOf(COFFH.Property.NUMBER_OF_SECTIONS).intValue();
+		return readSectionHeaders(ch, dr, false);
+	}
+	
+	/**
+	 * Reads the section table, as views of the header bytes when views is
+	 * true.
+	 */
+	public static STable readSectionHeaders(COFFH ch, IDataReader dr, boolean views)
+				throws IOException {
+		int ns = ch.getU16(COFFH.Property.NUMBER_OF_SECTIONS);
 		
-		STable sht = new STable(ns, dr);
+		STable sht = new STable(ns, dr, views);
 		
 		SH[] sorted = sht.values().toArray(new SH[ns]);
 		int[] virtualAddress = new int[sorted.length];
 		int[] pointerToRawData = new int[sorted.length];
 		
 		for (int i = 0; i < sorted.length; i++) {
-			virtualAddress[i] = sorted[i].valueOf(SH.Property.VIRTUAL_ADDRESS).intValue();
-			pointerToRawData[i] = sorted[i].valueOf(SH.Property.POINTER_TO_RAW_DATA).intValue();
+			virtualAddress[i] = (int) sorted[i].getU32(SH.Property.VIRTUAL_ADDRESS);
+			pointerToRawData[i] = (int) sorted[i].getU32(SH.Property.POINTER_TO_RAW_DATA);
 		}
 		
 		sht.virtualAddress = virtualAddress;
@@ -168,14 +264,22 @@ public class PEParser {
 		return sht;
 	}
 	
+	/**
+	 * Finds the region with the lowest file offset at or after pos.
+	 * 
+	 * @deprecated no longer used by the parser. Each call scans every section
+	 *             and directory; use {@link RegionSchedule#plan(PE)}, which
+	 *             orders all of them at once.
+	 */
+	@Deprecated
 	public static DataEntry findNextEntry(PE pe, int pos) {
 		DataEntry de = new DataEntry();
 		
 		// Check sections first
 		for (SH sh : pe.getSectionTable().values()) {
-			int prd = sh.valueOf(SH.Property.POINTER_TO_RAW_DATA).intValue();
+			int prd = (int) sh.getU32(SH.Property.POINTER_TO_RAW_DATA);
 			
-			if (sh.valueOf(SH.Property.SIZE_OF_RAW_DATA).intValue() > 0 && prd >= pos
+			if (sh.getU32(SH.Property.SIZE_OF_RAW_DATA) > 0 && prd >= pos
 						&& (de.pointer == 0 || prd < de.pointer)) {
 				de.pointer = prd;
 				de.name = sh.toUtfString(SH.Property.NAME);
@@ -188,8 +292,8 @@ public class PEParser {
 		OHD od = pe.getOptionalHeader().getDirectories();
 		
 		for (OHD.Directory d : OHD.Directory.values()) {
-			if (od.valueOf(d, OHDD.Property.SIZE).intValue() > 0) {
-				int prd = od.valueOf(d, OHDD.Property.VIRTUAL_ADDRESS);
+			if (od.getU32(d, OHDD.Property.SIZE) > 0) {
+				int prd = (int) od.getU32(d, OHDD.Property.VIRTUAL_ADDRESS);
 				
 				// Assume certificate live outside section ?
 				if (isInsideSection(pe, d)) {
@@ -208,7 +312,7 @@ public class PEParser {
 		DebugDir dd = null;
 		if (id != null) dd = id.getDebug();
 		if (dd != null) {
-			int prd = dd.valueOf(DebugDir.Property.POINTER_TO_RAW_DATA).intValue();
+			int prd = (int) dd.getU32(DebugDir.Property.POINTER_TO_RAW_DATA);
 			if (prd >= pos && (de.pointer == 0 || prd < de.pointer)) {
 				de.pointer = prd;
 				de.isDebugRawData = true;
@@ -222,24 +326,25 @@ public class PEParser {
 		return de;
 	}
 	
-	private static boolean isInsideSection(PE pe, OHD.Directory d) {
+	static boolean isInsideSection(PE pe, OHD.Directory d) {
 		OHD od = pe.getOptionalHeader().getDirectories();
 		STable sht = pe.getSectionTable();
 		
-		int prd = od.valueOf(d, OHDD.Property.VIRTUAL_ADDRESS);
-		int pex = prd + od.valueOf(d, OHDD.Property.SIZE).intValue();
+		int prd = (int) od.getU32(d, OHDD.Property.VIRTUAL_ADDRESS);
+		int pex = prd + (int) od.getU32(d, OHDD.Property.SIZE);
 		
 		for (SH sh : sht.values()) {
-			int vad = sh.valueOf(SH.Property.VIRTUAL_ADDRESS).intValue();
-			int vex = vad + sh.valueOf(SH.Property.VIRTUAL_SIZE).intValue();
+			int vad = (int) sh.getU32(SH.Property.VIRTUAL_ADDRESS);
+			int vex = vad + (int) sh.getU32(SH.Property.VIRTUAL_SIZE);
 			
 			if (prd >= vad && prd < vex && pex <= vex) return true;
 		}
 		return false;
 	}
 	
-	private static void readImageData(PE pe, DataEntry entry, IDataReader dr)
+	private static void readImageData(ParseContext ctx, DataEntry entry, IDataReader dr)
 				throws IOException {
+		PE pe = ctx.pe;
 		
 		// Read any page padding data
 		ImageData id = pe.getImageData();
@@ -252,68 +357,134 @@ public class PEParser {
 		OHD od = pe.getOptionalHeader().getDirectories();
 		OHDD dd = od.get(OHD.Directory.valueOf(entry.name));
 		
-		int size = dd.valueOf(OHDD.Property.SIZE).intValue();
+		int size = (int) dd.getU32(OHDD.Property.SIZE);
 		
-		byte[] b = new byte[size];
-		dr.read(b);
-		// dd.createTable();
+		ParseListener listener = ctx.listener;
+		if (listener != null) {
+			listener.directoryEntered(OHD.Directory.valueOf(entry.name),
+						(int) dd.getU32(OHDD.Property.VIRTUAL_ADDRESS), size);
+		}
 		
-		ByteBuffer buffer = ByteBuffer.wrap(b);
+		int pos = dr.getPosition();
+		ByteBuffer buffer;
+		if (ctx.options.isZeroCopy() && dr instanceof MappedDataReader) {
+			buffer = ((MappedDataReader) dr).slice(dr.getPosition(), size);
+			dr.skipBytes(size);
+		} else {
+			byte[] b = new byte[size];
+			dr.read(b);
+			buffer = ByteBuffer.wrap(b);
+		}
+		// dd.createTable();
 		
-		System.err.println(entry.name);
+		if (listener != null && entry.pointer != 0) {
+			listener.regionRead(entry.name, pos, size);
+		}
 		
 		switch (OHD.Directory.valueOf(entry.name)) {
 		
 			case IMAGE_DIRECTORY_ENTRY_EXPORT :
 				id.setExportTable(new ExportDir(buffer));
+				fields(ctx, id.getExportTable());
 				break;
 			case IMAGE_DIRECTORY_ENTRY_IMPORT :
 				id.setImportTable(readImportDirectory(buffer, entry.baseAddress));
+				fields(ctx, id.getImportTable());
 				break;
 			case IMAGE_DIRECTORY_ENTRY_RESOURCE :
-				id.setResourceTable(readResourceDirectoryTree(buffer));
+				id.setResourceTable(readResourceDirectoryTree(ctx, buffer));
 				break;
 			case IMAGE_DIRECTORY_ENTRY_EXCEPTION :
-				id.setExceptionTable(b);
+				id.setExceptionData(buffer);
+				id.setFunctionTable(ExceptionTable.read(buffer,
+							pe.getCoffHeader().getU16(COFFH.Property.MACHINE)));
 				break;
 			case IMAGE_DIRECTORY_ENTRY_SECURITY :
-				id.setCertificateTable(b);
+				id.setCertificateTable(toBytes(buffer));
 				break;
 			case IMAGE_DIRECTORY_ENTRY_BASERELOC :
-				id.setBaseRelocationTable(b);
+				id.setBaseRelocations(buffer);
 				break;
 			case IMAGE_DIRECTORY_ENTRY_DEBUG :
-				id.setDebug(new DebugDir(buffer));
+				id.setDebugTable(new DebugDirTable(buffer));
+				fields(ctx, id.getDebugTable());
+				break;
 			case IMAGE_DIRECTORY_ENTRY_ARCHITECTURE :
-				id.setArchitecture(b);
+				id.setArchitecture(toBytes(buffer));
 				break;
 			case IMAGE_DIRECTORY_ENTRY_GLOBALPTR :
-				id.setGlobalPtr(b);
+				id.setGlobalPtr(toBytes(buffer));
 				break;
 			case IMAGE_DIRECTORY_ENTRY_TLS :
-				id.setTlsTable(b);
+				id.setTlsData(buffer);
+				if (buffer.remaining() >= (pe.is64 ? TLSDir64.SIZE_OF : TLSDir32.SIZE_OF)) {
+					id.setTlsDirectory(pe.is64 ? new TLSDir64(buffer) : new TLSDir32(buffer));
+				}
 				break;
 			case IMAGE_DIRECTORY_ENTRY_LOAD_CONFIG :
 				id.setLoadConfigTable(new LoadConfigDir(buffer));
+				fields(ctx, id.getLoadConfigTable());
 				break;
 			case IMAGE_DIRECTORY_ENTRY_BOUND_IMPORT :
-				id.setBoundImports(readBoundImportDirectoryTable(buffer));
+				id.setBoundImports(new BoundImportDir(buffer));
+				fields(ctx, id.getBoundImports());
 				break;
 			case IMAGE_DIRECTORY_ENTRY_IAT :
-				id.setIat(b);
+				id.setIat(toBytes(buffer));
 				break;
 			case IMAGE_DIRECTORY_ENTRY_DELAY_IMPORT :
-				id.setDelayImportDescriptor(b);
+				id.setDelayImportData(buffer);
+				id.setDelayImportTable(new DelayImportDirTable(buffer));
 				break;
 			case IMAGE_DIRECTORY_ENTRY_COM_DESCRIPTOR :
-				id.setClrRuntimeHeader(b);
+				id.setClrRuntimeHeader(toBytes(buffer));
 				break;
 			case IMAGE_DIRECTORY_EMPTY :
-				id.setReserved(b);
+				id.setReserved(toBytes(buffer));
 				break;
 		}
 	}
 	
+	/**
+	 * Sends a field event for each field of a header, or of each header in a
+	 * collection, to the listener. Does nothing without a listener.
+	 */
+	@SuppressWarnings("rawtypes")
+	private static void fields(ParseContext ctx, Object o) {
+		ParseListener listener = ctx.listener;
+		if (listener == null || o == null) return;
+		if (o instanceof DatumHeader) {
+			DatumHeader<?> h = (DatumHeader<?>) o;
+			for (Map.Entry<? extends Enum<?>, DatumAbstract<?>> e : h.entrySet()) {
+				listener.fieldDecoded(h, e.getKey(), e.getValue());
+			}
+		} else if (o instanceof Header) {
+			for (Object v : ((Header) o).values()) {
+				fields(ctx, v);
+			}
+		} else if (o instanceof Iterable) {
+			for (Object v : (Iterable) o) {
+				fields(ctx, v);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the backing array of a wrapped directory buffer, or a copy of a
+	 * mapped one for directories that are only kept as raw bytes.
+	 */
+	private static byte[] toBytes(ByteBuffer buffer) {
+		if (buffer.hasArray() && buffer.arrayOffset() == 0
+					&& buffer.array().length == buffer.limit()) {
+			return buffer.array();
+		}
+		byte[] b = new byte[buffer.limit()];
+		ByteBuffer view = buffer.duplicate();
+		view.position(0);
+		view.get(b);
+		return b;
+	}
+	
 	private static byte[] readPagePadding(int pointer, IDataReader dr) throws IOException {
 		if (pointer > dr.getPosition()) {
 			byte[] pa = new byte[pointer - dr.getPosition()];
@@ -332,103 +503,177 @@ public class PEParser {
 		return null;
 	}
 	
-	private static void readDebugRawData(PE pe, DataEntry entry, IDataReader dr)
-				throws IOException {
+	private static void readDebugRawData(ParseContext ctx, DataEntry entry) throws IOException {
+		PE pe = ctx.pe;
+		IDataReader dr = ctx.dr;
 		// Read any preamble data
 		ImageData id = pe.getImageData();
 		byte[] pa = readPagePadding(entry.pointer, dr);
 		if (pa != null) id.setDebugRawDataPreamble(pa);
 		DebugDir dd = id.getDebug();
 		byte[] b = new byte[dd.valueOf(DebugDir.Property.SIZE_OF_DATA).intValue()];
+		int pos = dr.getPosition();
 		dr.read(b);
 		id.setDebugRawData(b);
+		if (ctx.listener != null) {
+			ctx.listener.regionRead("debug raw data", pos, b.length);
+		}
 	}
 	
-	private static void readSection(PE pe, DataEntry entry, IDataReader dr)
-				throws IOException {
-		
+	private static void readSection(ParseContext ctx, DataEntry entry) throws IOException {
+		PE pe = ctx.pe;
+		IDataReader dr = ctx.dr;
 		STable sht = pe.getSectionTable();
 		SH sh = sht.get(entry.name);
-		System.err.println(entry.name + " read section");
 		SectData sd = pe.new SectData();
 		
 		// Read any preamble - store if non-zero
-		sd.preamble = readPagePadding(sh.valueOf(SH.Property.POINTER_TO_RAW_DATA).intValue(),
-					dr);
+		sd.preamble = readPagePadding((int) sh.getU32(SH.Property.POINTER_TO_RAW_DATA), dr);
 		
 		// Read in the raw data block
-		dr.jumpTo(sh.valueOf(SH.Property.POINTER_TO_RAW_DATA).intValue());
-		byte[] b = new byte[sh.valueOf(SH.Property.SIZE_OF_RAW_DATA).intValue()];
-		dr.read(b);
-		sd.data = b;
+		int prd = (int) sh.getU32(SH.Property.POINTER_TO_RAW_DATA);
+		int srd = (int) sh.getU32(SH.Property.SIZE_OF_RAW_DATA);
+		dr.jumpTo(prd);
+		
+		MappedDataReader mdr = null;
+		byte[] b = null;
+		if (ctx.options.isZeroCopy() && dr instanceof MappedDataReader) {
+			mdr = (MappedDataReader) dr;
+			sd.buffer = mdr.slice(prd, Math.min(srd, mdr.size() - prd));
+			dr.skipBytes(sd.buffer.remaining());
+		} else {
+			b = new byte[srd];
+			dr.read(b);
+			sd.data = b;
+		}
 		sh.sd = sd;
+		if (ctx.listener != null) {
+			ctx.listener.regionRead(entry.name, prd, b != null ? b.length : sd.buffer
+						.remaining());
+		}
 		
 		// Check for an directory image within this section
 		for (OHDD d : pe.getOptionalHeader().getDirectories().values()) {
 			
-			if (d.valueOf(OHDD.Property.SIZE).intValue() > 0) {
+			if (d.getU32(OHDD.Property.SIZE) > 0) {
 				
-				int vad = sh.valueOf(SH.Property.VIRTUAL_ADDRESS).intValue();
-				int vex = vad + sh.valueOf(SH.Property.VIRTUAL_SIZE).intValue();
-				int dad = d.valueOf(OHDD.Property.VIRTUAL_ADDRESS).intValue();
+				int vad = (int) sh.getU32(SH.Property.VIRTUAL_ADDRESS);
+				int vex = vad + (int) sh.getU32(SH.Property.VIRTUAL_SIZE);
+				int dad = (int) d.getU32(OHDD.Property.VIRTUAL_ADDRESS);
 				if (dad >= vad && dad < vex) {
 					int off = dad - vad;
-					IDataReader idr = new ByteArrayDataReader(b, off, d.valueOf(OHDD.Property.SIZE)
-								.intValue());
+					IDataReader idr;
+					if (mdr != null) {
+						int length = Math.min((int) d.getU32(OHDD.Property.SIZE),
+									Math.max(sd.buffer.limit() - off, 0));
+						idr = new MappedDataReader(mdr.slice(prd + Math.min(off, sd.buffer.limit()),
+									length));
+					} else {
+						idr = new ByteArrayDataReader(b, off, (int) d.getU32(OHDD.Property.SIZE));
+					}
 					DataEntry de = new DataEntry(d.index, 0, d.name);
-					de.baseAddress = sh.valueOf(SH.Property.VIRTUAL_ADDRESS).intValue();
+					de.baseAddress = (int) sh.getU32(SH.Property.VIRTUAL_ADDRESS);
 					
-					readImageData(pe, de, idr);
+					readImageData(ctx, de, idr);
 				}
 			}
 		}
 	}
 	
-	private static BoundImportDir readBoundImportDirectoryTable(ByteBuffer buffer)
+	public static ImportDirTable readImportDirectory(ByteBuffer buffer, int baseAddress)
 				throws IOException {
-		BoundImportDir bidt = new BoundImportDir(buffer);
-		
-		Collections.sort(bidt, new Comparator<BoundImport>() {
-			public int compare(BoundImport o1, BoundImport o2) {
-				return o1.valueOf(BoundImport.Property.OFFSET_MODULE_NAME).intValue()
-							- o2.valueOf(BoundImport.Property.OFFSET_MODULE_NAME).intValue();
-			}
-		});
-		IntMap names = new IntMap();
-		BoundImport bi = null;
-		for (int i = 0; i < bidt.size(); i++) {
-			bi = bidt.get(i);
-			int offset = bi.valueOf(BoundImport.Property.OFFSET_MODULE_NAME).intValue();
-			String n = (String) names.get(offset);
-			
-			if (n == null) {
-				buffer.position(offset);
-				// n = dr.readUtf();
-				names.put(offset, n);
+		return new ImportDirTable(buffer);
+	}
+	
+	/**
+	 * Decodes the tables and names of the export directory once every section
+	 * has been read.
+	 */
+	private static void resolveExports(ParseContext ctx) {
+		ImageData id = ctx.pe.getImageData();
+		if (id == null || id.getExportTable() == null) return;
+		OHDD dd = ctx.pe.getOptionalHeader().getDirectories()
+					.get(OHD.Directory.IMAGE_DIRECTORY_ENTRY_EXPORT);
+		id.getExportTable().resolve(ctx.view(), (int) dd.getU32(OHDD.Property.VIRTUAL_ADDRESS),
+					(int) dd.getU32(OHDD.Property.SIZE));
+	}
+	
+	/**
+	 * Reads the function lengths of ARM and ARM64 exception entries from their
+	 * .xdata records, which may follow the directory in another section.
+	 */
+	private static void resolveExceptions(ParseContext ctx) {
+		ImageData id = ctx.pe.getImageData();
+		if (id == null || id.getFunctionTable() == null) return;
+		id.getFunctionTable().resolve(ctx.view());
+	}
+	
+	/**
+	 * Reads the TLS callback array, whose address is a virtual address in the
+	 * data sections.
+	 */
+	private static void resolveTls(ParseContext ctx) {
+		ImageData id = ctx.pe.getImageData();
+		if (id == null || id.getTlsDirectory() == null) return;
+		id.getTlsDirectory().resolve(ctx.view(), imageBase(ctx.pe));
+	}
+	
+	/**
+	 * Decodes the records of the debug directory entries. Records are found by
+	 * RVA in the sections. Records which are not mapped, such as those of
+	 * stripped symbols, are found by file pointer instead: sliced from a mapped
+	 * reader, or else looked up in the raw data of the first entry, of the
+	 * sections and of the trailing data, which is all a stream reader keeps.
+	 * 
+	 * @param trailingOffset
+	 *          file offset of the trailing data
+	 */
+	private static void resolveDebug(ParseContext ctx, int trailingOffset, byte[] trailing)
+				throws IOException {
+		ImageData id = ctx.pe.getImageData();
+		if (id == null || id.getDebugTable() == null) return;
+		DebugDirTable table = id.getDebugTable();
+		for (int i = 0; i < table.size(); i++) {
+			DebugDir d = table.get(i);
+			int rva = (int) d.getU32(DebugDir.Property.ADDRESS_OF_RAW_DATA);
+			int size = (int) d.getU32(DebugDir.Property.SIZE_OF_DATA);
+			ByteBuffer data = rva == 0 ? null : ctx.pe.sliceRva(rva, size);
+			if (data == null) {
+				data = readDebugData(ctx, d, size, trailingOffset, trailing);
 			}
-			bi.moduleName = n;
+			if (data != null) d.resolve(data);
 		}
-		return bidt;
 	}
 	
-	public static ImportDirTable readImportDirectory(ByteBuffer buffer, int baseAddress)
-				throws IOException {
-		ImportDirTable idt = new ImportDirTable(buffer);
-		
-		/*
-		 * FIXME - name table refer to data outside image directory for (int i = 0;
-		 * i < id.size(); i++) { ImportDirectoryEntry e = id.getEntry(i);
-		 * dr.jumpTo(e.getNameRVA() - baseAddress); String name = dr.readUtf();
-		 * dr.jumpTo(e.getImportLookupTableRVA() - baseAddress);
-		 * ImportDirectoryTable nt = readImportDirectoryTable(dr, baseAddress);
-		 * dr.jumpTo(e.getImportAddressTableRVA() - baseAddress);
-		 * ImportDirectoryTable at = null; // readImportDirectoryTable(dr, //
-		 * baseAddress); id.add(name, nt, at); }
-		 */
-		
-		return idt;
+	private static ByteBuffer readDebugData(ParseContext ctx, DebugDir d, int size,
+				int trailingOffset, byte[] trailing) throws IOException {
+		int pointer = (int) d.getU32(DebugDir.Property.POINTER_TO_RAW_DATA);
+		if (pointer <= 0 || size < 0) return null;
+		ImageData id = ctx.pe.getImageData();
+		ByteBuffer data = null;
+		if (ctx.dr instanceof MappedDataReader) {
+			MappedDataReader mr = (MappedDataReader) ctx.dr;
+			if (pointer <= mr.size() - size) data = mr.slice(pointer, size);
+		} else if (d == id.getDebug() && id.getDebugRawData() != null) {
+			data = ByteBuffer.wrap(id.getDebugRawData());
+		} else if (pointer >= trailingOffset && pointer - trailingOffset <= trailing.length - size) {
+			data = ByteBuffer.wrap(trailing, pointer - trailingOffset, size).slice();
+		} else {
+			STable sht = ctx.pe.getSectionTable();
+			SectionIndex index = sht == null ? null : sht.getIndex();
+			int rva = index == null ? -1 : index.toRva(pointer);
+			if (rva != -1) data = ctx.pe.sliceRva(rva, size);
+		}
+		if (data != null) data.order(ByteOrder.LITTLE_ENDIAN);
+		return data;
 	}
 	
+	/**
+	 * @deprecated reads a 32 bit lookup table through the reader. The parser
+	 *             decodes imports into {@link ImportDescriptor#thunks}, see
+	 *             {@link ImportDirectoryTable#of(ImportThunks)}.
+	 */
+	@Deprecated
 	public static ImportDirectoryTable readImportDirectoryTable(IDataReader dr,
 				int baseAddress) throws IOException {
 		ImportDirectoryTable idt = new ImportDirectoryTable();
@@ -450,6 +695,10 @@ public class PEParser {
 		return idt;
 	}
 	
+	/**
+	 * @deprecated see {@link #readImportDirectoryTable(IDataReader, int)}
+	 */
+	@Deprecated
 	public static ImportEntry readImportEntry(IDataReader dr) throws IOException {
 		ImportEntry ie = new ImportEntry();
 		ie.setVal(dr.readDoubleWord());
@@ -460,29 +709,60 @@ public class PEParser {
 		return ie;
 	}
 	
-	LinkedList<Integer> queue = new LinkedList<>();
+	/**
+	 * Decodes the DLL names and lookup tables of the import descriptors. The
+	 * names and tables are usually spread over other sections than the
+	 * directory itself, so this runs once every section has been read.
+	 */
+	private static void resolveImports(ParseContext ctx) {
+		ImageData id = ctx.pe.getImageData();
+		if (id == null || id.getImportTable() == null) return;
+		ImageView view = ctx.view();
+		for (ImportDescriptor d : id.getImportTable()) {
+			d.dllName = view.getName((int) d.getU32(ImportDescriptor.Property.NAME));
+			d.thunks = ImportThunks.read(view, d.getLookupTable(), ctx.pe.is64);
+		}
+	}
 	
-	private static RCTree readResourceDirectoryTree(ByteBuffer buffer)
-				throws IOException {
-		RCTree root = new RCRoot(buffer, new RCDH(buffer));
-		
-		while (traverseTree(root, buffer)) {}
-		return root;
+	/**
+	 * Decodes the DLL names and name tables of the delay load descriptors, as
+	 * {@link #resolveImports(ParseContext)} does for the import descriptors.
+	 */
+	private static void resolveDelayImports(ParseContext ctx) {
+		ImageData id = ctx.pe.getImageData();
+		if (id == null || id.getDelayImportTable() == null) return;
+		ImageView view = ctx.view();
+		long imageBase = imageBase(ctx.pe);
+		for (DelayImportDescriptor d : id.getDelayImportTable()) {
+			long base = d.isRvaBased() ? 0 : imageBase;
+			d.dllName = view.getName(d.getRva(DelayImportDescriptor.Property.NAME, imageBase));
+			d.thunks = ImportThunks.read(view, d.getRva(
+						DelayImportDescriptor.Property.IMPORT_NAME_TABLE, imageBase), ctx.pe.is64, base);
+		}
 	}
 	
-	private static boolean traverseTree(RCTree tree, ByteBuffer buffer)
+	private static long imageBase(PE pe) {
+		OHA<?> oha = pe.getOptionalHeader().getAdditional();
+		if (pe.is64) {
+			return ((OHA64) oha).getU64(OHA64.Property.IMAGE_BASE);
+		}
+		return ((OHA32) oha).getU32(OHA32.Property.IMAGE_BASE);
+	}
+	
+	/**
+	 * Reads the root of the resource tree. Unless resources are lazy the rest
+	 * of the tree is read breadth first by {@link RCTree#readAll()}. A root
+	 * whose entries run past the directory is truncated; one without room for
+	 * its header leaves no tree.
+	 */
+	private static RCTree readResourceDirectoryTree(ParseContext ctx, ByteBuffer buffer)
 				throws IOException {
-		
-		for (RCDirEntry e : tree.values()) {
-			if (e.dir == null && e.entry == null) {
-				buffer.position(e.valueOfBM(RCDirEntry.Property.OFFSET_TO_DATA, 0x7fffffff));
-				e.dir = new RCTree(buffer, new RCDH(buffer));
-				return true;
-			} else if (e.entry == null) {
-				traverseTree(e.dir, buffer);
-			}
+		if (buffer.remaining() < RCDH.SIZE_OF) return null;
+		RCTree root = new RCRoot(buffer, new RCDH(buffer));
+		if (!ctx.options.isLazyResources()) {
+			root.readAll();
 		}
-		return false;
+		return root;
 	}
 	
 }
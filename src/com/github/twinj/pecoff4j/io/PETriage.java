@@ -0,0 +1,172 @@
+package com.github.twinj.pecoff4j.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.github.twinj.pecoff4j.PESig;
+
+/**
+ * Compact summary of the fixed PE headers, decoded from the first page of the
+ * file with absolute reads. No header objects are created so it is suitable
+ * for triaging very large numbers of files before deciding which ones to
+ * parse with {@link PEParser}.
+ *
+ * Files that are too short, lack the MZ magic or have an e_lfanew outside the
+ * file are rejected from the first 64 bytes and return {@link #NOT_PE}.
+ */
+public final class PETriage {
+
+	/**
+	 * Bytes read up front. Covers the headers of nearly every linker's output.
+	 */
+	public static final int HEAD_SIZE = 1024;
+
+	public static final int MAGIC_PE32 = 0x10b;
+	public static final int MAGIC_PE32PLUS = 0x20b;
+
+	private static final int SIZE_OF_DOS_HEADER = 64;
+	private static final int E_LFANEW = 0x3c;
+
+	// Offsets from the PE signature
+	private static final int COFF_MACHINE = 4;
+	private static final int COFF_NUMBER_OF_SECTIONS = 6;
+	private static final int COFF_TIME_DATE_STAMP = 8;
+	private static final int COFF_SIZE_OF_OPTIONAL_HEADER = 20;
+	private static final int COFF_CHARACTERISTICS = 22;
+	private static final int OPT_MAGIC = 24;
+	private static final int OPT_SIZE_OF_IMAGE = 24 + 56;
+	private static final int OPT_SUBSYSTEM = 24 + 68;
+	private static final int OPT_DLL_CHARACTERISTICS = 24 + 70;
+	private static final int SIZE_OF_NT_HEADERS = 24 + 72;
+
+	public static final PETriage NOT_PE = new PETriage(false, 0, false, 0, 0, 0, 0, 0, 0);
+
+	public final boolean isPE;
+	public final int machine;
+	public final boolean pe32Plus;
+	public final int timeDateStamp;
+	public final int subsystem;
+	public final int characteristics;
+	public final int dllCharacteristics;
+	public final int numberOfSections;
+	public final int sizeOfImage;
+
+	private PETriage(boolean isPE, int machine, boolean pe32Plus, int timeDateStamp,
+				int subsystem, int characteristics, int dllCharacteristics, int numberOfSections,
+				int sizeOfImage) {
+		this.isPE = isPE;
+		this.machine = machine;
+		this.pe32Plus = pe32Plus;
+		this.timeDateStamp = timeDateStamp;
+		this.subsystem = subsystem;
+		this.characteristics = characteristics;
+		this.dllCharacteristics = dllCharacteristics;
+		this.numberOfSections = numberOfSections;
+		this.sizeOfImage = sizeOfImage;
+	}
+
+	/**
+	 * Returns a buffer suitable for reuse across calls to
+	 * {@link #read(FileChannel, ByteBuffer)} on the same thread.
+	 */
+	public static ByteBuffer newScratchBuffer() {
+		return ByteBuffer.allocateDirect(HEAD_SIZE);
+	}
+
+	public static PETriage read(Path file) throws IOException {
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+			return read(ch, null);
+		}
+	}
+
+	/**
+	 * Triage the file behind the channel with a single read of its first page.
+	 * A second small read is only made when the NT headers start beyond it.
+	 *
+	 * @param scratch
+	 *          buffer of at least {@link #HEAD_SIZE} bytes, or null to allocate one
+	 */
+	public static PETriage read(FileChannel ch, ByteBuffer scratch) throws IOException {
+		ByteBuffer head = scratch == null ? ByteBuffer.allocate(HEAD_SIZE) : scratch;
+		head.clear();
+		head.limit(Math.min(head.capacity(), HEAD_SIZE));
+		while (head.hasRemaining() && ch.read(head, head.position()) > 0) {}
+		head.flip();
+		return decode(head, ch);
+	}
+
+	/**
+	 * Triage an in-memory copy of at least the start of the file.
+	 */
+	public static PETriage read(ByteBuffer head) throws IOException {
+		ByteBuffer view = head.duplicate();
+		view.position(0);
+		return decode(view, null);
+	}
+
+	static PETriage decode(ByteBuffer head, FileChannel ch) throws IOException {
+		head.order(ByteOrder.LITTLE_ENDIAN);
+		int length = head.limit();
+		if (length < SIZE_OF_DOS_HEADER || (head.getShort(0) & 0xffff) != PESig.IMAGE_DOS_SIGNATURE) {
+			return NOT_PE;
+		}
+		int lfanew = head.getInt(E_LFANEW);
+		long fileSize = ch == null ? length : ch.size();
+		if (lfanew < 0 || lfanew > fileSize - COFF_CHARACTERISTICS - 2) {
+			return NOT_PE;
+		}
+
+		ByteBuffer nt = head;
+		int base = lfanew;
+		if (lfanew > length - SIZE_OF_NT_HEADERS) {
+			if (ch == null) {
+				// Only the signature and COFF header might be present
+				if (lfanew > length - OPT_MAGIC) return NOT_PE;
+			} else {
+				nt = ByteBuffer.allocate(SIZE_OF_NT_HEADERS);
+				nt.order(ByteOrder.LITTLE_ENDIAN);
+				while (nt.hasRemaining() && ch.read(nt, lfanew + nt.position()) > 0) {}
+				nt.flip();
+				if (nt.limit() < OPT_MAGIC) return NOT_PE;
+				base = 0;
+			}
+		}
+
+		if (nt.getInt(base) != PESig.IMAGE_NT_SIGNATURE) {
+			return NOT_PE;
+		}
+		int machine = nt.getShort(base + COFF_MACHINE) & 0xffff;
+		int sections = nt.getShort(base + COFF_NUMBER_OF_SECTIONS) & 0xffff;
+		int stamp = nt.getInt(base + COFF_TIME_DATE_STAMP);
+		int sizeOfOptionalHeader = nt.getShort(base + COFF_SIZE_OF_OPTIONAL_HEADER) & 0xffff;
+		int characteristics = nt.getShort(base + COFF_CHARACTERISTICS) & 0xffff;
+
+		boolean pe32Plus = false;
+		int subsystem = 0;
+		int dllCharacteristics = 0;
+		int sizeOfImage = 0;
+		if (sizeOfOptionalHeader >= SIZE_OF_NT_HEADERS - OPT_MAGIC
+					&& nt.limit() >= base + SIZE_OF_NT_HEADERS) {
+			int magic = nt.getShort(base + OPT_MAGIC) & 0xffff;
+			pe32Plus = magic == MAGIC_PE32PLUS;
+			sizeOfImage = nt.getInt(base + OPT_SIZE_OF_IMAGE);
+			subsystem = nt.getShort(base + OPT_SUBSYSTEM) & 0xffff;
+			dllCharacteristics = nt.getShort(base + OPT_DLL_CHARACTERISTICS) & 0xffff;
+		}
+		return new PETriage(true, machine, pe32Plus, stamp, subsystem, characteristics,
+					dllCharacteristics, sections, sizeOfImage);
+	}
+
+	@Override
+	public String toString() {
+		if (!isPE) return "PETriage[not PE]";
+		return "PETriage[machine=0x" + Integer.toHexString(machine) + ", pe32Plus=" + pe32Plus
+					+ ", timeDateStamp=0x" + Integer.toHexString(timeDateStamp) + ", subsystem="
+					+ subsystem + ", characteristics=0x" + Integer.toHexString(characteristics)
+					+ ", sections=" + numberOfSections + "]";
+	}
+}
@@ -0,0 +1,143 @@
+package com.github.twinj.pecoff4j.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import com.github.twinj.headers.HeaderView;
+import com.github.twinj.pecoff4j.COFFH;
+import com.github.twinj.pecoff4j.DOSH;
+import com.github.twinj.pecoff4j.OHA32;
+import com.github.twinj.pecoff4j.OHA64;
+import com.github.twinj.pecoff4j.OHD;
+import com.github.twinj.pecoff4j.OHDD;
+import com.github.twinj.pecoff4j.OHS;
+import com.github.twinj.pecoff4j.PESig;
+import com.github.twinj.pecoff4j.PropertyInterface;
+import com.github.twinj.pecoff4j.SH;
+
+/**
+ * Flyweight model of a PE image. Headers are returned as {@link HeaderView}s
+ * over the image buffer so the only state retained is the buffer and a few
+ * offsets, instead of the EnumMap and per field objects of the {@link PE}
+ * model built by {@link PEParser}.
+ */
+public class PEView {
+	
+	private static final int SIZE_OF_COFF_HEADER = HeaderView.sizeOf(COFFH.Property.class);
+	private static final int SIZE_OF_STANDARD_HEADER = HeaderView.sizeOf(OHS.Property.class);
+	private static final int SIZE_OF_DIRECTORY = HeaderView.sizeOf(OHDD.Property.class);
+	private static final int SIZE_OF_SECTION_HEADER = HeaderView.sizeOf(SH.Property.class);
+	
+	private final ByteBuffer buffer;
+	private final int coffHeaderOffset;
+	private final int optionalHeaderOffset;
+	private final boolean isPE;
+	private final boolean pe32Plus;
+	
+	public PEView(ByteBuffer image) {
+		ByteBuffer b = image.duplicate();
+		b.order(ByteOrder.LITTLE_ENDIAN);
+		this.buffer = b;
+		
+		int lfanew = -1;
+		if (b.limit() >= HeaderView.sizeOf(DOSH.Property.class)
+					&& (b.getShort(0) & 0xffff) == PESig.IMAGE_DOS_SIGNATURE) {
+			lfanew = b.getInt(DOSH.Property.PE_HEADER_OFFSET_BD.getOffset());
+		}
+		isPE = lfanew >= 0 && lfanew <= b.limit() - PESig.IMAGE_NT_SIGNATURE_SIZE_OF
+					- SIZE_OF_COFF_HEADER - 2 && b.getInt(lfanew) == PESig.IMAGE_NT_SIGNATURE;
+		coffHeaderOffset = isPE ? lfanew + PESig.IMAGE_NT_SIGNATURE_SIZE_OF : -1;
+		optionalHeaderOffset = isPE ? coffHeaderOffset + SIZE_OF_COFF_HEADER : -1;
+		pe32Plus = isPE && (b.getShort(optionalHeaderOffset) & 0xffff) == PETriage.MAGIC_PE32PLUS;
+	}
+	
+	public static PEView map(File file) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+					FileChannel ch = raf.getChannel()) {
+			return new PEView(new MappedDataReader(ch).slice(0, (int) ch.size()));
+		}
+	}
+	
+	public ByteBuffer getBuffer() {
+		return buffer;
+	}
+	
+	public boolean isPE() {
+		return isPE;
+	}
+	
+	public boolean isPE32Plus() {
+		return pe32Plus;
+	}
+	
+	/**
+	 * Returns a view of any header at an absolute file offset.
+	 */
+	public <P extends Enum<P> & PropertyInterface> HeaderView<P> view(Class<P> clazz, int offset) {
+		return new HeaderView<P>(clazz, buffer, offset);
+	}
+	
+	public HeaderView<DOSH.Property> getDosHeader() {
+		return view(DOSH.Property.class, 0);
+	}
+	
+	public HeaderView<COFFH.Property> getCoffHeader() {
+		return isPE ? view(COFFH.Property.class, coffHeaderOffset) : null;
+	}
+	
+	public HeaderView<OHS.Property> getStandardHeader() {
+		return isPE ? view(OHS.Property.class, optionalHeaderOffset) : null;
+	}
+	
+	/**
+	 * Returns the NT additional fields of a PE32 image, or null for PE32+.
+	 */
+	public HeaderView<OHA32.Property> getAdditional32() {
+		return isPE && !pe32Plus ? view(OHA32.Property.class, optionalHeaderOffset
+					+ SIZE_OF_STANDARD_HEADER) : null;
+	}
+	
+	/**
+	 * Returns the NT additional fields of a PE32+ image, or null for PE32.
+	 */
+	public HeaderView<OHA64.Property> getAdditional64() {
+		return isPE && pe32Plus ? view(OHA64.Property.class, optionalHeaderOffset
+					+ SIZE_OF_STANDARD_HEADER) : null;
+	}
+	
+	public int getNumberOfDirectories() {
+		if (!isPE) return 0;
+		return pe32Plus ? (int) getAdditional64().getU32(OHA64.Property.NUMBER_OF_RVA_AND_SIZES)
+					: (int) getAdditional32().getU32(OHA32.Property.NUMBER_OF_RVA_AND_SIZES);
+	}
+	
+	/**
+	 * Returns the data directory entry, or null if the image has fewer
+	 * directories.
+	 */
+	public HeaderView<OHDD.Property> getDirectory(OHD.Directory d) {
+		if (d.ordinal() >= getNumberOfDirectories()) return null;
+		int additional = pe32Plus ? HeaderView.sizeOf(OHA64.Property.class) : HeaderView
+					.sizeOf(OHA32.Property.class);
+		return view(OHDD.Property.class, optionalHeaderOffset + SIZE_OF_STANDARD_HEADER
+					+ additional + d.ordinal() * SIZE_OF_DIRECTORY);
+	}
+	
+	public int getNumberOfSections() {
+		return isPE ? getCoffHeader().getU16(COFFH.Property.NUMBER_OF_SECTIONS) : 0;
+	}
+	
+	/**
+	 * Returns the zero based section header.
+	 */
+	public HeaderView<SH.Property> getSectionHeader(int index) {
+		if (index < 0 || index >= getNumberOfSections()) return null;
+		int first = optionalHeaderOffset
+					+ getCoffHeader().getU16(COFFH.Property.SIZE_OF_OPTIONAL_HEADER);
+		return view(SH.Property.class, first + index * SIZE_OF_SECTION_HEADER);
+	}
+}
@@ -0,0 +1,37 @@
+package com.github.twinj.pecoff4j.io;
+
+/**
+ * State of a single {@link PEParser#read(IDataReader, ParseOptions)} call. A
+ * new context is created for every parse and is only used by the thread
+ * running it, so parses never share mutable state.
+ */
+class ParseContext {
+	
+	final PE pe;
+	final IDataReader dr;
+	final ParseOptions options;
+	
+	/**
+	 * Listener of the options, null when no events are wanted.
+	 */
+	final ParseListener listener;
+	
+	private ImageView view;
+	
+	ParseContext(PE pe, IDataReader dr, ParseOptions options) {
+		this.pe = pe;
+		this.dr = dr;
+		this.options = options;
+		this.listener = options.getListener();
+	}
+	
+	/**
+	 * RVA view of the sections, created on first use once they have been read.
+	 */
+	ImageView view() {
+		if (view == null) {
+			view = new ImageView(pe);
+		}
+		return view;
+	}
+}
@@ -0,0 +1,38 @@
+package com.github.twinj.pecoff4j.io;
+
+import com.github.twinj.headers.DatumAbstract;
+import com.github.twinj.headers.Header;
+import com.github.twinj.pecoff4j.OHD;
+
+/**
+ * Receives events while {@link PEParser} reads an image. Register one with
+ * {@link ParseOptions#setListener(ParseListener)}; when none is registered the
+ * parser does not build any events.
+ * 
+ * Events are delivered on the parsing thread in file order. A listener shared
+ * by concurrent parses must be thread safe.
+ */
+public interface ParseListener {
+	
+	/**
+	 * Called for each field of a header once the header has been decoded.
+	 */
+	void fieldDecoded(Header<?, ?> header, Enum<?> property, DatumAbstract<?> datum);
+	
+	/**
+	 * Called after a block of the file has been read.
+	 * 
+	 * @param name
+	 *          section name, directory name or a description of the block
+	 * @param offset
+	 *          file offset of the block
+	 * @param length
+	 *          number of bytes read
+	 */
+	void regionRead(String name, int offset, int length);
+	
+	/**
+	 * Called before the contents of an image data directory are decoded.
+	 */
+	void directoryEntered(OHD.Directory directory, int virtualAddress, int size);
+}
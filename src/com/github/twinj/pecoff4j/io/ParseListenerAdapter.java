@@ -0,0 +1,17 @@
+package com.github.twinj.pecoff4j.io;
+
+import com.github.twinj.headers.DatumAbstract;
+import com.github.twinj.headers.Header;
+import com.github.twinj.pecoff4j.OHD;
+
+/**
+ * Empty {@link ParseListener} to extend when only some events are of interest.
+ */
+public abstract class ParseListenerAdapter implements ParseListener {
+	
+	public void fieldDecoded(Header<?, ?> header, Enum<?> property, DatumAbstract<?> datum) {}
+	
+	public void regionRead(String name, int offset, int length) {}
+	
+	public void directoryEntered(OHD.Directory directory, int virtualAddress, int size) {}
+}
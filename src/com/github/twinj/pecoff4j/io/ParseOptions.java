@@ -0,0 +1,79 @@
+package com.github.twinj.pecoff4j.io;
+
+import com.github.twinj.pecoff4j.RCDirEntry;
+
+/**
+ * Options controlling how {@link PEParser} reads an image. The defaults
+ * reproduce the behaviour of the plain parse methods.
+ * 
+ * Options are only read by the parser, so one instance may be shared by
+ * concurrent parses as long as it is not changed while they run.
+ */
+public class ParseOptions {
+	
+	private boolean zeroCopy;
+	private boolean lazyResources;
+	private boolean headerViews;
+	private ParseListener listener;
+	
+	/**
+	 * True if section data is exposed as slices of the mapped file instead of
+	 * being copied.
+	 */
+	public boolean isZeroCopy() {
+		return zeroCopy;
+	}
+	
+	/**
+	 * When set and the input is a {@link MappedDataReader}, each section's
+	 * {@link PE.SectData#buffer} is a read only slice of the mapping and
+	 * {@link PE.SectData#data} is left null. Image directories found inside a
+	 * section are decoded straight from the same mapping. Other inputs are
+	 * copied as usual.
+	 */
+	public void setZeroCopy(boolean zeroCopy) {
+		this.zeroCopy = zeroCopy;
+	}
+	
+	public boolean isLazyResources() {
+		return lazyResources;
+	}
+	
+	/**
+	 * When set only the root of the resource tree is read while parsing. Each
+	 * subdirectory is decoded the first time it is reached through
+	 * {@link RCDirEntry#getDir()}, so looking up one resource type leaves the
+	 * rest of the tree untouched. The resource buffer is kept for as long as
+	 * the tree is.
+	 */
+	public void setLazyResources(boolean lazyResources) {
+		this.lazyResources = lazyResources;
+	}
+	
+	public boolean isHeaderViews() {
+		return headerViews;
+	}
+	
+	/**
+	 * When set the DOS, COFF, optional and section headers are read as views
+	 * of their raw bytes, see {@link com.github.twinj.headers.DatumHeader}. The
+	 * getU8 to getU64 getters decode fields on demand from the property
+	 * offsets, and the per field datums are only built for a header that is
+	 * used as a map, for instance to send field events to a listener.
+	 */
+	public void setHeaderViews(boolean headerViews) {
+		this.headerViews = headerViews;
+	}
+	
+	public ParseListener getListener() {
+		return listener;
+	}
+	
+	/**
+	 * Receives field, region and directory events while parsing, or null for
+	 * none. Use a {@link TraceListener} to print them.
+	 */
+	public void setListener(ParseListener listener) {
+		this.listener = listener;
+	}
+}
@@ -0,0 +1,167 @@
+package com.github.twinj.pecoff4j.io;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import com.github.twinj.pecoff4j.DebugDir;
+import com.github.twinj.pecoff4j.OHD;
+import com.github.twinj.pecoff4j.OHDD;
+import com.github.twinj.pecoff4j.SH;
+import com.github.twinj.pecoff4j.STable;
+
+/**
+ * The regions of an image in file order. {@link PEParser} plans the sections
+ * and directories once, after reading the section table, and walks the plan
+ * with a single cursor. The regions it actually reads are recorded on the
+ * {@link PE} so {@link PEAssembler} can write them back in the same order.
+ * 
+ * Regions sharing a pointer keep the order they were added in: sections in
+ * section table order, then directories by index. This matches the order the
+ * parser has always read them in.
+ */
+public class RegionSchedule implements Iterable<RegionSchedule.Region> {
+	
+	public enum Kind {
+		HEADERS, SECTION, DIRECTORY, DEBUG_RAW_DATA, OVERLAY
+	}
+	
+	public static final class Region {
+		
+		public final Kind kind;
+		
+		/**
+		 * File offset of the start of the region.
+		 */
+		public final int pointer;
+		
+		/**
+		 * Size in bytes of the region in the file.
+		 */
+		public final int size;
+		
+		/**
+		 * Section table index or directory index.
+		 */
+		public final int index;
+		
+		/**
+		 * Section name or directory name.
+		 */
+		public final String name;
+		
+		public Region(Kind kind, int pointer, int size, int index, String name) {
+			this.kind = kind;
+			this.pointer = pointer;
+			this.size = size;
+			this.index = index;
+			this.name = name;
+		}
+		
+		/**
+		 * Returns the entry the parser and assembler read and write regions
+		 * through.
+		 */
+		public DataEntry toEntry() {
+			DataEntry de = new DataEntry(index, pointer, name);
+			de.isSection = kind == Kind.SECTION;
+			de.isDebugRawData = kind == Kind.DEBUG_RAW_DATA;
+			if (de.isDebugRawData) de.baseAddress = pointer;
+			return de;
+		}
+		
+		@Override
+		public String toString() {
+			return kind + (name == null ? "" : " " + name.trim()) + " @" + pointer + "+" + size;
+		}
+	}
+	
+	private static final Comparator<Region> BY_POINTER = new Comparator<Region>() {
+		public int compare(Region r1, Region r2) {
+			return Integer.compare(r1.pointer, r2.pointer);
+		}
+	};
+	
+	private final List<Region> regions = new ArrayList<>();
+	
+	/**
+	 * Plans the section and directory regions of an image whose headers and
+	 * section table have been read. Sections without raw data and empty
+	 * directories are left out.
+	 */
+	public static RegionSchedule plan(PE pe) {
+		RegionSchedule rs = new RegionSchedule();
+		STable sht = pe.getSectionTable();
+		
+		int i = 0;
+		for (SH sh : sht.values()) {
+			int srd = (int) sh.getU32(SH.Property.SIZE_OF_RAW_DATA);
+			if (srd > 0) {
+				rs.regions.add(new Region(Kind.SECTION, (int) sh.getU32(SH.Property.POINTER_TO_RAW_DATA),
+							srd, i, sh.toUtfString(SH.Property.NAME)));
+			}
+			i++;
+		}
+		
+		OHD od = pe.getOptionalHeader().getDirectories();
+		for (OHD.Directory d : OHD.Directory.values()) {
+			OHDD dd = od.get(d);
+			if (dd == null || dd.getU32(OHDD.Property.SIZE) == 0) continue;
+			
+			int prd = (int) dd.getU32(OHDD.Property.VIRTUAL_ADDRESS);
+			
+			// Directories outside every section, such as the certificate table,
+			// hold a file offset
+			if (PEParser.isInsideSection(pe, d)) {
+				prd = sht.convertVirtualAddressToRawDataPointer(prd);
+			}
+			rs.regions.add(new Region(Kind.DIRECTORY, prd, (int) dd.getU32(OHDD.Property.SIZE),
+						d.ordinal(), d.toString()));
+		}
+		
+		// Stable, so ties keep the order above
+		Collections.sort(rs.regions, BY_POINTER);
+		return rs;
+	}
+	
+	/**
+	 * Returns the region holding the debug raw data once the debug directory
+	 * has been decoded, or null.
+	 */
+	static Region debugRawData(PE pe) {
+		DebugDir dd = pe.getImageData().getDebug();
+		if (dd == null) return null;
+		return new Region(Kind.DEBUG_RAW_DATA, (int) dd.getU32(DebugDir.Property.POINTER_TO_RAW_DATA),
+					(int) dd.getU32(DebugDir.Property.SIZE_OF_DATA), -1, null);
+	}
+	
+	/**
+	 * Adds a region after any regions with a lower or equal pointer.
+	 */
+	public void add(Region region) {
+		int i = regions.size();
+		while (i > 0 && regions.get(i - 1).pointer > region.pointer) {
+			i--;
+		}
+		regions.add(i, region);
+	}
+	
+	public Region get(int index) {
+		return regions.get(index);
+	}
+	
+	public int size() {
+		return regions.size();
+	}
+	
+	public Iterator<Region> iterator() {
+		return Collections.unmodifiableList(regions).iterator();
+	}
+	
+	@Override
+	public String toString() {
+		return regions.toString();
+	}
+}
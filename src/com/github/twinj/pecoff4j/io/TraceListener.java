@@ -0,0 +1,36 @@
+package com.github.twinj.pecoff4j.io;
+
+import java.io.PrintStream;
+
+import com.github.twinj.headers.DatumAbstract;
+import com.github.twinj.headers.Header;
+import com.github.twinj.pecoff4j.OHD;
+
+/**
+ * Prints every parse event, in the format the parser used to write to
+ * System.err. Useful when debugging a malformed image.
+ */
+public class TraceListener implements ParseListener {
+	
+	private final PrintStream out;
+	
+	public TraceListener() {
+		this(System.err);
+	}
+	
+	public TraceListener(PrintStream out) {
+		this.out = out;
+	}
+	
+	public void fieldDecoded(Header<?, ?> header, Enum<?> property, DatumAbstract<?> datum) {
+		out.println(property + ": " + datum.valueOf());
+	}
+	
+	public void regionRead(String name, int offset, int length) {
+		out.println(name + " read " + length + " bytes at " + offset);
+	}
+	
+	public void directoryEntered(OHD.Directory directory, int virtualAddress, int size) {
+		out.println(directory);
+	}
+}
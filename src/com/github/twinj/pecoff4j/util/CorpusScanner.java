@@ -0,0 +1,284 @@
+package com.github.twinj.pecoff4j.util;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.github.twinj.pecoff4j.io.MappedDataReader;
+import com.github.twinj.pecoff4j.io.PE;
+import com.github.twinj.pecoff4j.io.PEParser;
+import com.github.twinj.pecoff4j.io.PETriage;
+import com.github.twinj.pecoff4j.io.ParseOptions;
+
+/**
+ * Parses every PE file below a directory in parallel. It is a concurrent
+ * replacement for {@link IO#findFiles(File, FilenameFilter, FindFilesCallback)}
+ * followed by a parse of each file.
+ * 
+ * Directories are walked by a work stealing {@link ForkJoinPool}. The walk
+ * hands files to a fixed set of parser threads through a bounded queue, so
+ * it can never run far ahead of the parsers. Each parser triages the file
+ * with {@link PETriage} to skip non PE files cheaply. PE files are then
+ * mapped read only and parsed with {@link PEParser}, and the results are
+ * passed to a {@link ScanSink}.
+ * 
+ * A walker blocks on a semaphore with a permit per free slot of the queue,
+ * so it never waits on the queue itself. Waiting on the queue's condition, or
+ * joining a task, lets the pool start compensating threads. Walk tasks are
+ * forked and never joined, so a slow sink holds back the fixed set of walkers
+ * rather than piling up threads.
+ * 
+ * Symbolic links to directories are not followed, so links to an ancestor
+ * cannot make the walk endless. Links to files are parsed.
+ * 
+ * Parsing is CPU bound, so the number of parser threads defaults to the
+ * number of available processors.
+ */
+public class CorpusScanner {
+	
+	private static final File END = new File("");
+	
+	private int parserThreads = Runtime.getRuntime().availableProcessors();
+	private int walkerThreads = Math.max(2, Runtime.getRuntime().availableProcessors() / 4);
+	private int queueCapacity = 1024;
+	private FilenameFilter filter;
+	private ParseOptions options = new ParseOptions();
+	private ScanSink sink;
+	
+	public CorpusScanner(ScanSink sink) {
+		this.sink = sink;
+	}
+	
+	public void setParserThreads(int parserThreads) {
+		this.parserThreads = parserThreads;
+	}
+	
+	public void setWalkerThreads(int walkerThreads) {
+		this.walkerThreads = walkerThreads;
+	}
+	
+	/**
+	 * Maximum number of files found but not yet parsed.
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+	
+	/**
+	 * Only files accepted by the filter are parsed, null for all.
+	 */
+	public void setFilter(FilenameFilter filter) {
+		this.filter = filter;
+	}
+	
+	/**
+	 * Options shared by every parse. They are not modified by the scanner.
+	 */
+	public void setOptions(ParseOptions options) {
+		this.options = options;
+	}
+	
+	public void setSink(ScanSink sink) {
+		this.sink = sink;
+	}
+	
+	/**
+	 * Scans the tree and returns once every file has been passed to the sink.
+	 * Anything thrown by the sink stops the scan and is rethrown here once the
+	 * parser threads have finished; failures to parse a file, including
+	 * errors such as running out of memory, only go to the sink. Files a walker
+	 * could not queue because it was interrupted are counted as failed and
+	 * passed to the sink with the InterruptedException.
+	 */
+	public ScanStats scan(File root) throws InterruptedException {
+		final BlockingQueue<File> queue = new ArrayBlockingQueue<File>(queueCapacity);
+		final Counters counters = new Counters();
+		counters.slots = new Semaphore(queueCapacity);
+		long start = System.nanoTime();
+		
+		List<Thread> parsers = new ArrayList<Thread>(parserThreads);
+		for (int i = 0; i < parserThreads; i++) {
+			Thread t = new Thread(new Runnable() {
+				public void run() {
+					parseAll(queue, counters);
+				}
+			}, "pecoff4j-parser-" + i);
+			t.setDaemon(true);
+			t.start();
+			parsers.add(t);
+		}
+		
+		ForkJoinPool walkers = new ForkJoinPool(walkerThreads);
+		try {
+			counters.pending.incrementAndGet();
+			walkers.execute(new Walk(root, queue, counters));
+			counters.walked.await();
+		} finally {
+			// Interrupts walkers still blocked by an interrupted scan
+			walkers.shutdownNow();
+			for (int i = 0; i < parserThreads; i++) {
+				queue.put(END);
+			}
+			for (Thread t : parsers) {
+				t.join();
+			}
+		}
+		Throwable t = counters.walkFailure.get();
+		if (t instanceof Error) {
+			throw (Error) t;
+		} else if (t instanceof RuntimeException) {
+			throw (RuntimeException) t;
+		}
+		t = counters.sinkFailure.get();
+		if (t instanceof Error) {
+			throw (Error) t;
+		} else if (t != null) {
+			throw new IllegalStateException("Scan sink failed", t);
+		}
+		return new ScanStats(counters.files.get(), counters.skipped.get(),
+					counters.failed.get(), counters.bytes.get(), System.nanoTime() - start);
+	}
+	
+	/**
+	 * Parses files until the end marker. The thread keeps taking files after
+	 * the sink has failed, without parsing them, so walkers and the end
+	 * markers never block on a full queue.
+	 */
+	private void parseAll(BlockingQueue<File> queue, Counters counters) {
+		try {
+			File f;
+			while ((f = queue.take()) != END) {
+				counters.slots.release();
+				if (counters.sinkFailure.get() != null) continue;
+				try {
+					parse(f, counters);
+				} catch (Throwable ex) {
+					counters.sinkFailure.compareAndSet(null, ex);
+				}
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Parses one file. Only the sink may throw; the sink is called outside the
+	 * handler so what it throws is not taken for a parse failure.
+	 */
+	private void parse(File f, Counters counters) {
+		PE pe = null;
+		Throwable failure = null;
+		try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+			if (!PETriage.read(ch, null).isPE) {
+				counters.skipped.incrementAndGet();
+				return;
+			}
+			MappedDataReader image = new MappedDataReader(ch);
+			pe = PEParser.read(image, options);
+			counters.bytes.addAndGet(image.size());
+			counters.files.incrementAndGet();
+		} catch (Throwable ex) {
+			counters.failed.incrementAndGet();
+			failure = ex;
+		}
+		if (failure != null) {
+			sink.failed(f, failure);
+		} else {
+			sink.parsed(f, pe);
+		}
+	}
+	
+	private static class Counters {
+		final AtomicLong files = new AtomicLong();
+		final AtomicLong skipped = new AtomicLong();
+		final AtomicLong failed = new AtomicLong();
+		final AtomicLong bytes = new AtomicLong();
+		final AtomicReference<Throwable> sinkFailure = new AtomicReference<Throwable>();
+		final AtomicReference<Throwable> walkFailure = new AtomicReference<Throwable>();
+		// Walk tasks forked but not finished, and the signal that none are left
+		final AtomicLong pending = new AtomicLong();
+		final CountDownLatch walked = new CountDownLatch(1);
+		// Free slots of the queue, taken by walkers and returned by parsers
+		Semaphore slots;
+	}
+	
+	/**
+	 * Lists one directory, forking a task for each sub directory. The last task
+	 * to finish releases the scan.
+	 */
+	private class Walk extends RecursiveAction {
+		
+		private static final long serialVersionUID = -2216262618898364475L;
+		
+		private final File dir;
+		private final BlockingQueue<File> queue;
+		private final Counters counters;
+		
+		Walk(File dir, BlockingQueue<File> queue, Counters counters) {
+			this.dir = dir;
+			this.queue = queue;
+			this.counters = counters;
+		}
+		
+		@Override
+		protected void compute() {
+			try {
+				if (counters.sinkFailure.get() == null && counters.walkFailure.get() == null) {
+					walk();
+				}
+			} catch (Throwable t) {
+				counters.walkFailure.compareAndSet(null, t);
+			} finally {
+				if (counters.pending.decrementAndGet() == 0) counters.walked.countDown();
+			}
+		}
+		
+		private void walk() {
+			File[] files = dir.listFiles();
+			if (files == null) return;
+			
+			for (File f : files) {
+				Path p = f.toPath();
+				if (Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS)) {
+					counters.pending.incrementAndGet();
+					new Walk(f, queue, counters).fork();
+				} else if (Files.isRegularFile(p)
+							&& (filter == null || filter.accept(dir, f.getName()))) {
+					put(f);
+				}
+			}
+		}
+		
+		/**
+		 * Queues the file, blocking this walker until the queue has a free slot.
+		 */
+		private void put(File f) {
+			try {
+				counters.slots.acquire();
+				queue.add(f);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				counters.failed.incrementAndGet();
+				try {
+					sink.failed(f, ex);
+				} catch (Throwable t) {
+					counters.sinkFailure.compareAndSet(null, t);
+				}
+			}
+		}
+	}
+}
@@ -13,10 +13,13 @@ package com.github.twinj.pecoff4j.util;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
-import com.github.twinj.pecoff4j.constant.ResourceType;
-import com.github.twinj.pecoff4j.io.DataReader;
+import com.github.twinj.pecoff4j.RCIndex;
+import com.github.twinj.pecoff4j.RCRoot;
+import com.github.twinj.pecoff4j.RCTree;
 import com.github.twinj.pecoff4j.io.DataWriter;
+import com.github.twinj.pecoff4j.io.MappedDataReader;
 import com.github.twinj.pecoff4j.io.PE;
 import com.github.twinj.pecoff4j.io.PEParser;
 import com.github.twinj.pecoff4j.io.ResourceParser;
@@ -29,50 +32,60 @@ import com.github.twinj.pecoff4j.resources.IconImage;
 public class IconExtractor
 {
     public static void extract(File pecoff, File outputDir) throws IOException {
-//        PE pe = PEParser.parse(pecoff);
-//        ResourceDirectory rd = pe.getImageData().getResourceTable();
-//        if (rd == null)
-//            return;
-//        ResourceEntry[] entries = rd.findResources(ResourceType.GROUP_ICON);
-//        for (int i = 0; i < entries.length; i++) {
-//            GroupIconDirectory gid = GroupIconDirectory.read(entries[i]
-//                    .getData());
-//            IconFile icf = new IconFile();
-//            IconDirectory icd = new IconDirectory();
-//            icd.setType(1);
-//            icd.setReserved(0);
-//            icf.setDirectory(icd);
-//            IconImage[] images = new IconImage[gid.getCount()];
-//            icf.setImages(images);
-//
-//            for (int j = 0; j < gid.getCount(); j++) {
-//                GroupIconDirectoryEntry gide = gid.getEntry(j);
-//                IconDirectoryEntry ide = new IconDirectoryEntry();
-//                ide.copyFrom(gide);
-//                icd.add(ide);
-//                ResourceEntry[] icos = rd.findResources(ResourceType.ICON, gide
-//                        .getId());
-//                if (icos == null || icos.length != 1) {
-//                    throw new IOException("Unexpected icons in resource file");
-//                }
-//                byte[] d = icos[0].getData();
-//                ide.setBytesInRes(d.length);
-//                // Check for PNG data
-//                if (gide.getWidth() == 0 && gide.getHeight() == 0) {
-//                    IconImage ii = ResourceParser.readPNG(d);
-//                    images[j] = ii;
-//                } else {
-//                    IconImage ii = ResourceParser.readIconImage(new DataReader(
-//                            d), gide.getBytesInRes());
-//                    images[j] = ii;
-//                }
-//            }
-//
-//            File outFile = new File(outputDir, pecoff.getName() + "-icon" + i +
-//                    ".ico");
-//            DataWriter dw = new DataWriter(new FileOutputStream(outFile));
-//            icf.write(dw);
-//            dw.close();
-//        }
+        PE pe = PEParser.parse(pecoff);
+        RCTree rt = pe.getImageData().getResourceTable();
+        if (!(rt instanceof RCRoot))
+            return;
+        RCIndex index = ((RCRoot) rt).getIndex();
+        int groups = index.firstOf(RCRoot.RT.GROUP_ICON.type);
+        int end = index.endOf(RCRoot.RT.GROUP_ICON.type);
+        for (int i = groups; i < end; i++) {
+            ByteBuffer data = index.getData(pe, i);
+            if (data == null) {
+                throw new IOException("Icon group is not in the file");
+            }
+            GroupIconDirectory gid = GroupIconDirectory.read(new MappedDataReader(
+                    data));
+            IconFile icf = new IconFile();
+            IconDirectory icd = new IconDirectory();
+            icd.setType(1);
+            icd.setReserved(0);
+            icf.setDirectory(icd);
+            IconImage[] images = new IconImage[gid.getCount()];
+            icf.setImages(images);
+
+            for (int j = 0; j < gid.getCount(); j++) {
+                GroupIconDirectoryEntry gide = gid.getEntry(j);
+                IconDirectoryEntry ide = new IconDirectoryEntry();
+                ide.copyFrom(gide);
+                icd.add(ide);
+                int ico = index.firstOf(RCRoot.RT.ICON.type, gide.getId());
+                if (ico + 1 != index.endOf(RCRoot.RT.ICON.type, gide.getId())) {
+                    throw new IOException("Unexpected icons in resource file");
+                }
+                ByteBuffer d = index.getData(pe, ico);
+                if (d == null) {
+                    throw new IOException("Icon is not in the file");
+                }
+                ide.setBytesInRes(d.remaining());
+                // Check for PNG data
+                if (gide.getWidth() == 0 && gide.getHeight() == 0) {
+                    byte[] png = new byte[d.remaining()];
+                    d.get(png);
+                    IconImage ii = ResourceParser.readPNG(png);
+                    images[j] = ii;
+                } else {
+                    IconImage ii = ResourceParser.readIconImage(
+                            new MappedDataReader(d), gide.getBytesInRes());
+                    images[j] = ii;
+                }
+            }
+
+            File outFile = new File(outputDir, pecoff.getName() + "-icon" +
+                    (i - groups) + ".ico");
+            DataWriter dw = new DataWriter(new FileOutputStream(outFile));
+            icf.write(dw);
+            dw.close();
+        }
     }
 }
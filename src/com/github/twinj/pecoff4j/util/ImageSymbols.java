@@ -0,0 +1,222 @@
+package com.github.twinj.pecoff4j.util;
+
+import java.util.Arrays;
+
+import com.github.twinj.pecoff4j.ExceptionTable;
+import com.github.twinj.pecoff4j.ExportDir;
+import com.github.twinj.pecoff4j.ImageData;
+import com.github.twinj.pecoff4j.io.PE;
+
+/**
+ * Function starts of one image, for symbolizing addresses without a PDB.
+ * Starts are taken from the exports and, where the image has one, from the
+ * exception table, which also knows where most functions end. They are kept
+ * as one sorted int array, so resolving an RVA is a binary search that
+ * allocates nothing.
+ *
+ * Instances are immutable and may be shared between threads. Use a
+ * {@link Symbolizer} to share them between images with the same identity.
+ */
+public final class ImageSymbols {
+
+	private static final int NO_END = 0;
+
+	private final int[] starts;
+	private final int[] ends;
+	private final int[] ordinals;
+	private final String[] names;
+	private final int[] nearestNamed;
+
+	private ImageSymbols(int[] starts, int[] ends, int[] ordinals, String[] names) {
+		this.starts = starts;
+		this.ends = ends;
+		this.ordinals = ordinals;
+		this.names = names;
+		this.nearestNamed = new int[starts.length];
+		int last = -1;
+		for (int k = 0; k < starts.length; k++) {
+			if (names[k] != null) last = k;
+			nearestNamed[k] = last;
+		}
+	}
+
+	/**
+	 * Collects the function starts of a parsed image.
+	 */
+	public static ImageSymbols of(PE pe) {
+		Builder b = new Builder();
+		ImageData id = pe.getImageData();
+		ExportDir exports = id == null ? null : id.getExportTable();
+		if (exports != null) {
+			for (int i = 0; i < exports.getNumberOfNames(); i++) {
+				int ordinal = exports.getNameOrdinal(i);
+				if (exports.isForwarder(ordinal)) continue;
+				b.add(exports.getFunctionRva(ordinal), NO_END, ordinal, exports.getName(i));
+			}
+			int base = exports.getBase();
+			for (int i = 0; i < exports.getNumberOfFunctions(); i++) {
+				if (exports.isForwarder(base + i)) continue;
+				b.add(exports.getFunctionRva(base + i), NO_END, base + i, null);
+			}
+		}
+		ExceptionTable pdata = id == null ? null : id.getFunctionTable();
+		if (pdata != null) {
+			for (int i = 0; i < pdata.size(); i++) {
+				b.add(pdata.getBegin(i), pdata.getEnd(i), -1, null);
+			}
+		}
+		return b.build();
+	}
+
+	/**
+	 * Number of function starts.
+	 */
+	public int size() {
+		return starts.length;
+	}
+
+	/**
+	 * Returns the position of the last function starting at or before the RVA,
+	 * whether or not the RVA is inside it, or -1.
+	 */
+	public int floor(int rva) {
+		long r = rva & 0xFFFFFFFFL;
+		int lo = 0, hi = starts.length - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if ((starts[mid] & 0xFFFFFFFFL) <= r) {
+				lo = mid + 1;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		return hi;
+	}
+
+	/**
+	 * Returns the position of the function containing the RVA, or -1. A
+	 * function without a known end extends to the next start.
+	 */
+	public int indexOf(int rva) {
+		int k = floor(rva);
+		if (k < 0) return -1;
+		if (ends[k] != NO_END && (rva & 0xFFFFFFFFL) >= (ends[k] & 0xFFFFFFFFL)) return -1;
+		return k;
+	}
+
+	/**
+	 * Resolves a stack of RVAs with {@link #indexOf(int)}.
+	 *
+	 * @param positions
+	 *          receives the position of each RVA's function, or -1
+	 */
+	public void resolve(int[] rvas, int[] positions) {
+		for (int i = 0; i < rvas.length; i++) {
+			positions[i] = indexOf(rvas[i]);
+		}
+	}
+
+	/**
+	 * Resolves a stack of virtual addresses in an image loaded at the base.
+	 * Addresses outside the 4GB above the base resolve to -1.
+	 */
+	public void resolve(long[] addresses, long imageBase, int[] positions) {
+		for (int i = 0; i < addresses.length; i++) {
+			long rva = addresses[i] - imageBase;
+			positions[i] = rva >= 0 && rva <= 0xFFFFFFFFL ? indexOf((int) rva) : -1;
+		}
+	}
+
+	public int getStart(int k) {
+		return starts[k];
+	}
+
+	/**
+	 * Returns the end of the function, or 0 if it is not known.
+	 */
+	public int getEnd(int k) {
+		return ends[k];
+	}
+
+	/**
+	 * Returns the export ordinal of the function, or -1 if it is not exported.
+	 */
+	public int getOrdinal(int k) {
+		return ordinals[k];
+	}
+
+	/**
+	 * Returns the exported name of the function, or null.
+	 */
+	public String getName(int k) {
+		return names[k];
+	}
+
+	/**
+	 * Returns the position of the closest function at or before k which has a
+	 * name, or -1. Used to describe unnamed functions as name+offset.
+	 */
+	public int getNearestNamed(int k) {
+		return nearestNamed[k];
+	}
+
+	/**
+	 * Collects starts and merges those found in both the exports and the
+	 * exception table.
+	 */
+	private static final class Builder {
+
+		int[] starts = new int[64];
+		int[] ends = new int[64];
+		int[] ordinals = new int[64];
+		String[] names = new String[64];
+		int count;
+
+		void add(int start, int end, int ordinal, String name) {
+			if (start == 0) return;
+			if (count == starts.length) {
+				starts = Arrays.copyOf(starts, count * 2);
+				ends = Arrays.copyOf(ends, count * 2);
+				ordinals = Arrays.copyOf(ordinals, count * 2);
+				names = Arrays.copyOf(names, count * 2);
+			}
+			starts[count] = start;
+			ends[count] = end;
+			ordinals[count] = ordinal;
+			names[count] = name;
+			count++;
+		}
+
+		ImageSymbols build() {
+			// Sort unsigned starts with their position in the low half
+			long[] order = new long[count];
+			for (int i = 0; i < count; i++) {
+				order[i] = (starts[i] & 0xFFFFFFFFL) << 32 | i;
+			}
+			Arrays.sort(order);
+
+			int[] s = new int[count];
+			int[] e = new int[count];
+			int[] o = new int[count];
+			String[] n = new String[count];
+			int k = -1;
+			for (int j = 0; j < count; j++) {
+				int i = (int) order[j];
+				if (k < 0 || s[k] != starts[i]) {
+					k++;
+					s[k] = starts[i];
+					e[k] = ends[i];
+					o[k] = ordinals[i];
+					n[k] = names[i];
+				} else {
+					if (e[k] == NO_END) e[k] = ends[i];
+					if (o[k] < 0) o[k] = ordinals[i];
+					if (n[k] == null) n[k] = names[i];
+				}
+			}
+			k++;
+			return new ImageSymbols(Arrays.copyOf(s, k), Arrays.copyOf(e, k), Arrays.copyOf(o,
+						k), Arrays.copyOf(n, k));
+		}
+	}
+}
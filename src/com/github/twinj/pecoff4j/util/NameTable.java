@@ -0,0 +1,104 @@
+package com.github.twinj.pecoff4j.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Interns the zero terminated ASCII names found in images, such as DLL and
+ * function names. A name is hashed and compared straight from the buffer, so
+ * looking up a name which has been seen before allocates nothing. New names
+ * are added through {@link String#intern()} so that names read from different
+ * images, or by different tables, are the same instance.
+ *
+ * Not thread safe; use one table per parse or per thread.
+ */
+public final class NameTable {
+
+	/**
+	 * Longest name decoded. Longer runs of bytes are truncated.
+	 */
+	public static final int MAX_LENGTH = 4096;
+
+	private String[] names;
+	private int[] hashes;
+	private int size;
+
+	public NameTable() {
+		this(256);
+	}
+
+	public NameTable(int capacity) {
+		int n = Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1);
+		names = new String[n];
+		hashes = new int[n];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the name starting at the absolute offset of the buffer. The name
+	 * ends at the first zero byte, the limit of the buffer or after
+	 * {@link #MAX_LENGTH} bytes.
+	 */
+	public String get(ByteBuffer buffer, int offset) {
+		int end = offset + Math.min(buffer.limit() - offset, MAX_LENGTH);
+		int h = 0;
+		int i = offset;
+		for (; i < end; i++) {
+			byte b = buffer.get(i);
+			if (b == 0) break;
+			h = 31 * h + (b & 0xff);
+		}
+		int length = i - offset;
+
+		int m = names.length - 1;
+		int s = mix(h) & m;
+		for (; names[s] != null; s = (s + 1) & m) {
+			if (hashes[s] == h && matches(names[s], buffer, offset, length)) {
+				return names[s];
+			}
+		}
+
+		char[] c = new char[length];
+		for (int k = 0; k < length; k++) {
+			c[k] = (char) (buffer.get(offset + k) & 0xff);
+		}
+		String name = new String(c).intern();
+		names[s] = name;
+		hashes[s] = h;
+		if (++size * 2 > names.length) {
+			grow();
+		}
+		return name;
+	}
+
+	private static boolean matches(String name, ByteBuffer buffer, int offset, int length) {
+		if (name.length() != length) return false;
+		for (int k = 0; k < length; k++) {
+			if (name.charAt(k) != (buffer.get(offset + k) & 0xff)) return false;
+		}
+		return true;
+	}
+
+	private static int mix(int h) {
+		return (h ^ (h >>> 16)) * 0x45d9f3b;
+	}
+
+	private void grow() {
+		String[] oldNames = names;
+		int[] oldHashes = hashes;
+		names = new String[oldNames.length * 2];
+		hashes = new int[names.length];
+		int m = names.length - 1;
+		for (int i = 0; i < oldNames.length; i++) {
+			if (oldNames[i] == null) continue;
+			int s = mix(oldHashes[i]) & m;
+			while (names[s] != null) {
+				s = (s + 1) & m;
+			}
+			names[s] = oldNames[i];
+			hashes[s] = oldHashes[i];
+		}
+	}
+}
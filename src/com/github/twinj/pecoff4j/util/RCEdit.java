@@ -11,6 +11,9 @@ package com.github.twinj.pecoff4j.util;
 
 import java.io.IOException;
 
+import com.github.twinj.pecoff4j.RCIndex;
+import com.github.twinj.pecoff4j.RCRoot;
+import com.github.twinj.pecoff4j.RCTree;
 import com.github.twinj.pecoff4j.io.PE;
 import com.github.twinj.pecoff4j.io.PEParser;
 
@@ -34,6 +37,29 @@ public class RCEdit
         } else if ("/S".equals(option)) {
             assertArgCount(args, 3, 3);
             setSplash(args[1], args[2]);
+        } else if ("/L".equals(option)) {
+            assertArgCount(args, 2, 2);
+            list(args[1]);
+        }
+    }
+
+    private static void list(String exe) throws IOException {
+        PE pe = PEParser.parse(exe);
+        RCTree rt = pe.getImageData().getResourceTable();
+        if (!(rt instanceof RCRoot)) {
+            printf("No resources\n");
+            return;
+        }
+        RCIndex index = ((RCRoot) rt).getIndex();
+        RCRoot.RT[] types = RCRoot.RT.values();
+        for (int i = 0; i < index.size(); i++) {
+            int type = index.typeAt(i);
+            String typeName = type < types.length
+                    && !types[type].name().startsWith("EMPTY") ? types[type].name
+                    : index.toString(type);
+            printf(String.format("%-20s %-20s %5d  0x%08X %8d\n", typeName, index
+                    .toString(index.nameAt(i)), index.languageAt(i), index.rvaAt(i),
+                    index.sizeAt(i)));
         }
     }
 
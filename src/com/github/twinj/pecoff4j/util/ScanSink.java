@@ -0,0 +1,23 @@
+package com.github.twinj.pecoff4j.util;
+
+import java.io.File;
+
+import com.github.twinj.pecoff4j.io.PE;
+
+/**
+ * Receives the results of a {@link CorpusScanner}. Methods are called
+ * concurrently from the scanner's parser threads so implementations must be
+ * thread safe.
+ */
+public interface ScanSink {
+	
+	/**
+	 * Called with each file that parsed successfully.
+	 */
+	void parsed(File file, PE pe);
+	
+	/**
+	 * Called with each file the parser failed on.
+	 */
+	void failed(File file, Throwable cause);
+}
@@ -0,0 +1,44 @@
+package com.github.twinj.pecoff4j.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totals of a finished {@link CorpusScanner#scan}.
+ */
+public final class ScanStats {
+	
+	public final long files;
+	public final long skipped;
+	public final long failed;
+	public final long bytes;
+	public final long elapsedNanos;
+	
+	ScanStats(long files, long skipped, long failed, long bytes, long elapsedNanos) {
+		this.files = files;
+		this.skipped = skipped;
+		this.failed = failed;
+		this.bytes = bytes;
+		this.elapsedNanos = Math.max(elapsedNanos, 1);
+	}
+	
+	/**
+	 * Files parsed, including failures, per second of wall time.
+	 */
+	public double filesPerSecond() {
+		return (files + failed) * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+	}
+	
+	/**
+	 * Megabytes of parsed files per second of wall time.
+	 */
+	public double megabytesPerSecond() {
+		return bytes / (1024.0 * 1024.0) * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("%d parsed, %d failed, %d skipped in %.2fs (%.1f files/s, %.1f MB/s)",
+					files, failed, skipped, elapsedNanos / 1e9, filesPerSecond(),
+					megabytesPerSecond());
+	}
+}
@@ -0,0 +1,175 @@
+package com.github.twinj.pecoff4j.util;
+
+import java.util.Arrays;
+
+import com.github.twinj.pecoff4j.CodeViewInfo;
+import com.github.twinj.pecoff4j.DebugDirTable;
+import com.github.twinj.pecoff4j.ImageData;
+import com.github.twinj.pecoff4j.io.PE;
+
+/**
+ * In memory index from PDB identity, the GUID and age of an RSDS record or the
+ * time stamp and age of an NB10 record, to an int chosen by the caller, such
+ * as the position of the PDB in a list of files. Identities are kept in
+ * parallel primitive arrays with open addressing, about 50 bytes per PDB, so
+ * millions of them fit in a modest heap and a lookup allocates nothing.
+ *
+ * Not thread safe while adding. Once built, lookups may run from any number
+ * of threads.
+ */
+public final class SymbolStoreIndex {
+
+	public static final int NOT_FOUND = -1;
+
+	private long[] highs;
+	private long[] lows;
+	private int[] ages;
+	private int[] values;
+	private boolean[] used;
+	private int size;
+
+	public SymbolStoreIndex() {
+		this(1024);
+	}
+
+	public SymbolStoreIndex(int capacity) {
+		allocate(Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1) * 2);
+	}
+
+	private void allocate(int n) {
+		highs = new long[n];
+		lows = new long[n];
+		ages = new int[n];
+		values = new int[n];
+		used = new boolean[n];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Adds the identity of the PDB of a parsed image.
+	 *
+	 * @return the value previously added for the identity, or
+	 *         {@link #NOT_FOUND}, also returned if the image has no CodeView
+	 *         record
+	 */
+	public int put(PE pe, int value) {
+		ImageData id = pe.getImageData();
+		DebugDirTable debug = id == null ? null : id.getDebugTable();
+		CodeViewInfo cv = debug == null ? null : debug.getCodeView();
+		return cv == null ? NOT_FOUND : put(cv, value);
+	}
+
+	public int put(CodeViewInfo cv, int value) {
+		return put(cv.getGuidHigh(), cv.getGuidLow(), cv.getAge(), value);
+	}
+
+	/**
+	 * @return the value previously added for the identity, or
+	 *         {@link #NOT_FOUND}
+	 */
+	public int put(long guidHigh, long guidLow, int age, int value) {
+		if ((size + 1) * 2 > used.length) grow();
+		int s = slot(guidHigh, guidLow, age);
+		if (used[s]) {
+			int previous = values[s];
+			values[s] = value;
+			return previous;
+		}
+		used[s] = true;
+		highs[s] = guidHigh;
+		lows[s] = guidLow;
+		ages[s] = age;
+		values[s] = value;
+		size++;
+		return NOT_FOUND;
+	}
+
+	public int get(CodeViewInfo cv) {
+		return get(cv.getGuidHigh(), cv.getGuidLow(), cv.getAge());
+	}
+
+	/**
+	 * Returns the value added for the identity, or {@link #NOT_FOUND}.
+	 */
+	public int get(long guidHigh, long guidLow, int age) {
+		int s = slot(guidHigh, guidLow, age);
+		return used[s] ? values[s] : NOT_FOUND;
+	}
+
+	/**
+	 * Returns the value added for the identity printed as in symbol store
+	 * paths, see {@link CodeViewInfo#getSymbolStoreKey()}, or
+	 * {@link #NOT_FOUND}, also returned for keys which are not well formed.
+	 * Either case of the ASCII hex digits is accepted.
+	 */
+	public int get(CharSequence key) {
+		int n = key.length();
+		for (int i = 0; i < n; i++) {
+			if (digit(key.charAt(i)) < 0) return NOT_FOUND;
+		}
+		if (n > 32 && n <= 40) {
+			return get(hex(key, 0, 16), hex(key, 16, 32), (int) hex(key, 32, n));
+		} else if (n > 8 && n <= 16) {
+			return get(0, hex(key, 0, 8), (int) hex(key, 8, n));
+		}
+		return NOT_FOUND;
+	}
+
+	private static long hex(CharSequence s, int from, int to) {
+		long v = 0;
+		for (int i = from; i < to; i++) {
+			v = v << 4 | digit(s.charAt(i));
+		}
+		return v;
+	}
+
+	/**
+	 * Value of an ASCII hex digit, or -1. Unlike Character.digit, other
+	 * Unicode digits are not accepted.
+	 */
+	private static int digit(char c) {
+		if (c >= '0' && c <= '9') return c - '0';
+		if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+		if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+		return -1;
+	}
+
+	/**
+	 * Returns the slot of the identity, or the empty slot ending its probe.
+	 */
+	private int slot(long high, long low, int age) {
+		int m = used.length - 1;
+		long h = high * 0x9E3779B97F4A7C15L ^ low * 0xC2B2AE3D27D4EB4FL ^ age;
+		int s = (int) (h ^ h >>> 32) & m;
+		while (used[s] && (highs[s] != high || lows[s] != low || ages[s] != age)) {
+			s = s + 1 & m;
+		}
+		return s;
+	}
+
+	private void grow() {
+		long[] h = highs;
+		long[] l = lows;
+		int[] a = ages;
+		int[] v = values;
+		boolean[] u = used;
+		allocate(u.length * 2);
+		for (int i = 0; i < u.length; i++) {
+			if (!u[i]) continue;
+			int s = slot(h[i], l[i], a[i]);
+			used[s] = true;
+			highs[s] = h[i];
+			lows[s] = l[i];
+			ages[s] = a[i];
+			values[s] = v[i];
+		}
+	}
+
+	public void clear() {
+		Arrays.fill(used, false);
+		size = 0;
+	}
+}
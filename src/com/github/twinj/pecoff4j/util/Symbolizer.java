@@ -0,0 +1,157 @@
+package com.github.twinj.pecoff4j.util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.github.twinj.pecoff4j.COFFH;
+import com.github.twinj.pecoff4j.OHA;
+import com.github.twinj.pecoff4j.OHA32;
+import com.github.twinj.pecoff4j.OHA64;
+import com.github.twinj.pecoff4j.io.PE;
+
+/**
+ * Cache of {@link ImageSymbols} keyed by image identity, the COFF
+ * TimeDateStamp and the SizeOfImage, which is what crash dumps record for
+ * each module. A stack is symbolized by looking up the symbols of each module
+ * once and resolving its frames against them.
+ *
+ * Thread safe. The cache is an open addressing table of primitive keys, so a
+ * lookup neither locks nor allocates; adding an image locks.
+ */
+public class Symbolizer {
+
+	private volatile Table cache = new Table(64);
+
+	/**
+	 * Identity of an image, as recorded for modules in crash dumps.
+	 */
+	public static long keyOf(int timeDateStamp, int sizeOfImage) {
+		return (long) timeDateStamp << 32 | (sizeOfImage & 0xFFFFFFFFL);
+	}
+
+	public static long keyOf(PE pe) {
+		int stamp = (int) pe.getCoffHeader().getU32(COFFH.Property.TIME_DATE_STAMP);
+		OHA<?> oha = pe.getOptionalHeader().getAdditional();
+		int size;
+		if (oha instanceof OHA64) {
+			size = (int) ((OHA64) oha).getU32(OHA64.Property.SIZE_OF_IMAGE);
+		} else {
+			size = (int) ((OHA32) oha).getU32(OHA32.Property.SIZE_OF_IMAGE);
+		}
+		return keyOf(stamp, size);
+	}
+
+	/**
+	 * Returns the cached symbols of the image, or null.
+	 */
+	public ImageSymbols get(long key) {
+		Table t = cache;
+		return t.values.get(t.slot(key));
+	}
+
+	/**
+	 * Returns the symbols of the image, collecting and caching them if no image
+	 * with the same identity has been seen.
+	 */
+	public ImageSymbols add(PE pe) {
+		long key = keyOf(pe);
+		ImageSymbols symbols = get(key);
+		if (symbols == null) {
+			symbols = ImageSymbols.of(pe);
+			ImageSymbols previous = putIfAbsent(key, symbols);
+			if (previous != null) symbols = previous;
+		}
+		return symbols;
+	}
+
+	/**
+	 * Resolves the frames of one module, as
+	 * {@link ImageSymbols#resolve(long[], long, int[])}. Frames of a module
+	 * which has not been added resolve to -1.
+	 */
+	public void resolve(long key, long[] addresses, long imageBase, int[] positions) {
+		ImageSymbols symbols = get(key);
+		if (symbols == null) {
+			for (int i = 0; i < addresses.length; i++) {
+				positions[i] = -1;
+			}
+			return;
+		}
+		symbols.resolve(addresses, imageBase, positions);
+	}
+
+	/**
+	 * Number of images cached.
+	 */
+	public synchronized int size() {
+		return cache.size;
+	}
+
+	public synchronized void clear() {
+		cache = new Table(64);
+	}
+
+	/**
+	 * Adds the symbols unless the key is already present, in which case the
+	 * symbols already added are returned and kept.
+	 */
+	private synchronized ImageSymbols putIfAbsent(long key, ImageSymbols symbols) {
+		Table t = cache;
+		int s = t.slot(key);
+		ImageSymbols previous = t.values.get(s);
+		if (previous != null) return previous;
+		if ((t.size + 1) * 2 > t.keys.length) {
+			t = t.grow();
+			s = t.slot(key);
+			t.put(s, key, symbols);
+			cache = t;
+		} else {
+			t.put(s, key, symbols);
+		}
+		return null;
+	}
+
+	/**
+	 * Keys and values in parallel arrays with linear probing. An entry is
+	 * published by the volatile store of its value after its key, and readers
+	 * load the value before the key, so a reader that finds a value also sees
+	 * its key. A full table is copied and the copy published whole.
+	 */
+	private static final class Table {
+
+		final long[] keys;
+		final AtomicReferenceArray<ImageSymbols> values;
+		int size;
+
+		Table(int capacity) {
+			keys = new long[capacity];
+			values = new AtomicReferenceArray<>(capacity);
+		}
+
+		/**
+		 * Returns the slot of the key, or the empty slot ending its probe.
+		 */
+		int slot(long key) {
+			int m = keys.length - 1;
+			int s = (int) (key * 0x9E3779B97F4A7C15L >>> 32) & m;
+			while (values.get(s) != null && keys[s] != key) {
+				s = s + 1 & m;
+			}
+			return s;
+		}
+
+		void put(int s, long key, ImageSymbols symbols) {
+			keys[s] = key;
+			values.set(s, symbols);
+			size++;
+		}
+
+		Table grow() {
+			Table t = new Table(keys.length * 2);
+			for (int i = 0; i < keys.length; i++) {
+				ImageSymbols v = values.get(i);
+				if (v != null) t.put(t.slot(keys[i]), keys[i], v);
+			}
+			return t;
+		}
+	}
+}
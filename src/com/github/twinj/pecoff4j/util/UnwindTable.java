@@ -0,0 +1,89 @@
+package com.github.twinj.pecoff4j.util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.github.twinj.pecoff4j.ExceptionTable;
+import com.github.twinj.pecoff4j.ImageData;
+import com.github.twinj.pecoff4j.UnwindInfo;
+import com.github.twinj.pecoff4j.constant.Machine;
+import com.github.twinj.pecoff4j.io.ImageView;
+import com.github.twinj.pecoff4j.io.PE;
+
+/**
+ * Unwind info of the functions of one x64 image, decoded on first use and
+ * cached per function. Stack walks hit the same functions again and again, so
+ * after the first frame of a function a lookup is the binary search of the
+ * exception table and an array read.
+ *
+ * Thread safe. Lookups of cached functions do not lock; decoding a function
+ * the first time does, as the image view is shared.
+ */
+public final class UnwindTable {
+
+	private static final int RUNTIME_FUNCTION_INDIRECT = 1;
+
+	private final ExceptionTable functions;
+	private final ImageView view;
+	private final AtomicReferenceArray<UnwindInfo> cache;
+
+	private UnwindTable(PE pe, ExceptionTable functions) {
+		this.functions = functions;
+		this.view = new ImageView(pe);
+		this.cache = new AtomicReferenceArray<>(functions.size());
+	}
+
+	/**
+	 * Returns the unwind table of an x64 image, or null for other machines or
+	 * images without an exception table.
+	 */
+	public static UnwindTable of(PE pe) {
+		ImageData id = pe.getImageData();
+		ExceptionTable functions = id == null ? null : id.getFunctionTable();
+		if (functions == null || functions.getMachine() != Machine.IMAGE_FILE_MACHINE_AMD64) {
+			return null;
+		}
+		return new UnwindTable(pe, functions);
+	}
+
+	public ExceptionTable getFunctions() {
+		return functions;
+	}
+
+	/**
+	 * Returns the unwind info of the function containing the RVA, or null for
+	 * leaf functions, which have no entry, and for unwind info that cannot be
+	 * decoded.
+	 */
+	public UnwindInfo find(int rva) {
+		int i = functions.indexOf(rva);
+		return i < 0 ? null : get(i);
+	}
+
+	/**
+	 * Returns the unwind info of the function at the position of the exception
+	 * table, or null if it cannot be decoded.
+	 */
+	public UnwindInfo get(int i) {
+		UnwindInfo info = cache.get(i);
+		if (info == null) {
+			info = decode(functions.getUnwindData(i));
+			if (info != null && !cache.compareAndSet(i, null, info)) {
+				info = cache.get(i);
+			}
+		}
+		return info;
+	}
+
+	private UnwindInfo decode(int rva) {
+		synchronized (view) {
+			// An odd RVA is that of another RUNTIME_FUNCTION whose unwind info is
+			// shared
+			if ((rva & RUNTIME_FUNCTION_INDIRECT) != 0) {
+				int entry = rva & ~RUNTIME_FUNCTION_INDIRECT;
+				if (!view.contains(entry, 12)) return null;
+				rva = view.getU32(entry + 8);
+			}
+			return UnwindInfo.read(view, rva);
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package com.github.twinj.pecoff4j;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.github.twinj.pecoff4j.constant.Machine;
+import com.github.twinj.pecoff4j.io.PE;
+
+public class ExceptionTableTest {
+
+	public static void main(String[] args) throws Exception {
+		arm64();
+		arm();
+		x64();
+		xdata();
+		System.out.println("ExceptionTableTest passed");
+	}
+
+	static void check(boolean ok, String what) {
+		if (!ok) throw new AssertionError(what);
+	}
+
+	static ByteBuffer words(int... words) {
+		ByteBuffer b = ByteBuffer.allocate(words.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+		for (int w : words) {
+			b.putInt(w);
+		}
+		b.flip();
+		return b;
+	}
+
+	/**
+	 * Packed unwind data, Flag 1 or 2, holds FunctionLength in bits 2-12 in 4
+	 * byte units.
+	 */
+	static void arm64() {
+		ExceptionTable t = ExceptionTable.read(words(
+					0x1000, 0x7ff << 2 | 1,
+					0x4000, 10 << 2 | 2,
+					0x5000, 0xffffe000 | 5 << 2 | 1,
+					0x6000, 0x9000), Machine.IMAGE_FILE_MACHINE_ARM64);
+		check(t.size() == 4, "ARM64 entries");
+		check(t.getEnd(0) == 0x1000 + 0x7ff * 4, "largest packed length");
+		check(t.isPacked(0) && t.getUnwindInfo(0) == 0, "packed entry has no .xdata");
+		check(t.getEnd(1) == 0x4000 + 40, "packed fragment");
+		check(t.getEnd(2) == 0x5000 + 20, "bits above FunctionLength are ignored");
+		check(!t.isPacked(3) && t.getUnwindInfo(3) == 0x9000, ".xdata entry");
+		check(t.getEnd(3) == 0, "end of an .xdata entry is unknown until resolved");
+
+		check(t.indexOf(0x1000 + 0x7ff * 4 - 1) == 0, "last byte of the function");
+		check(t.indexOf(0x1000 + 0x7ff * 4) == -1, "past the function");
+		check(t.indexOf(0x7000) == 3, "unknown end extends to the next function");
+		check(t.indexOf(0xfff) == -1, "before the first function");
+	}
+
+	/**
+	 * ARM counts FunctionLength in 2 byte units and sets the Thumb bit of the
+	 * begin, which is cleared.
+	 */
+	static void arm() {
+		ExceptionTable t = ExceptionTable.read(words(
+					0x3001, 0x10 << 2 | 1,
+					0, 0,
+					0x2001, 0x7ff << 2 | 1), Machine.IMAGE_FILE_MACHINE_ARMNT);
+		check(t.size() == 2, "empty entries are skipped");
+		check(t.getBegin(0) == 0x2000 && t.getBegin(1) == 0x3000, "sorted without the Thumb bit");
+		check(t.getEnd(0) == 0x2000 + 0x7ff * 2, "largest packed ARM length");
+		check(t.getEnd(1) == 0x3000 + 0x20, "ARM length in half words");
+		check(t.indexOf(0x3001) == 1, "Thumb address");
+	}
+
+	static void x64() {
+		ExceptionTable t = ExceptionTable.read(words(
+					0x1000, 0x1080, 0x5000,
+					0x1080, 0x1100, 0x5010), Machine.IMAGE_FILE_MACHINE_AMD64);
+		check(t.size() == 2 && t.getEnd(1) == 0x1100, "x64 entries hold the end");
+		check(!t.isPacked(0) && t.getUnwindInfo(0) == 0x5000, "x64 entries are never packed");
+		check(t.indexOf(0x1080) == 1, "adjacent functions");
+
+		check(ExceptionTable.read(words(0x1000, 0x1080), Machine.IMAGE_FILE_MACHINE_I386)
+					.size() == 0, "no layout for i386");
+
+		// Windows CE entries are a VA and prolog length, function length and flags
+		int ce = 0x10 | 0x40 << 8 | 1 << 30;
+		check(ExceptionTable.read(words(0x10001000, ce), Machine.IMAGE_FILE_MACHINE_ARM)
+					.size() == 0, "Windows CE ARM is not decoded");
+		check(ExceptionTable.read(words(0x10001000, ce), Machine.IMAGE_FILE_MACHINE_THUMB)
+					.size() == 0, "Windows CE Thumb is not decoded");
+	}
+
+	/**
+	 * Entries without packed data take the length from the 18 bit
+	 * FunctionLength of the .xdata header once resolved.
+	 */
+	static void xdata() throws Exception {
+		TestImage image = new TestImage(true, Machine.IMAGE_FILE_MACHINE_ARM64, 0x200);
+		ByteBuffer s = image.section;
+		s.putInt(0, 0x1100);
+		s.putInt(4, 0x1040);
+		s.putInt(8, 0x1200);
+		s.putInt(12, 0x1fff0);
+		s.putInt(0x40, 0xfffc0000 | 0x3ffff);
+		image.directory(OHD.Directory.IMAGE_DIRECTORY_ENTRY_EXCEPTION, 0x1000, 16);
+
+		PE pe = image.parse();
+		ExceptionTable t = pe.getImageData().getFunctionTable();
+		check(t.size() == 2, "entries of the image");
+		check(t.getEnd(0) == 0x1100 + 0x3ffff * 4, "largest .xdata length");
+		check(t.getEnd(1) == 0, ".xdata outside the file leaves the end unknown");
+	}
+}
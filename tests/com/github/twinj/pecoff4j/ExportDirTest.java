@@ -0,0 +1,87 @@
+package com.github.twinj.pecoff4j;
+
+import java.nio.ByteBuffer;
+
+import com.github.twinj.pecoff4j.io.PE;
+
+public class ExportDirTest {
+
+	/**
+	 * Sorted as strcmp sorts them: by unsigned byte, upper case before lower
+	 * case, a prefix before its extensions and Latin-1 after ASCII.
+	 */
+	static final String[] NAMES = { "A", "AB", "Ab", "B", "_x", "a", "ab", "\u00e9t" };
+
+	public static void main(String[] args) throws Exception {
+		ExportDir exports = exports();
+		lookups(exports);
+		misses(exports);
+		System.out.println("ExportDirTest passed");
+	}
+
+	static void check(boolean ok, String what) {
+		if (!ok) throw new AssertionError(what);
+	}
+
+	static void lookups(ExportDir exports) {
+		check(exports.getNumberOfNames() == NAMES.length, "number of names");
+		check("test.dll".equals(exports.dllName), "DLL name");
+		for (int i = 0; i < NAMES.length; i++) {
+			check(exports.indexOfName(NAMES[i]) == i, "index of " + NAMES[i]);
+			check(exports.indexOfName(new StringBuilder(NAMES[i])) == i, "builder " + NAMES[i]);
+			check(NAMES[i].equals(exports.getName(i)), "name " + i);
+
+			// Names map to ordinals in reverse
+			int ordinal = 1 + NAMES.length - 1 - i;
+			check(exports.getOrdinal(NAMES[i]) == ordinal, "ordinal of " + NAMES[i]);
+			check(exports.getFunctionRva(NAMES[i]) == 0x1800 + ordinal, "function of " + NAMES[i]);
+		}
+	}
+
+	static void misses(ExportDir exports) {
+		String[] missing = { "", "AA", "Abc", "C", "_", "aa", "b", "\u00e9", "\u00e9tx", "\u00ff" };
+		for (String name : missing) {
+			check(exports.indexOfName(name) == -1, "no " + name);
+			check(exports.getOrdinal(name) == -1, "no ordinal for " + name);
+			check(exports.getFunctionRva(name) == 0, "no function for " + name);
+		}
+	}
+
+	/**
+	 * Exports the names in order, the last one ending the section without its
+	 * zero.
+	 */
+	static ExportDir exports() throws Exception {
+		int n = NAMES.length;
+		TestImage image = new TestImage(false, TestImage.MACHINE_I386, 0x200);
+		ByteBuffer s = image.section;
+		int functions = 0x1040, pointers = 0x1080, ordinals = 0x10c0, strings = 0x1100;
+
+		s.putInt(12, 0x10f0);
+		s.putInt(16, 1);
+		s.putInt(20, n);
+		s.putInt(24, n);
+		s.putInt(28, functions);
+		s.putInt(32, pointers);
+		s.putInt(36, ordinals);
+		image.string(0x10f0, "test.dll");
+
+		for (int i = 0; i < n; i++) {
+			s.putInt(functions - TestImage.SECTION_RVA + 4 * i, 0x1800 + 1 + i);
+			s.putShort(ordinals - TestImage.SECTION_RVA + 2 * i, (short) (n - 1 - i));
+		}
+		int at = strings;
+		for (int i = 0; i < n - 1; i++) {
+			s.putInt(pointers - TestImage.SECTION_RVA + 4 * i, at);
+			image.string(at, NAMES[i]);
+			at += NAMES[i].length() + 1;
+		}
+		int last = TestImage.SECTION_RVA + s.capacity() - NAMES[n - 1].length();
+		s.putInt(pointers - TestImage.SECTION_RVA + 4 * (n - 1), last);
+		image.string(last, NAMES[n - 1]);
+
+		image.directory(OHD.Directory.IMAGE_DIRECTORY_ENTRY_EXPORT, TestImage.SECTION_RVA, 0x40);
+		PE pe = image.parse();
+		return pe.getImageData().getExportTable();
+	}
+}
@@ -0,0 +1,85 @@
+package com.github.twinj.pecoff4j;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import com.github.twinj.headers.DatumHeader;
+import com.github.twinj.pecoff4j.io.PE;
+import com.github.twinj.pecoff4j.io.ParseOptions;
+
+public class HeaderViewsTest {
+
+	public static void main(String[] args) throws Exception {
+		image(false);
+		image(true);
+		System.out.println("HeaderViewsTest passed");
+	}
+
+	static void check(boolean ok, String what) {
+		if (!ok) throw new AssertionError(what);
+	}
+
+	/**
+	 * Every getter of a view reads what the mapped header holds.
+	 */
+	static <P extends Enum<P> & PropertyInterface> void same(DatumHeader<P> mapped,
+				DatumHeader<P> view, Class<P> clazz) {
+		check(!mapped.isView() && view.isView(), clazz.getName() + " is read as a view");
+		for (P p : clazz.getEnumConstants()) {
+			String what = clazz.getName() + "." + p;
+			check(view.getU8(p) == mapped.getU8(p), what);
+			if (p.sizeOf() >= 2) check(view.getU16(p) == mapped.getU16(p), what);
+			if (p.sizeOf() >= 4) check(view.getU32(p) == mapped.getU32(p), what);
+			if (p.sizeOf() >= 8) check(view.getU64(p) == mapped.getU64(p), what);
+			check(view.toUtfString(p).equals(mapped.toUtfString(p)), what);
+		}
+		check(view.isView(), clazz.getName() + " getters leave the view");
+
+		check(view.size() == mapped.size(), clazz.getName() + " mapped on use");
+		check(!view.isView(), clazz.getName() + " is no longer a view");
+		check(Arrays.equals(view.array(), mapped.array()), clazz.getName() + " bytes");
+		for (P p : clazz.getEnumConstants()) {
+			check(view.valueOf(p).equals(mapped.valueOf(p)), clazz.getName() + "." + p + " value");
+			check(view.get(p).position == mapped.get(p).position, clazz.getName() + "." + p + " position");
+		}
+	}
+
+	static void image(boolean pe64) throws Exception {
+		TestImage image = new TestImage(pe64, pe64 ? TestImage.MACHINE_AMD64
+					: TestImage.MACHINE_I386, 0x200);
+		image.directory(OHD.Directory.IMAGE_DIRECTORY_ENTRY_GLOBALPTR, 0x1010, 0);
+		image.directory(OHD.Directory.IMAGE_DIRECTORY_ENTRY_IAT, 0x1020, 0x30);
+		ParseOptions options = new ParseOptions();
+		options.setHeaderViews(true);
+		PE mapped = image.parse();
+		PE view = image.parse(options);
+
+		check(view.getImageData() != null, "image data read from view headers");
+		check(view.getSectionTable().get(".test\0\0\0") != null, "section named from its view");
+		same(mapped.getDosHeader(), view.getDosHeader(), DOSH.Property.class);
+		same(mapped.getCoffHeader(), view.getCoffHeader(), COFFH.Property.class);
+		same(mapped.getOptionalHeader().getStandard(), view.getOptionalHeader().getStandard(),
+					OHS.Property.class);
+		if (pe64) {
+			same((OHA64) mapped.getOptionalHeader().getAdditional(),
+						(OHA64) view.getOptionalHeader().getAdditional(), OHA64.Property.class);
+		} else {
+			same((OHA32) mapped.getOptionalHeader().getAdditional(),
+						(OHA32) view.getOptionalHeader().getAdditional(), OHA32.Property.class);
+		}
+
+		OHD directories = view.getOptionalHeader().getDirectories();
+		check(directories.getU32(OHD.Directory.IMAGE_DIRECTORY_ENTRY_IAT, OHDD.Property.SIZE) == 0x30,
+					"directory read through its block");
+		Iterator<OHDD> d = mapped.getOptionalHeader().getDirectories().values().iterator();
+		for (OHDD dd : directories.values()) {
+			OHDD m = d.next();
+			check(dd.index == m.index && dd.name.equals(m.name), "directory " + m.name);
+			same(m, dd, OHDD.Property.class);
+		}
+		Iterator<SH> s = mapped.getSectionTable().values().iterator();
+		for (SH sh : view.getSectionTable().values()) {
+			same(s.next(), sh, SH.Property.class);
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.github.twinj.pecoff4j;
+
+import java.nio.ByteBuffer;
+
+import com.github.twinj.pecoff4j.io.ImageView;
+
+public class ImportThunksTest {
+
+	static final long HIGH_BASE = 0x90000000L;
+
+	public static void main(String[] args) throws Exception {
+		ImageView view = view();
+		rvas(view);
+		virtualAddresses(view);
+		System.out.println("ImportThunksTest passed");
+	}
+
+	static void check(boolean ok, String what) {
+		if (!ok) throw new AssertionError(what);
+	}
+
+	/**
+	 * Thunk tables at 0x1000 addressed by RVA and at 0x1040 by virtual address
+	 * from {@link #HIGH_BASE}. Each holds a name, an ordinal and a hint/name
+	 * entry whose name would start at the end of the section.
+	 */
+	static ImageView view() throws Exception {
+		TestImage image = new TestImage(false, TestImage.MACHINE_I386, 0x200);
+		ByteBuffer s = image.section;
+		s.putShort(0x100, (short) 5);
+		image.string(0x1102, "Foo");
+		s.putShort(0x1fe, (short) 9);
+
+		s.putInt(0x00, 0x1100);
+		s.putInt(0x04, 0x80000007);
+		s.putInt(0x08, 0x11fe);
+
+		s.putInt(0x40, (int) (HIGH_BASE + 0x1100));
+		s.putInt(0x44, 0x80000007);
+		s.putInt(0x48, (int) (HIGH_BASE + 0x11fe));
+		return new ImageView(image.parse());
+	}
+
+	static void expect(ImportThunks t) {
+		check(t.size() == 3, "entries");
+		check("Foo".equals(t.getName(0)) && t.getHint(0) == 5, "named import");
+		check(!t.isOrdinal(0) && t.getOrdinal(0) == -1, "named import has no ordinal");
+		check(t.isOrdinal(1) && t.getOrdinal(1) == 7, "ordinal import");
+		check(t.getName(1) == null && t.getHint(1) == -1, "ordinal import has no name");
+		check(t.getName(2) == null, "name past the section");
+		check(!t.isOrdinal(2) && t.getOrdinal(2) == -1 && t.getHint(2) == -1,
+					"import with a missing name is unresolved, not an ordinal");
+	}
+
+	static void rvas(ImageView view) {
+		expect(ImportThunks.read(view, 0x1000, false));
+	}
+
+	/**
+	 * Version 1 delay import tables of an image based above 0x80000000 hold
+	 * name addresses with the ordinal flag set.
+	 */
+	static void virtualAddresses(ImageView view) {
+		expect(ImportThunks.read(view, 0x1040, false, HIGH_BASE));
+	}
+}
@@ -0,0 +1,224 @@
+package com.github.twinj.pecoff4j;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.github.twinj.pecoff4j.io.PE;
+
+public class RCIndexTest {
+
+	private static final int DIRECTORY = 0x80000000;
+	private static final int STRING = 0x80000000;
+	private static final int MAX = (1 << 21) - 1;
+
+	public static void main(String[] args) throws Exception {
+		keys();
+		lookups();
+		ranges();
+		malformed();
+		System.out.println("RCIndexTest passed");
+	}
+
+	static void check(boolean ok, String what) {
+		if (!ok) throw new AssertionError(what);
+	}
+
+	static void keys() {
+		long k = RCIndex.key(3, RCIndex.NAMED | 5, 1033);
+		check(RCIndex.typeOf(k) == 3, "type component");
+		check(RCIndex.nameOf(k) == (RCIndex.NAMED | 5), "named component");
+		check(RCIndex.languageOf(k) == 1033, "language component");
+
+		k = RCIndex.key(MAX, MAX, MAX);
+		check(k == Long.MAX_VALUE, "all components at their maximum");
+		check(RCIndex.typeOf(k) == MAX && RCIndex.nameOf(k) == MAX
+					&& RCIndex.languageOf(k) == MAX, "maximum components");
+
+		// Components are masked so they never spill into the next one
+		check(RCIndex.key(0, -1, 0) == RCIndex.key(0, MAX, 0), "name is masked");
+
+		// Type first, then name, then language
+		check(RCIndex.key(1, MAX, MAX) < RCIndex.key(2, 0, 0), "types sort first");
+		check(RCIndex.key(1, 1, MAX) < RCIndex.key(1, 2, 0), "then names");
+		check(RCIndex.key(1, 1, 1) < RCIndex.key(1, 1, 2), "then languages");
+		check(RCIndex.key(1, 7, 0) < RCIndex.key(1, RCIndex.NAMED, 0), "ids before names");
+	}
+
+	static void lookups() {
+		RCIndex index = index();
+		check(index.size() == 6, "every leaf is indexed");
+
+		int i = index.find(3, 2, 1031);
+		check(i >= 0 && index.rvaAt(i) == 0x5100, "icon 2 in German");
+		check(index.sizeAt(i) == 0x20 && index.codePageAt(i) == 1252, "data entry fields");
+		check(index.rvaAt(index.find(3, 2, 1033)) == 0x5200, "icon 2 in English");
+		check(index.find(3, 3, 1033) == -1, "missing name");
+		check(index.find(3, 2, 1036) == -1, "missing language");
+
+		int config = index.componentOf("CONFIG");
+		int about = index.componentOf("ABOUT");
+		check((config & RCIndex.NAMED) != 0 && (about & RCIndex.NAMED) != 0, "named components");
+		check(index.componentOf("MISSING") == -1, "unknown name");
+		check("CONFIG".equals(index.toString(config)), "name of a component");
+		check("24".equals(index.toString(24)), "id of a component");
+		check(index.rvaAt(index.find(10, config, 0)) == 0x6000, "named lookup");
+		check(index.rvaAt(index.find(10, about, 0)) == 0x6100, "second named lookup");
+
+		for (int k = 1; k < index.size(); k++) {
+			check(index.keyAt(k - 1) < index.keyAt(k), "keys are sorted " + k);
+		}
+	}
+
+	static void ranges() {
+		RCIndex index = index();
+
+		int first = index.firstOf(3), end = index.endOf(3);
+		check(end - first == 3, "entries of the icon type");
+		for (int i = first; i < end; i++) {
+			check(index.typeAt(i) == 3, "type of " + i);
+		}
+
+		first = index.firstOf(3, 2);
+		end = index.endOf(3, 2);
+		check(end - first == 2, "languages of icon 2");
+		check(index.languageAt(first) == 1031 && index.languageAt(first + 1) == 1033,
+					"languages in order");
+
+		// An absent type is an empty range where it would be
+		check(index.firstOf(4) == index.endOf(4), "absent type is empty");
+		check(index.firstOf(4) == index.firstOf(10), "absent type sits before the next one");
+		check(index.endOf(10) - index.firstOf(10) == 2, "named entries of a type");
+
+		check(index.endOf(24) == index.size(), "last type ends the index");
+		check(index.firstOf(MAX) == index.size() && index.endOf(MAX) == index.size(),
+					"range at the top of the key space");
+		check(index.lowerBound(0) == 0, "lower bound of the smallest key");
+	}
+
+	/**
+	 * Parses an image whose resource directory is the start of the section.
+	 */
+	static RCTree parse(TestImage image, int size) throws Exception {
+		image.directory(OHD.Directory.IMAGE_DIRECTORY_ENTRY_RESOURCE, TestImage.SECTION_RVA, size);
+		PE pe = image.parse();
+		return pe.getImageData().getResourceTable();
+	}
+
+	/**
+	 * Entry counts are unsigned words, and counts larger than the directory
+	 * truncate the root and drop subdirectories rather than fail the parse.
+	 */
+	static void malformed() throws Exception {
+		TestImage image = new TestImage(false, TestImage.MACHINE_I386, 0x200);
+		ByteBuffer s = image.section;
+		s.putShort(14, (short) 1);
+		s.putInt(16, 3);
+		s.putInt(20, DIRECTORY | 0x20);
+		s.putShort(0x20 + 12, (short) 0x8000);
+		RCTree root = parse(image, 0x100);
+		check(root.size() == 1, "root of a subdirectory with 0x8000 named entries");
+		check(root.get("3").getDir() == null, "subdirectory past the directory is dropped");
+
+		image = new TestImage(false, TestImage.MACHINE_I386, 0x200);
+		s = image.section;
+		s.putShort(14, (short) 0x7fff);
+		for (int i = 0; i < 0x20; i++) {
+			s.putInt(16 + 8 * i, i + 1);
+		}
+		root = parse(image, 0x100);
+		check(root.size() == (0x100 - 16) / 8, "root is truncated to the directory");
+		check(root.get("1") != null && root.get("31") == null, "entries in the directory");
+
+		image = new TestImage(false, TestImage.MACHINE_I386, 0x200);
+		s = image.section;
+		s.putShort(14, (short) 0xffff);
+		for (int i = 0; i < 0x20; i++) {
+			s.putInt(16 + 8 * i, i + 1);
+		}
+		check(parse(image, 0x100).size() == (0x100 - 16) / 8, "counts are unsigned");
+		check(parse(image, 8) == null, "no room for the root header");
+	}
+
+	/**
+	 * Icons 1 and 2, the second in two languages, RCDATA named CONFIG and
+	 * ABOUT, and a manifest.
+	 */
+	static RCIndex index() {
+		Resources r = new Resources();
+		int root = r.dir(0, 3);
+
+		int icons = r.dir(0, 2);
+		r.entry(root, 0, 3, DIRECTORY | icons);
+		r.entry(icons, 0, 1, DIRECTORY | r.leaf(1033, 0x5000));
+		int icon2 = r.dir(0, 2);
+		r.entry(icons, 1, 2, DIRECTORY | icon2);
+		r.entry(icon2, 0, 1031, r.data(0x5100));
+		r.entry(icon2, 1, 1033, r.data(0x5200));
+
+		int data = r.dir(2, 0);
+		r.entry(root, 1, 10, DIRECTORY | data);
+		r.entry(data, 0, STRING | r.name("CONFIG"), DIRECTORY | r.leaf(0, 0x6000));
+		r.entry(data, 1, STRING | r.name("ABOUT"), DIRECTORY | r.leaf(0, 0x6100));
+
+		int manifests = r.dir(0, 1);
+		r.entry(root, 2, 24, DIRECTORY | manifests);
+		r.entry(manifests, 0, 1, DIRECTORY | r.leaf(1033, 0x7000));
+
+		ByteBuffer b = r.buffer;
+		b.limit(r.top);
+		b.position(0);
+		return new RCRoot(b, new RCDH(b)).getIndex();
+	}
+
+	/**
+	 * Lays out a resource section from offset 0.
+	 */
+	static class Resources {
+		final ByteBuffer buffer = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+		int top;
+
+		int alloc(int n) {
+			int at = top;
+			top += n;
+			return at;
+		}
+
+		int dir(int named, int ids) {
+			int at = alloc(16 + 8 * (named + ids));
+			buffer.putShort(at + 12, (short) named);
+			buffer.putShort(at + 14, (short) ids);
+			return at;
+		}
+
+		void entry(int dir, int i, int name, int offset) {
+			buffer.putInt(dir + 16 + 8 * i, name);
+			buffer.putInt(dir + 20 + 8 * i, offset);
+		}
+
+		int data(int rva) {
+			int at = alloc(16);
+			buffer.putInt(at, rva);
+			buffer.putInt(at + 4, 0x20);
+			buffer.putInt(at + 8, 1252);
+			return at;
+		}
+
+		/**
+		 * A language directory with a single entry.
+		 */
+		int leaf(int language, int rva) {
+			int dir = dir(0, 1);
+			entry(dir, 0, language, data(rva));
+			return dir;
+		}
+
+		int name(String s) {
+			int at = alloc(2 + 2 * s.length());
+			buffer.putShort(at, (short) s.length());
+			for (int i = 0; i < s.length(); i++) {
+				buffer.putChar(at + 2 + 2 * i, s.charAt(i));
+			}
+			return at;
+		}
+	}
+}
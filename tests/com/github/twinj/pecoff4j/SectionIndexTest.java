@@ -0,0 +1,100 @@
+package com.github.twinj.pecoff4j;
+
+import java.util.Random;
+
+public class SectionIndexTest {
+	
+	public static void main(String[] args) {
+		overlap();
+		batch();
+		random();
+		System.out.println("SectionIndexTest passed");
+	}
+	
+	static void check(boolean ok, String what) {
+		if (!ok) throw new AssertionError(what);
+	}
+	
+	/**
+	 * .text at 0x1000 and a corrupt second section starting inside it. The
+	 * first section in table order owns the overlap.
+	 */
+	static void overlap() {
+		SectionIndex index = new SectionIndex(
+					new int[] { 0x1000, 0x1800, 0x3000 },
+					new int[] { 0x1000, 0x1000, 0x200 },
+					new int[] { 0x1000, 0x1000, 0 },
+					new int[] { 0x400, 0x1000, 0 });
+		
+		check(index.sectionOf(0x0fff) == -1, "below the first section");
+		check(index.sectionOf(0x1000) == 0, "start of .text");
+		check(index.sectionOf(0x1800) == 0, "overlap owned by the first section");
+		check(index.sectionOf(0x1fff) == 0, "end of the overlap");
+		check(index.sectionOf(0x2000) == 1, "second section past the overlap");
+		check(index.sectionOf(0x27ff) == 1, "end of the second section");
+		check(index.sectionOf(0x2800) == -1, "gap");
+		check(index.sectionOf(0x3000) == 2, "bss");
+		
+		check(index.toOffset(0x1800) == 0xc00, "offset through the first section");
+		check(index.toOffset(0x2000) == 0x1800, "offset through the second section");
+		check(index.toOffset(0x3000) == -1, "bss has no file data");
+		
+		// Raw data of the second section is inside that of the first
+		check(index.toRva(0x1000) == 0x1c00, "shared raw data maps to the first section");
+		check(index.toRva(0x1800) == 0x2000, "raw data only in the second section");
+		check(index.toRva(0x3ff) == -1, "headers are not in a section");
+	}
+	
+	static void batch() {
+		SectionIndex index = new SectionIndex(
+					new int[] { 0x1000, 0x2000 },
+					new int[] { 0x800, 0x1000 },
+					new int[] { 0x1000, 0x200 },
+					new int[] { 0x400, 0x1400 });
+		int[] rvas = { 0x1000, 0x1004, 0x2000, 0x21ff, 0x2200, 0x1008, 0x500 };
+		int[] expected = { 0x400, 0x404, 0x1400, 0x15ff, -1, 0x408, -1 };
+		int[] offsets = index.toOffsets(rvas);
+		for (int i = 0; i < rvas.length; i++) {
+			check(offsets[i] == expected[i], "batch " + i);
+			check(index.toOffset(rvas[i]) == expected[i], "single " + i);
+		}
+		
+		// In place
+		index.toOffsets(rvas, rvas);
+		for (int i = 0; i < rvas.length; i++) {
+			check(rvas[i] == expected[i], "in place " + i);
+		}
+	}
+	
+	/**
+	 * Compares lookups with a scan of the table on random overlapping
+	 * sections, including ones at the top of the address space.
+	 */
+	static void random() {
+		Random r = new Random(42);
+		for (int round = 0; round < 200; round++) {
+			int n = 1 + r.nextInt(12);
+			int[] va = new int[n];
+			int[] vs = new int[n];
+			int[] raw = new int[n];
+			int[] ptr = new int[n];
+			for (int i = 0; i < n; i++) {
+				va[i] = round % 10 == 0 ? -0x1000 * (1 + r.nextInt(4)) : r.nextInt(64) * 0x100;
+				vs[i] = r.nextInt(32) * 0x100;
+				raw[i] = r.nextInt(32) * 0x100;
+				ptr[i] = r.nextInt(8) * 0x100;
+			}
+			SectionIndex index = new SectionIndex(va, vs, raw, ptr);
+			for (int k = 0; k < 400; k++) {
+				int rva = va[r.nextInt(n)] + r.nextInt(0x2400) - 0x200;
+				int expected = -1;
+				for (int i = 0; i < n && expected < 0; i++) {
+					long delta = (rva - va[i]) & 0xFFFFFFFFL;
+					long size = Math.max(vs[i] & 0xFFFFFFFFL, raw[i] & 0xFFFFFFFFL);
+					if (delta < size && (va[i] & 0xFFFFFFFFL) + delta < 1L << 32) expected = i;
+				}
+				check(index.sectionOf(rva) == expected, "round " + round + " rva " + rva);
+			}
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package com.github.twinj.pecoff4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.github.twinj.pecoff4j.io.MappedDataReader;
+import com.github.twinj.pecoff4j.io.PE;
+import com.github.twinj.pecoff4j.io.PEParser;
+import com.github.twinj.pecoff4j.io.ParseOptions;
+
+/**
+ * Lays out a minimal PE32 or PE32+ image in memory: the headers and a single
+ * section, whose contents and data directories the test fills in.
+ */
+class TestImage {
+
+	static final int MACHINE_I386 = 0x14c;
+	static final int MACHINE_AMD64 = 0x8664;
+
+	static final int IMAGE_BASE = 0x10000000;
+
+	/**
+	 * RVA of the section, whose raw data starts at file offset
+	 * {@link #POINTER_TO_RAW_DATA}.
+	 */
+	static final int SECTION_RVA = 0x1000;
+	static final int POINTER_TO_RAW_DATA = 0x200;
+
+	final boolean pe64;
+	final int machine;
+
+	/**
+	 * Raw data of the section, addressed by offset from {@link #SECTION_RVA}.
+	 */
+	final ByteBuffer section;
+
+	private final int[] directoryRva = new int[16];
+	private final int[] directorySize = new int[16];
+
+	TestImage(boolean pe64, int machine, int sizeOfRawData) {
+		this.pe64 = pe64;
+		this.machine = machine;
+		this.section = ByteBuffer.allocate(sizeOfRawData).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	void directory(OHD.Directory d, int rva, int size) {
+		directoryRva[d.ordinal()] = rva;
+		directorySize[d.ordinal()] = size;
+	}
+
+	/**
+	 * Writes a zero terminated Latin-1 string at the RVA, without the zero if
+	 * it would not fit.
+	 */
+	void string(int rva, String s) {
+		int at = rva - SECTION_RVA;
+		for (int i = 0; i < s.length(); i++) {
+			section.put(at + i, (byte) s.charAt(i));
+		}
+		if (at + s.length() < section.capacity()) section.put(at + s.length(), (byte) 0);
+	}
+
+	PE parse() throws IOException {
+		return parse(new ParseOptions());
+	}
+
+	PE parse(ParseOptions options) throws IOException {
+		int optional = pe64 ? 240 : 224;
+		ByteBuffer b = ByteBuffer.allocate(POINTER_TO_RAW_DATA + section.capacity())
+					.order(ByteOrder.LITTLE_ENDIAN);
+		b.putShort(0, (short) 0x5a4d);
+		b.putInt(0x3c, 0x40);
+		b.putInt(0x40, 0x4550);
+
+		int coff = 0x44;
+		b.putShort(coff, (short) machine);
+		b.putShort(coff + 2, (short) 1);
+		b.putShort(coff + 16, (short) optional);
+		b.putShort(coff + 18, (short) 0x2102);
+
+		int oh = coff + 20;
+		b.putShort(oh, (short) (pe64 ? 0x20b : 0x10b));
+		if (pe64) {
+			b.putLong(oh + 24, IMAGE_BASE);
+		} else {
+			b.putInt(oh + 28, IMAGE_BASE);
+		}
+		b.putInt(oh + 32, 0x1000);
+		b.putInt(oh + 36, 0x200);
+		b.putInt(oh + 56, SECTION_RVA + 0x1000 * ((section.capacity() + 0xfff) / 0x1000));
+		b.putInt(oh + 60, POINTER_TO_RAW_DATA);
+		int dirs = oh + optional - 128;
+		b.putInt(dirs - 4, 16);
+		for (int i = 0; i < 16; i++) {
+			b.putInt(dirs + 8 * i, directoryRva[i]);
+			b.putInt(dirs + 8 * i + 4, directorySize[i]);
+		}
+
+		int sh = oh + optional;
+		b.put(sh, (byte) '.');
+		b.put(sh + 1, (byte) 't');
+		b.put(sh + 2, (byte) 'e');
+		b.put(sh + 3, (byte) 's');
+		b.put(sh + 4, (byte) 't');
+		b.putInt(sh + 8, section.capacity());
+		b.putInt(sh + 12, SECTION_RVA);
+		b.putInt(sh + 16, section.capacity());
+		b.putInt(sh + 20, POINTER_TO_RAW_DATA);
+		b.putInt(sh + 36, 0x40000040);
+
+		b.position(POINTER_TO_RAW_DATA);
+		b.put(section.array());
+		b.position(0);
+		return PEParser.read(new MappedDataReader(b), options);
+	}
+}
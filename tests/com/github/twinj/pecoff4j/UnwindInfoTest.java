@@ -0,0 +1,145 @@
+package com.github.twinj.pecoff4j;
+
+import java.nio.ByteBuffer;
+
+import com.github.twinj.pecoff4j.io.ImageView;
+
+public class UnwindInfoTest {
+
+	public static void main(String[] args) throws Exception {
+		slots();
+		truncated();
+		chains();
+		System.out.println("UnwindInfoTest passed");
+	}
+
+	static void check(boolean ok, String what) {
+		if (!ok) throw new AssertionError(what);
+	}
+
+	static int header(int flags, int count) {
+		return 1 | flags << 3 | 0x20 << 8 | count << 16;
+	}
+
+	static int code(int offset, int op, int info) {
+		return offset | op << 8 | info << 12;
+	}
+
+	/**
+	 * Writes the header and slots at the RVA and returns the RVA past the
+	 * padded slots.
+	 */
+	static int write(ByteBuffer s, int rva, int header, int... slots) {
+		int at = rva - TestImage.SECTION_RVA;
+		s.putInt(at, header);
+		for (int i = 0; i < slots.length; i++) {
+			s.putShort(at + 4 + 2 * i, (short) slots[i]);
+		}
+		return rva + 4 + (slots.length + 1 & ~1) * 2;
+	}
+
+	static ImageView view(TestImage image) throws Exception {
+		return new ImageView(image.parse());
+	}
+
+	/**
+	 * Every operation takes the number of slots the linker lays out, so the
+	 * operations after it and the handler after the padded array are found.
+	 */
+	static void slots() throws Exception {
+		TestImage image = new TestImage(true, TestImage.MACHINE_AMD64, 0x200);
+		int tail = write(image.section, 0x1000, header(UnwindInfo.UNW_FLAG_EHANDLER, 19),
+					code(0x20, UnwindInfo.UWOP_SET_FPREG, 0),
+					code(0x1c, UnwindInfo.UWOP_PUSH_MACHFRAME, 1),
+					code(0x18, UnwindInfo.UWOP_SAVE_XMM128_FAR, 6), 0x0010, 0x0001,
+					code(0x14, UnwindInfo.UWOP_SAVE_NONVOL_FAR, 7), 0x0020, 0x0002,
+					code(0x10, UnwindInfo.UWOP_SAVE_XMM128, 6), 3,
+					code(0x0c, UnwindInfo.UWOP_SAVE_NONVOL, 7), 5,
+					code(0x08, UnwindInfo.UWOP_ALLOC_LARGE, 1), 0x0000, 0x0001,
+					code(0x06, UnwindInfo.UWOP_ALLOC_LARGE, 0), 0x0100,
+					code(0x02, UnwindInfo.UWOP_ALLOC_SMALL, 3),
+					code(0x01, UnwindInfo.UWOP_PUSH_NONVOL, 3));
+		check(tail == 0x1000 + 4 + 40, "19 slots are padded to 20");
+		image.section.putInt(tail - TestImage.SECTION_RVA, 0x1234);
+
+		UnwindInfo u = UnwindInfo.read(view(image), 0x1000);
+		check(u != null, "decoded");
+		check(u.getCodeCount() == 10, "operations, not slots");
+		int[] ops = { UnwindInfo.UWOP_SET_FPREG, UnwindInfo.UWOP_PUSH_MACHFRAME,
+					UnwindInfo.UWOP_SAVE_XMM128_FAR, UnwindInfo.UWOP_SAVE_NONVOL_FAR,
+					UnwindInfo.UWOP_SAVE_XMM128, UnwindInfo.UWOP_SAVE_NONVOL,
+					UnwindInfo.UWOP_ALLOC_LARGE, UnwindInfo.UWOP_ALLOC_LARGE,
+					UnwindInfo.UWOP_ALLOC_SMALL, UnwindInfo.UWOP_PUSH_NONVOL };
+		int[] operands = { 0, 48, 0x10010, 0x20020, 48, 40, 0x10000, 0x800, 32, 0 };
+		for (int k = 0; k < ops.length; k++) {
+			check(u.getOp(k) == ops[k], "operation " + k);
+			check(u.getOperand(k) == operands[k], "operand " + k);
+		}
+		check(u.getOpInfo(9) == 3 && u.getCodeOffset(9) == 1, "info and offset");
+		check(u.getStackSize() == 48 + 0x10000 + 0x800 + 32 + 8, "stack size");
+		check(u.getHandler() == 0x1234, "handler after the padding");
+	}
+
+	/**
+	 * An operation needing more slots than the count leaves is rejected, as
+	 * are unknown versions and unwind info outside the file.
+	 */
+	static void truncated() throws Exception {
+		TestImage image = new TestImage(true, TestImage.MACHINE_AMD64, 0x200);
+		write(image.section, 0x1000, header(0, 2),
+					code(0x04, UnwindInfo.UWOP_PUSH_NONVOL, 3),
+					code(0x02, UnwindInfo.UWOP_ALLOC_LARGE, 1));
+		write(image.section, 0x1010, header(0, 2),
+					code(0x04, UnwindInfo.UWOP_PUSH_NONVOL, 3),
+					code(0x02, UnwindInfo.UWOP_SAVE_NONVOL, 3));
+		write(image.section, 0x1020, header(0, 1) & ~7 | 3,
+					code(0x04, UnwindInfo.UWOP_PUSH_NONVOL, 3));
+		ImageView view = view(image);
+
+		check(UnwindInfo.read(view, 0x1000) == null, "three slot operation in two slots");
+		check(UnwindInfo.read(view, 0x1010) == null, "two slot operation in the last slot");
+		check(UnwindInfo.read(view, 0x1020) == null, "version 3");
+		check(UnwindInfo.read(view, 0x1200) == null, "outside the section");
+		check(UnwindInfo.read(view, 0x11fe) == null, "header across the end of the section");
+	}
+
+	/**
+	 * A chain of unwind info without codes, each chained to the next.
+	 */
+	static ImageView chain(int length, boolean cycle) throws Exception {
+		TestImage image = new TestImage(true, TestImage.MACHINE_AMD64, 0x400);
+		for (int i = 0; i < length; i++) {
+			int rva = 0x1000 + 16 * i;
+			boolean last = i == length - 1;
+			int tail = write(image.section, rva, header(last && !cycle ? 0
+						: UnwindInfo.UNW_FLAG_CHAININFO, 0));
+			ByteBuffer s = image.section;
+			s.putInt(tail - TestImage.SECTION_RVA, 0x2000 + i);
+			s.putInt(tail - TestImage.SECTION_RVA + 4, 0x2100 + i);
+			s.putInt(tail - TestImage.SECTION_RVA + 8, last ? 0x1000 : rva + 16);
+		}
+		return view(image);
+	}
+
+	static int length(UnwindInfo u) {
+		int n = 0;
+		for (; u != null; u = u.getChained()) {
+			n++;
+		}
+		return n;
+	}
+
+	static void chains() throws Exception {
+		UnwindInfo u = UnwindInfo.read(chain(2, false), 0x1000);
+		check(u != null && length(u) == 2, "chained once");
+		check(u.getChainedBegin() == 0x2000 && u.getChainedEnd() == 0x2100, "chained function");
+		check(u.getHandler() == 0, "no handler with chain info");
+
+		int longest = UnwindInfo.MAX_CHAIN + 1;
+		check(length(UnwindInfo.read(chain(longest, false), 0x1000)) == longest,
+					"chain of MAX_CHAIN links");
+		check(UnwindInfo.read(chain(longest + 1, false), 0x1000) == null, "chain too long");
+		check(UnwindInfo.read(chain(1, true), 0x1000) == null, "unwind info chained to itself");
+		check(UnwindInfo.read(chain(3, true), 0x1000) == null, "cycle of three");
+	}
+}
@@ -0,0 +1,112 @@
+package com.github.twinj.pecoff4j.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.github.twinj.pecoff4j.CodeViewInfo;
+
+public class SymbolStoreIndexTest {
+
+	public static void main(String[] args) {
+		rsds();
+		nb10();
+		malformed();
+		System.out.println("SymbolStoreIndexTest passed");
+	}
+
+	static void check(boolean ok, String what) {
+		if (!ok) throw new AssertionError(what);
+	}
+
+	static CodeViewInfo rsds(int data1, int age) {
+		ByteBuffer b = ByteBuffer.allocate(25).order(ByteOrder.LITTLE_ENDIAN);
+		b.putInt(CodeViewInfo.SIGNATURE_RSDS);
+		b.putInt(data1);
+		b.putShort((short) 0xbeef);
+		b.putShort((short) 0x0abc);
+		b.put(new byte[] { 1, 2, 3, 4, 5, 6, 7, (byte) 0xf8 });
+		b.putInt(age);
+		b.flip();
+		return CodeViewInfo.read(b);
+	}
+
+	static CodeViewInfo nb10(int timeStamp, int age) {
+		ByteBuffer b = ByteBuffer.allocate(17).order(ByteOrder.LITTLE_ENDIAN);
+		b.putInt(CodeViewInfo.SIGNATURE_NB10);
+		b.putInt(0);
+		b.putInt(timeStamp);
+		b.putInt(age);
+		b.flip();
+		return CodeViewInfo.read(b);
+	}
+
+	/**
+	 * GUID keys are 32 hex digits followed by the age, 33 to 40 in all.
+	 */
+	static void rsds() {
+		SymbolStoreIndex index = new SymbolStoreIndex(4);
+		CodeViewInfo shortest = rsds(0x12345678, 0);
+		CodeViewInfo longest = rsds(0x12345678, -1);
+		CodeViewInfo other = rsds(0x7fffffff, 3);
+		index.put(shortest, 1);
+		index.put(longest, 2);
+		index.put(other, 3);
+
+		String key = shortest.getSymbolStoreKey();
+		check(key.length() == 33, "age 0 gives the shortest key");
+		check(index.get(key) == 1, "shortest key");
+		check(index.get(key.toLowerCase()) == 1, "lower case key");
+		check(index.get(new StringBuilder(key)) == 1, "any char sequence");
+
+		key = longest.getSymbolStoreKey();
+		check(key.length() == 40, "largest age gives the longest key");
+		check(index.get(key) == 2, "longest key");
+		check(index.get(other.getSymbolStoreKey()) == 3, "other GUID");
+
+		check(index.get("12345678BEEF0ABC01020304050607F82") == SymbolStoreIndex.NOT_FOUND,
+					"age not added");
+		check(index.get("12345678BEEF0ABC01020304050607F9" + "0") == SymbolStoreIndex.NOT_FOUND,
+					"GUID not added");
+	}
+
+	/**
+	 * Time stamp keys are 8 hex digits followed by the age, 9 to 16 in all.
+	 */
+	static void nb10() {
+		SymbolStoreIndex index = new SymbolStoreIndex();
+		index.put(nb10(0x5f3a1b2c, 1), 10);
+		index.put(nb10(0x0000002c, -1), 11);
+
+		check("5F3A1B2C1".equals(nb10(0x5f3a1b2c, 1).getSymbolStoreKey()), "NB10 key");
+		check(index.get("5F3A1B2C1") == 10, "shortest NB10 key");
+		check(index.get("0000002CFFFFFFFF") == 11, "longest NB10 key");
+		check(index.get("5F3A1B2C2") == SymbolStoreIndex.NOT_FOUND, "NB10 age not added");
+		check(index.get("2C1") == SymbolStoreIndex.NOT_FOUND, "time stamp must be 8 digits");
+	}
+
+	static void malformed() {
+		SymbolStoreIndex index = new SymbolStoreIndex();
+		index.put(0, 0x5f3a1b2c, 1, 10);
+		index.put(0x12345678beef0abcL, 0x01020304050607f8L, 1, 20);
+		check(index.get("5F3A1B2C1") == 10, "well formed");
+
+		String[] keys = {
+					"",
+					"5F3A1B2C",
+					"5F3A1B2C1FFFFFFFF",
+					"12345678BEEF0ABC01020304050607F8",
+					"12345678BEEF0ABC01020304050607F8000000001",
+					"5F3A1B2G1",
+					"5F3A1B2C-",
+					" 5F3A1B2C1",
+					"0x5F3A1B2C1",
+					"{12345678BEEF0ABC01020304050607F81}",
+					"12345678-BEEF-0ABC-0102-030405060",
+					// Fullwidth digits are digits to Character.digit
+					"5F3A1B2C\uff11" };
+		for (String key : keys) {
+			check(index.get(key) == SymbolStoreIndex.NOT_FOUND, "malformed " + key);
+		}
+		check(index.get("12345678BEEF0ABC01020304050607F81") == 20, "GUID key");
+	}
+}